@@ -0,0 +1,80 @@
+package com.example.dungeon.benchmark;
+
+import com.example.dungeon.controller.BoardController.BoardResponse;
+import com.example.dungeon.entity.Board;
+import com.example.dungeon.solver.Grid;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Board codec behind {@link Board#getBoardArray()} and
+ * {@link Board#setBoardArray(int[][])}, plus the legacy JSON decode path and
+ * the {@link BoardResponse} body written for each kind of stored board.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class BoardCodecBenchmark {
+
+    @Param({"5x5", "20x20", "256x256", "1024x1024"})
+    public String shape;
+
+    private int[][] grid;
+    private Board encoded;
+    private Board legacy;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        grid = Boards.generate(shape, "MIXED");
+        encoded = new Board("benchmark", grid);
+        legacy = new Board();
+        legacy.setBoardData(Arrays.deepToString(grid).replace(" ", ""));
+    }
+
+    @Benchmark
+    public Board encode() {
+        Board board = new Board();
+        board.setBoardArray(grid);
+        return board;
+    }
+
+    @Benchmark
+    public int[][] decode() {
+        return encoded.getBoardArray();
+    }
+
+    @Benchmark
+    public Grid decodeGrid() {
+        return encoded.getGrid();
+    }
+
+    @Benchmark
+    public Grid decodeLegacyJson() {
+        return legacy.getGrid();
+    }
+
+    @Benchmark
+    public int[][] roundTrip() {
+        Board board = new Board();
+        board.setBoardArray(grid);
+        return board.getBoardArray();
+    }
+
+    @Benchmark
+    public byte[] writeResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new BoardResponse(encoded));
+    }
+
+    @Benchmark
+    public byte[] writeLegacyResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new BoardResponse(legacy));
+    }
+}
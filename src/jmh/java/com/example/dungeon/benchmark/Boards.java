@@ -0,0 +1,37 @@
+package com.example.dungeon.benchmark;
+
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic board generator shared by the benchmarks, so every run
+ * measures exactly the same inputs.
+ */
+final class Boards {
+
+    private static final long SEED = 0x5EED_D0E5L;
+
+    private Boards() {}
+
+    // Parses a "ROWSxCOLS" shape parameter, e.g. "4096x16"
+    static int[] shape(String shape) {
+        int x = shape.indexOf('x');
+        return new int[]{Integer.parseInt(shape.substring(0, x)), Integer.parseInt(shape.substring(x + 1))};
+    }
+
+    // MIXED draws from -10..10 like stress/test.js, NEGATIVE from -10..-1
+    static int[][] generate(String shape, String fill) {
+        int[] dims = shape(shape);
+        SplittableRandom random = new SplittableRandom(SEED);
+        int[][] board = new int[dims[0]][dims[1]];
+        for (int[] row : board) {
+            for (int j = 0; j < row.length; j++) {
+                row[j] = switch (fill) {
+                    case "MIXED" -> random.nextInt(-10, 11);
+                    case "NEGATIVE" -> random.nextInt(-10, 0);
+                    default -> throw new IllegalArgumentException("Unknown fill: " + fill);
+                };
+            }
+        }
+        return board;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.dungeon.benchmark;
+
+import com.example.dungeon.service.DungeonService;
+import com.example.dungeon.solver.Grid;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Baseline for {@link DungeonService#calculateMinimumHP} across square,
+ * wide and tall boards with mixed and all-negative cells.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "--add-modules", "jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class SolverBenchmark {
+
+    @Param({"5x5", "20x20", "256x256", "1024x1024", "4096x4096", "16x4096", "4096x16"})
+    public String shape;
+
+    @Param({"MIXED", "NEGATIVE"})
+    public String fill;
+
+    private DungeonService service;
+    private int[][] board;
+    private Grid grid;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = new DungeonService();
+        board = Boards.generate(shape, fill);
+        grid = Grid.of(board);
+    }
+
+    @Benchmark
+    public int calculateMinimumHP() {
+        return service.calculateMinimumHP(board);
+    }
+
+    @Benchmark
+    public int calculateMinimumHPGrid() {
+        return service.calculateMinimumHP(grid);
+    }
+}
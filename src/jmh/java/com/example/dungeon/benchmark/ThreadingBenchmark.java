@@ -0,0 +1,78 @@
+package com.example.dungeon.benchmark;
+
+import com.example.dungeon.solver.Grid;
+import com.example.dungeon.solver.SequentialSolver;
+import com.example.dungeon.solver.StreamingSolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solves arriving in bursts, on a virtual thread each or on a fixed pool of
+ * platform threads, to compare the two with the solvers' scratch lines
+ * shared through a pool rather than held per thread. Each operation is a
+ * burst of {@code burst} solves, so throughput is in bursts and the sampled
+ * percentiles (p0.95 among them) are a whole burst's latency.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "--add-modules", "jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class ThreadingBenchmark {
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public String threads;
+
+    @Param({"20x20", "256x256"})
+    public String shape;
+
+    @Param({"SEQUENTIAL", "STREAMING"})
+    public String solver;
+
+    @Param({"200"})
+    public int burst;
+
+    private final SequentialSolver sequential = new SequentialSolver();
+    private final StreamingSolver streaming = new StreamingSolver();
+    private ExecutorService executor;
+    private Grid grid;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        grid = Grid.of(Boards.generate(shape, "MIXED"));
+        executor = switch (threads) {
+            // As many as Tomcat's default pool
+            case "PLATFORM" -> Executors.newFixedThreadPool(200);
+            case "VIRTUAL" -> Executors.newVirtualThreadPerTaskExecutor();
+            default -> throw new IllegalArgumentException("Unknown threads: " + threads);
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int solveBurst() throws InterruptedException, ExecutionException {
+        boolean streamed = solver.equals("STREAMING");
+        List<Future<Integer>> solves = new ArrayList<>(burst);
+        for (int k = 0; k < burst; k++) {
+            // The solvers directly: DungeonService would serve all but the first from its result cache
+            solves.add(executor.submit(() -> streamed ? streaming.solve(grid) : sequential.solve(grid)));
+        }
+        int sum = 0;
+        for (Future<Integer> solve : solves) {
+            sum += solve.get();
+        }
+        return sum;
+    }
+}
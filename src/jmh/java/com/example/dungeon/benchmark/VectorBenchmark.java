@@ -0,0 +1,46 @@
+package com.example.dungeon.benchmark;
+
+import com.example.dungeon.solver.DungeonSolver;
+import com.example.dungeon.solver.Grid;
+import com.example.dungeon.solver.SequentialSolver;
+import com.example.dungeon.solver.VectorSupport;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-core comparison of the Vector API solver with the scalar one on
+ * the mid-sized boards the API mostly serves.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class VectorBenchmark {
+
+    @Param({"20x20", "128x128", "256x256", "512x512", "64x1024"})
+    public String shape;
+
+    private DungeonSolver vector;
+    private DungeonSolver scalar;
+    private Grid grid;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        vector = VectorSupport.create();
+        scalar = new SequentialSolver();
+        grid = Grid.of(Boards.generate(shape, "MIXED"));
+    }
+
+    @Benchmark
+    public int vector() {
+        return vector.solve(grid);
+    }
+
+    @Benchmark
+    public int scalar() {
+        return scalar.solve(grid);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.dungeon.benchmark;
+
+import com.example.dungeon.solver.Grid;
+import com.example.dungeon.solver.SequentialSolver;
+import com.example.dungeon.solver.WavefrontSolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scaling of the wavefront solver across worker counts, against the
+ * sequential solver on the same large boards.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class WavefrontBenchmark {
+
+    @Param({"4096x4096", "8192x2048"})
+    public String shape;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    @Param({"256"})
+    public int tileSize;
+
+    private ForkJoinPool pool;
+    private WavefrontSolver wavefront;
+    private SequentialSolver sequential;
+    private Grid grid;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = new ForkJoinPool(parallelism);
+        wavefront = new WavefrontSolver(pool, tileSize);
+        sequential = new SequentialSolver();
+        grid = Grid.of(Boards.generate(shape, "MIXED"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int wavefront() {
+        return wavefront.solve(grid);
+    }
+
+    @Benchmark
+    public int sequential() {
+        return sequential.solve(grid);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.dungeon.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Registers the {@link ConcurrencyLimitFilter} (unless
+ * {@code dungeon.limits.enabled} is false) just after the filter that times
+ * requests, so shed requests still show in {@code http.server.requests},
+ * and meters each endpoint's limit, requests in flight and rejections.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "dungeon.limits", name = "enabled", matchIfMissing = true)
+public class ConcurrencyLimitConfiguration {
+
+    @Bean
+    ConcurrencyLimitFilter concurrencyLimitFilter(LimitProperties properties) {
+        return new ConcurrencyLimitFilter(properties);
+    }
+
+    @Bean
+    FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilterRegistration(ConcurrencyLimitFilter filter) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    @Bean
+    MeterBinder concurrencyLimitMetrics(ConcurrencyLimitFilter filter) {
+        return registry -> filter.limiters().forEach((endpoint, limiter) -> {
+            Gauge.builder("dungeon.limit", limiter, GradientLimiter::limit)
+                    .description("Concurrent requests allowed")
+                    .tag("endpoint", endpoint)
+                    .register(registry);
+            Gauge.builder("dungeon.limit.in.flight", limiter, GradientLimiter::inFlight)
+                    .description("Requests in flight")
+                    .tag("endpoint", endpoint)
+                    .register(registry);
+            FunctionCounter.builder("dungeon.limit.rejected", limiter, GradientLimiter::rejected)
+                    .description("Requests shed with 503")
+                    .tag("endpoint", endpoint)
+                    .register(registry);
+        });
+    }
+}
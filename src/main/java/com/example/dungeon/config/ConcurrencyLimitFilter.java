@@ -0,0 +1,116 @@
+package com.example.dungeon.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Puts a {@link GradientLimiter} in front of each endpoint of
+ * {@code dungeon.limits.endpoints}. A request over its endpoint's limit is
+ * answered at once with 503 and {@code Retry-After}, before it can queue for
+ * a thread or a connection. Requests that end in a server error release
+ * their slot without a latency sample. A request carrying one of its
+ * endpoint's {@code except-params} is not limited at all, so a quick
+ * variant of an endpoint, such as a play submitted to run in the
+ * background, neither takes a slot nor drags down the latency it is
+ * limited by.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    static final String BUSY = "{\"error\":\"Too many concurrent requests, retry later\"}";
+
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    private final Map<String, GradientLimiter> limiters = new LinkedHashMap<>();
+    private final List<Route> routes = new ArrayList<>();
+
+    public ConcurrencyLimitFilter(LimitProperties properties) {
+        properties.getEndpoints().forEach((name, endpoint) -> {
+            if (!endpoint.isEnabled()) return;
+            GradientLimiter limiter = new GradientLimiter(endpoint);
+            limiters.put(name, limiter);
+            List<String[]> exceptParams = endpoint.getExceptParams().stream()
+                    .map(param -> param.trim().split("=", 2))
+                    .toList();
+            for (String pattern : endpoint.getPatterns()) {
+                String[] parts = pattern.trim().split("\\s+", 2);
+                routes.add(parts.length == 2
+                        ? new Route(parts[0].toUpperCase(), parts[1], exceptParams, limiter, endpoint.getRetryAfter())
+                        : new Route(null, parts[0], exceptParams, limiter, endpoint.getRetryAfter()));
+            }
+        });
+    }
+
+    // Limiters by endpoint name
+    public Map<String, GradientLimiter> limiters() {
+        return Collections.unmodifiableMap(limiters);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Route route = route(request);
+        if (route == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!route.limiter().tryAcquire()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, route.retryAfter().toSeconds())));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write(BUSY);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean sampled = false;
+        try {
+            chain.doFilter(request, response);
+            sampled = response.getStatus() < 500;
+        } finally {
+            if (sampled) {
+                route.limiter().release(System.nanoTime() - start);
+            } else {
+                route.limiter().releaseWithoutSample();
+            }
+        }
+    }
+
+    private Route route(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Route route : routes) {
+            if ((route.method() == null || route.method().equals(request.getMethod()))
+                    && matcher.match(route.pattern(), path)) {
+                return excepted(route, request) ? null : route;
+            }
+        }
+        return null;
+    }
+
+    // A parameter given as just a name excepts the request whatever its value
+    private static boolean excepted(Route route, HttpServletRequest request) {
+        for (String[] param : route.exceptParams()) {
+            String[] values = request.getParameterValues(param[0]);
+            if (values != null && (param.length == 1 || Arrays.asList(values).contains(param[1]))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Route(String method, String pattern, List<String[]> exceptParams, GradientLimiter limiter,
+                         Duration retryAfter) {}
+}
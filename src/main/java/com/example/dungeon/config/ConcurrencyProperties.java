@@ -0,0 +1,31 @@
+package com.example.dungeon.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Applies when requests run on virtual threads (spring.threads.virtual.enabled)
+@ConfigurationProperties(prefix = "dungeon.concurrency")
+public class ConcurrencyProperties {
+
+    // Threads that may hold a database connection at once, 0 means the Hikari pool size
+    private int databasePermits = 0;
+
+    // Longest a thread waits for a database permit before the request fails
+    private Duration databaseAcquireTimeout = Duration.ofSeconds(10);
+
+    // Report virtual threads pinned to their carrier, from the JFR event stream
+    private boolean pinningMonitor = true;
+
+    // Pinnings shorter than this are not reported
+    private Duration pinnedThreshold = Duration.ofMillis(20);
+
+    public int getDatabasePermits() { return databasePermits; }
+    public void setDatabasePermits(int databasePermits) { this.databasePermits = databasePermits; }
+    public Duration getDatabaseAcquireTimeout() { return databaseAcquireTimeout; }
+    public void setDatabaseAcquireTimeout(Duration databaseAcquireTimeout) { this.databaseAcquireTimeout = databaseAcquireTimeout; }
+    public boolean isPinningMonitor() { return pinningMonitor; }
+    public void setPinningMonitor(boolean pinningMonitor) { this.pinningMonitor = pinningMonitor; }
+    public Duration getPinnedThreshold() { return pinnedThreshold; }
+    public void setPinnedThreshold(Duration pinnedThreshold) { this.pinnedThreshold = pinnedThreshold; }
+}
@@ -0,0 +1,33 @@
+package com.example.dungeon.config;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.hibernate.cache.spi.entry.CacheEntry;
+import org.hibernate.cache.spi.support.AbstractReadWriteAccess;
+
+import java.io.Serializable;
+
+/**
+ * Weighs second-level cache entries in KiB of their byte and text columns,
+ * plus one for the entry itself, so regions holding boards are bounded by
+ * the size of their grids rather than by their number.
+ */
+public class EntityCacheWeigher implements Weigher<Object, Object> {
+
+    @Override
+    public int weigh(Object key, Object value) {
+        if (value instanceof AbstractReadWriteAccess.Item item) {
+            value = item.getValue();
+        }
+        long bytes = 0;
+        if (value instanceof CacheEntry entry) {
+            for (Serializable column : entry.getDisassembledState()) {
+                if (column instanceof byte[] data) {
+                    bytes += data.length;
+                } else if (column instanceof String text) {
+                    bytes += 2L * text.length();
+                }
+            }
+        }
+        return (int) Math.min(Integer.MAX_VALUE, 1 + bytes / 1024);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.dungeon.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "dungeon.games")
+public class GameProperties {
+
+    // Games per page of a listing when the client doesn't ask for a size
+    private int pageSize = 100;
+
+    // Most games per page of a listing, whatever the client asks for
+    private int maxPageSize = 1000;
+
+    // Most plays accepted by one POST /api/games/play/batch
+    private int maxBatchSize = 1000;
+
+    // Acknowledge plays once journaled and insert them into games in the background
+    private boolean writeBehind = false;
+
+    // Directory of the local write-behind journal
+    private String journalDirectory = "data/journal";
+
+    // Name of this node's journal in journal_checkpoints; nodes sharing a database need distinct names
+    private String journalName = "local";
+
+    // Most games inserted by one multi-row INSERT
+    private int flushSize = 500;
+
+    // Longest a journaled game waits for its batch to fill before it is inserted
+    private Duration flushLatency = Duration.ofMillis(50);
+
+    // Most journaled games waiting to be inserted; further plays wait for room, then get a 503
+    private int pendingCapacity = 10_000;
+
+    // Longest a play waits for room among the pending games
+    private Duration pendingTimeout = Duration.ofSeconds(1);
+
+    // How often games recorded since the last flush are applied to the player and board stats
+    private Duration statsFlushInterval = Duration.ofSeconds(1);
+
+    // Rebuild the player and board stats from the games on startup, recovering any a node lost when it died
+    private boolean statsRebuildOnStart = true;
+
+    public int getPageSize() { return pageSize; }
+    public void setPageSize(int pageSize) { this.pageSize = pageSize; }
+    public int getMaxPageSize() { return maxPageSize; }
+    public void setMaxPageSize(int maxPageSize) { this.maxPageSize = maxPageSize; }
+    public int getMaxBatchSize() { return maxBatchSize; }
+    public void setMaxBatchSize(int maxBatchSize) { this.maxBatchSize = maxBatchSize; }
+    public boolean isWriteBehind() { return writeBehind; }
+    public void setWriteBehind(boolean writeBehind) { this.writeBehind = writeBehind; }
+    public String getJournalDirectory() { return journalDirectory; }
+    public void setJournalDirectory(String journalDirectory) { this.journalDirectory = journalDirectory; }
+    public String getJournalName() { return journalName; }
+    public void setJournalName(String journalName) { this.journalName = journalName; }
+    public int getFlushSize() { return flushSize; }
+    public void setFlushSize(int flushSize) { this.flushSize = flushSize; }
+    public Duration getFlushLatency() { return flushLatency; }
+    public void setFlushLatency(Duration flushLatency) { this.flushLatency = flushLatency; }
+    public int getPendingCapacity() { return pendingCapacity; }
+    public void setPendingCapacity(int pendingCapacity) { this.pendingCapacity = pendingCapacity; }
+    public Duration getPendingTimeout() { return pendingTimeout; }
+    public void setPendingTimeout(Duration pendingTimeout) { this.pendingTimeout = pendingTimeout; }
+    public Duration getStatsFlushInterval() { return statsFlushInterval; }
+    public void setStatsFlushInterval(Duration statsFlushInterval) { this.statsFlushInterval = statsFlushInterval; }
+    public boolean isStatsRebuildOnStart() { return statsRebuildOnStart; }
+    public void setStatsRebuildOnStart(boolean statsRebuildOnStart) { this.statsRebuildOnStart = statsRebuildOnStart; }
+}
@@ -0,0 +1,100 @@
+package com.example.dungeon.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A concurrency limit that follows latency, in the manner of TCP Vegas and
+ * Netflix's gradient limiter. Each completed request compares its latency
+ * with a long-term average: while requests are no slower than
+ * {@code tolerance} times the average the limit grows by about its square
+ * root, and as they slow down (requests queueing somewhere behind the
+ * limit) it shrinks by up to half. New estimates are smoothed in and kept
+ * within {@code [minLimit, maxLimit]}.
+ *
+ * <p>Requests completed while fewer than half the limit were in flight say
+ * nothing about the limit and only feed the average. When the average is
+ * more than twice the latest latency (it still remembers an overload) it
+ * decays, so the limit recovers once the backlog has cleared.
+ */
+public class GradientLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final double longWeight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile int limit;
+    private double estimate; // Under lock
+    private double longLatency; // Nanos, under lock
+
+    public GradientLimiter(LimitProperties.Endpoint properties) {
+        this.minLimit = Math.max(1, properties.getMinLimit());
+        this.maxLimit = Math.max(minLimit, properties.getMaxLimit());
+        this.tolerance = Math.max(1.0, properties.getTolerance());
+        this.smoothing = Math.min(1.0, Math.max(0.0, properties.getSmoothing()));
+        this.longWeight = 2.0 / (Math.max(1, properties.getLongWindow()) + 1);
+        this.estimate = Math.min(maxLimit, Math.max(minLimit, properties.getInitialLimit()));
+        this.limit = (int) estimate;
+    }
+
+    // Takes a slot unless the limit is reached; a taken slot must be released
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Releases a slot, sampling the request's latency
+    public void release(long latencyNanos) {
+        int concurrent = inFlight.getAndDecrement();
+        update(Math.max(1, latencyNanos), concurrent);
+    }
+
+    // Releases a slot without sampling: a failed request's latency says nothing about load
+    public void releaseWithoutSample() {
+        inFlight.decrementAndGet();
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public long rejected() {
+        return rejected.get();
+    }
+
+    private void update(long latency, int concurrent) {
+        lock.lock();
+        try {
+            longLatency = longLatency == 0 ? latency : longLatency + (latency - longLatency) * longWeight;
+            if (longLatency > 2.0 * latency) {
+                longLatency *= 0.95;
+            }
+            if (concurrent < estimate / 2) {
+                return;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, tolerance * longLatency / latency));
+            double next = estimate * gradient + Math.sqrt(estimate);
+            estimate = Math.min(maxLimit, Math.max(minLimit, estimate * (1 - smoothing) + next * smoothing));
+            limit = (int) estimate;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.dungeon.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Plays run as background jobs (POST /api/games/play?async=true)
+@ConfigurationProperties(prefix = "dungeon.jobs")
+public class JobProperties {
+
+    // Threads solving jobs, each solving one board at a time
+    private int threads = 2;
+
+    // Jobs waiting for a thread before new ones are refused
+    private int queueCapacity = 100;
+
+    // Most unfinished jobs before new ones are refused, and most finished jobs kept in memory
+    private int maxJobs = 1000;
+
+    // How long a finished job can still be read
+    private Duration expiry = Duration.ofMinutes(5);
+
+    // Least time between two progress events of a job
+    private Duration progressInterval = Duration.ofMillis(100);
+
+    // Longest a progress stream stays open
+    private Duration streamTimeout = Duration.ofMinutes(10);
+
+    public int getThreads() { return threads; }
+    public void setThreads(int threads) { this.threads = threads; }
+    public int getQueueCapacity() { return queueCapacity; }
+    public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+    public int getMaxJobs() { return maxJobs; }
+    public void setMaxJobs(int maxJobs) { this.maxJobs = maxJobs; }
+    public Duration getExpiry() { return expiry; }
+    public void setExpiry(Duration expiry) { this.expiry = expiry; }
+    public Duration getProgressInterval() { return progressInterval; }
+    public void setProgressInterval(Duration progressInterval) { this.progressInterval = progressInterval; }
+    public Duration getStreamTimeout() { return streamTimeout; }
+    public void setStreamTimeout(Duration streamTimeout) { this.streamTimeout = streamTimeout; }
+}
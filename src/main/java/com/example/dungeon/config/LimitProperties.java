@@ -0,0 +1,77 @@
+package com.example.dungeon.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Latency-based concurrency limits, each in front of the requests its patterns match
+@ConfigurationProperties(prefix = "dungeon.limits")
+public class LimitProperties {
+
+    // Shed load on the endpoints below
+    private boolean enabled = true;
+
+    // Limits by name, which tags their metrics
+    private Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public Map<String, Endpoint> getEndpoints() { return endpoints; }
+    public void setEndpoints(Map<String, Endpoint> endpoints) { this.endpoints = endpoints; }
+
+    public static class Endpoint {
+
+        // Requests limited, as "METHOD /path/pattern", or just a pattern for any method
+        private List<String> patterns = new ArrayList<>();
+
+        // Requests matching the patterns but carrying one of these query parameters, as "name=value", go unlimited
+        private List<String> exceptParams = new ArrayList<>();
+
+        // Limit this endpoint
+        private boolean enabled = true;
+
+        // Concurrent requests allowed before any latency is measured
+        private int initialLimit = 20;
+
+        // Bounds of the limit, however latency moves
+        private int minLimit = 2;
+        private int maxLimit = 200;
+
+        // How much slower than the long-term latency a request may be before the limit shrinks
+        private double tolerance = 1.5;
+
+        // Weight of each new estimate in the limit
+        private double smoothing = 0.2;
+
+        // Requests averaged into the long-term latency
+        private int longWindow = 600;
+
+        // Retry-After of a shed request
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        public List<String> getPatterns() { return patterns; }
+        public void setPatterns(List<String> patterns) { this.patterns = patterns; }
+        public List<String> getExceptParams() { return exceptParams; }
+        public void setExceptParams(List<String> exceptParams) { this.exceptParams = exceptParams; }
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public int getInitialLimit() { return initialLimit; }
+        public void setInitialLimit(int initialLimit) { this.initialLimit = initialLimit; }
+        public int getMinLimit() { return minLimit; }
+        public void setMinLimit(int minLimit) { this.minLimit = minLimit; }
+        public int getMaxLimit() { return maxLimit; }
+        public void setMaxLimit(int maxLimit) { this.maxLimit = maxLimit; }
+        public double getTolerance() { return tolerance; }
+        public void setTolerance(double tolerance) { this.tolerance = tolerance; }
+        public double getSmoothing() { return smoothing; }
+        public void setSmoothing(double smoothing) { this.smoothing = smoothing; }
+        public int getLongWindow() { return longWindow; }
+        public void setLongWindow(int longWindow) { this.longWindow = longWindow; }
+        public Duration getRetryAfter() { return retryAfter; }
+        public void setRetryAfter(Duration retryAfter) { this.retryAfter = retryAfter; }
+    }
+}
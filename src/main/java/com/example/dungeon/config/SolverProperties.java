@@ -0,0 +1,59 @@
+package com.example.dungeon.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "dungeon.solver")
+public class SolverProperties {
+
+    // Boards with at least this many cells are solved by the parallel wavefront solver
+    private long parallelThreshold = 4_000_000;
+
+    // Side length of the square tiles processed by one wavefront task
+    private int tileSize = 256;
+
+    // Worker threads for the wavefront solver, 0 means one per available processor
+    private int parallelism = 0;
+
+    // Boards with at least this many cells are solved on the solver pool when requested from a virtual thread
+    private long offloadThreshold = 250_000;
+
+    // Vector API solver: AUTO uses it when jdk.incubator.vector is resolved, ON requires it, OFF disables it
+    private VectorMode vector = VectorMode.AUTO;
+
+    // Solve and store the minimum HP of boards that lack a current one in the background at startup
+    private boolean backfillMinHp = true;
+
+    // Boards solved per transaction by the minimum HP backfill
+    private int backfillBatchSize = 200;
+
+    // Total cells of the boards whose results are cached by layout, 0 disables the cache
+    private long cacheMaxCells = 16_000_000;
+
+    // Total bytes of the DP tables kept for boards that are edited or queried by start cell, 0 keeps none
+    private long tableMaxBytes = 64L * 1024 * 1024;
+
+    public enum VectorMode { AUTO, ON, OFF }
+
+    public long getParallelThreshold() { return parallelThreshold; }
+    public void setParallelThreshold(long parallelThreshold) { this.parallelThreshold = parallelThreshold; }
+    public int getTileSize() { return tileSize; }
+    public void setTileSize(int tileSize) { this.tileSize = tileSize; }
+    public int getParallelism() { return parallelism; }
+    public void setParallelism(int parallelism) { this.parallelism = parallelism; }
+    public long getOffloadThreshold() { return offloadThreshold; }
+    public void setOffloadThreshold(long offloadThreshold) { this.offloadThreshold = offloadThreshold; }
+    public VectorMode getVector() { return vector; }
+    public void setVector(VectorMode vector) { this.vector = vector; }
+    public long getCacheMaxCells() { return cacheMaxCells; }
+    public void setCacheMaxCells(long cacheMaxCells) { this.cacheMaxCells = cacheMaxCells; }
+    public long getTableMaxBytes() { return tableMaxBytes; }
+    public void setTableMaxBytes(long tableMaxBytes) { this.tableMaxBytes = tableMaxBytes; }
+    public boolean isBackfillMinHp() { return backfillMinHp; }
+    public void setBackfillMinHp(boolean backfillMinHp) { this.backfillMinHp = backfillMinHp; }
+    public int getBackfillBatchSize() { return backfillBatchSize; }
+    public void setBackfillBatchSize(int backfillBatchSize) { this.backfillBatchSize = backfillBatchSize; }
+
+    public int effectiveParallelism() {
+        return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.dungeon.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "dungeon.storage")
+public class StorageProperties {
+
+    // Directory holding the memory-mapped files of oversized boards
+    private String directory = "data/boards";
+
+    // Boards with at least this many cells are stored in a mapped file instead of the boards table
+    private long mappedThreshold = 1_000_000;
+
+    // Convert boards still stored as JSON text to the binary format in the background at startup
+    private boolean migrateJson = true;
+
+    // Boards converted per transaction by the JSON migration
+    private int migrationBatchSize = 500;
+
+    public String getDirectory() { return directory; }
+    public void setDirectory(String directory) { this.directory = directory; }
+    public long getMappedThreshold() { return mappedThreshold; }
+    public void setMappedThreshold(long mappedThreshold) { this.mappedThreshold = mappedThreshold; }
+    public boolean isMigrateJson() { return migrateJson; }
+    public void setMigrateJson(boolean migrateJson) { this.migrateJson = migrateJson; }
+    public int getMigrationBatchSize() { return migrationBatchSize; }
+    public void setMigrationBatchSize(int migrationBatchSize) { this.migrationBatchSize = migrationBatchSize; }
+}
@@ -0,0 +1,72 @@
+package com.example.dungeon.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * With {@code spring.threads.virtual.enabled}, Tomcat runs each request on
+ * its own virtual thread. The data source is then wrapped in a
+ * {@link LimitedDataSource} with as many permits as the Hikari pool has
+ * connections (or {@code dungeon.concurrency.database-permits}), and a
+ * {@link PinningMonitor} reports virtual threads pinned to their carrier.
+ * Requests queue for a permit before Hikari sees them, so the permits are
+ * metered alongside Hikari's pool metrics.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfiguration.class);
+
+    // Static, so the post-processor is registered before the data source is created
+    @Bean
+    static BeanPostProcessor limitedDataSourcePostProcessor(ObjectProvider<ConcurrencyProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof LimitedDataSource) {
+                    return bean;
+                }
+                ConcurrencyProperties concurrency = properties.getIfAvailable(ConcurrencyProperties::new);
+                int permits = concurrency.getDatabasePermits();
+                if (permits <= 0) {
+                    permits = bean instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+                }
+                log.info("Limiting {} to {} concurrent connections", beanName, permits);
+                return new LimitedDataSource(dataSource, permits, concurrency.getDatabaseAcquireTimeout());
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder databasePermitMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof LimitedDataSource limited) {
+                Gauge.builder("dungeon.db.permits.available", limited, LimitedDataSource::availablePermits)
+                        .description("Database permits not taken")
+                        .register(registry);
+                Gauge.builder("dungeon.db.permits.waiting", limited, LimitedDataSource::waitingThreads)
+                        .description("Threads waiting for a database permit")
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "dungeon.concurrency", name = "pinning-monitor", matchIfMissing = true)
+    PinningMonitor pinningMonitor(ConcurrencyProperties properties) {
+        return new PinningMonitor(properties.getPinnedThreshold());
+    }
+}
@@ -1,11 +1,25 @@
 package com.example.dungeon.controller;
 
 import com.example.dungeon.entity.Board;
+import com.example.dungeon.entity.BoardStats;
 import com.example.dungeon.repository.BoardRepository;
+import com.example.dungeon.service.BoardEditService;
+import com.example.dungeon.service.DungeonService;
+import com.example.dungeon.service.EntityCacheService;
+import com.example.dungeon.service.GameStatsService;
+import com.example.dungeon.solver.Grid;
+import com.example.dungeon.solver.Route;
+import com.example.dungeon.storage.BoardCodec;
+import com.example.dungeon.storage.MappedBoardStore;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,39 +30,130 @@ public class BoardController {
     @Autowired
     private BoardRepository boardRepository;
 
+    @Autowired
+    private MappedBoardStore mappedBoardStore;
+
+    @Autowired
+    private DungeonService dungeonService;
+
+    @Autowired
+    private EntityCacheService entityCacheService;
+
+    @Autowired
+    private GameStatsService gameStatsService;
+
+    @Autowired
+    private BoardEditService boardEditService;
+
     // GET all boards
     @GetMapping
-    public List<Board> getAllBoards() {
-        return boardRepository.findAll();
+    public List<BoardResponse> getAllBoards() {
+        return boardRepository.findAll().stream().map(BoardResponse::new).toList();
     }
 
     // GET board by ID
     @GetMapping("/{id}")
-    public ResponseEntity<Board> getBoardById(@PathVariable Long id) {
+    public ResponseEntity<BoardResponse> getBoardById(@PathVariable Long id) {
         Optional<Board> board = boardRepository.findById(id);
         if (board.isPresent()) {
-            return ResponseEntity.ok(board.get());
+            return ResponseEntity.ok(new BoardResponse(board.get()));
         }
         return ResponseEntity.notFound().build();
     }
 
-    // POST create new board
+    // POST create new board; with dedupe=true an existing board with the same layout is returned instead
     @PostMapping
-    public ResponseEntity<Board> createBoard(@RequestBody BoardRequest request) {
-        Board board = new Board(request.getName(), request.getBoard());
+    public ResponseEntity<BoardResponse> createBoard(@RequestBody BoardRequest request,
+                                                     @RequestParam(defaultValue = "false") boolean dedupe) {
+        if (!request.hasValidBoard()) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (dedupe && !mappedBoardStore.shouldMap(request.getBoard())) {
+            Optional<Board> existing = findSameLayout(Grid.of(request.getBoard()));
+            if (existing.isPresent()) {
+                return ResponseEntity.ok(new BoardResponse(existing.get()));
+            }
+        }
+        Board board = new Board();
+        board.setName(request.getName());
+        storeGrid(board, request.getBoard());
         Board savedBoard = boardRepository.save(board);
-        return ResponseEntity.ok(savedBoard);
+        gameStatsService.createBoardStats(savedBoard.getId());
+        return ResponseEntity.ok(new BoardResponse(savedBoard));
+    }
+
+    // GET board statistics
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<BoardStats> getBoardStats(@PathVariable Long id) {
+        Optional<BoardStats> stats = gameStatsService.boardStats(id);
+        if (stats.isPresent()) {
+            return ResponseEntity.ok(stats.get());
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    // GET board's minimum HP with an optimal route, as run-length encoded D/R moves
+    @GetMapping("/{id}/route")
+    public ResponseEntity<RouteResponse> getBoardRoute(@PathVariable Long id) {
+        Optional<Board> board = boardRepository.findById(id);
+        if (board.isPresent()) {
+            Route route = dungeonService.route(board.get());
+            return ResponseEntity.ok(new RouteResponse(id, route.minHp(), route.path()));
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    // GET the least HP needed to reach the princess starting from a cell of the board
+    @GetMapping("/{id}/min-hp")
+    public ResponseEntity<MinHpResponse> getMinHpFrom(@PathVariable Long id, @RequestParam int row, @RequestParam int col) {
+        Optional<Board> board = boardRepository.findById(id);
+        if (board.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(new MinHpResponse(id, row, col, dungeonService.minHpFrom(board.get(), row, col)));
+        } catch (IndexOutOfBoundsException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     // PUT update board
     @PutMapping("/{id}")
-    public ResponseEntity<Board> updateBoard(@PathVariable Long id, @RequestBody BoardRequest request) {
+    public ResponseEntity<BoardResponse> updateBoard(@PathVariable Long id, @RequestBody BoardRequest request) {
+        if (!request.hasValidBoard()) {
+            return ResponseEntity.badRequest().build();
+        }
         Optional<Board> optionalBoard = boardRepository.findById(id);
         if (optionalBoard.isPresent()) {
             Board board = optionalBoard.get();
+            String previousFile = board.getBoardFile();
             board.setName(request.getName());
-            board.setBoardArray(request.getBoard());
-            return ResponseEntity.ok(boardRepository.save(board));
+            storeGrid(board, request.getBoard());
+            Board savedBoard = boardRepository.save(board);
+            entityCacheService.evict(Board.class, id);
+            mappedBoardStore.delete(previousFile);
+            return ResponseEntity.ok(new BoardResponse(savedBoard));
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    // PATCH a few cells of a board; only the part of the solve the edits reach is redone
+    @PatchMapping("/{id}/cells")
+    public ResponseEntity<BoardResponse> patchCells(@PathVariable Long id, @RequestBody List<CellChange> changes) {
+        if (changes.stream().anyMatch(change -> change == null || !change.isComplete())) {
+            return ResponseEntity.badRequest().build();
+        }
+        Optional<Board> board;
+        try {
+            board = boardEditService.editCells(id, changes.stream()
+                    .map(change -> new BoardEditService.CellEdit(change.getRow(), change.getCol(), change.getValue()))
+                    .toList());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (board.isPresent()) {
+            entityCacheService.evict(Board.class, id);
+            return ResponseEntity.ok(new BoardResponse(board.get()));
         }
         return ResponseEntity.notFound().build();
     }
@@ -57,12 +162,36 @@ public class BoardController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteBoard(@PathVariable Long id) {
         if (boardRepository.existsById(id)) {
+            Optional<String> boardFile = boardRepository.findBoardFileById(id);
             boardRepository.deleteById(id);
+            gameStatsService.deleteBoardStats(id);
+            entityCacheService.evict(Board.class, id);
+            boardFile.ifPresent(mappedBoardStore::delete);
             return ResponseEntity.noContent().build();
         }
         return ResponseEntity.notFound().build();
     }
 
+    // Same content hash and, to rule out a collision, the same cells
+    private Optional<Board> findSameLayout(Grid grid) {
+        return boardRepository.findByContentHash(grid.contentHash()).stream()
+                .filter(board -> !board.isMapped() && grid.equals(board.getGrid()))
+                .findFirst();
+    }
+
+    // Oversized boards go to a memory-mapped file, the rest inline in the boards table;
+    // either way the minimum HP is solved once here instead of on every play
+    private void storeGrid(Board board, int[][] grid) {
+        if (mappedBoardStore.shouldMap(grid)) {
+            board.setBoardFile(mappedBoardStore.write(grid));
+            board.setGrid(null);
+        } else {
+            board.setBoardArray(grid);
+            board.setBoardFile(null);
+        }
+        dungeonService.precompute(board);
+    }
+
     // Inner class for request body
     public static class BoardRequest {
         private String name;
@@ -72,5 +201,148 @@ public class BoardController {
         public void setName(String name) { this.name = name; }
         public int[][] getBoard() { return board; }
         public void setBoard(int[][] board) { this.board = board; }
+
+        // A grid the solver accepts: at least one cell, every row as long as the first
+        public boolean hasValidBoard() {
+            if (board == null || board.length == 0 || board[0] == null || board[0].length == 0) {
+                return false;
+            }
+            for (int[] row : board) {
+                if (row == null || row.length != board[0].length) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // Inner class for a cell edit
+    public static class CellChange {
+        private Integer row;
+        private Integer col;
+        private Integer value;
+
+        public Integer getRow() { return row; }
+        public void setRow(Integer row) { this.row = row; }
+        public Integer getCol() { return col; }
+        public void setCol(Integer col) { this.col = col; }
+        public Integer getValue() { return value; }
+        public void setValue(Integer value) { this.value = value; }
+
+        // A missing field is rejected rather than read as 0, which would edit cell (0, 0) or write a 0
+        public boolean isComplete() {
+            return row != null && col != null && value != null;
+        }
+    }
+
+    // Inner class for a start cell's minimum HP
+    public static class MinHpResponse {
+        private Long boardId;
+        private int row;
+        private int col;
+        private int minHp;
+
+        public MinHpResponse(Long boardId, int row, int col, int minHp) {
+            this.boardId = boardId;
+            this.row = row;
+            this.col = col;
+            this.minHp = minHp;
+        }
+
+        // Getters and setters
+        public Long getBoardId() { return boardId; }
+        public void setBoardId(Long boardId) { this.boardId = boardId; }
+        public int getRow() { return row; }
+        public void setRow(int row) { this.row = row; }
+        public int getCol() { return col; }
+        public void setCol(int col) { this.col = col; }
+        public int getMinHp() { return minHp; }
+        public void setMinHp(int minHp) { this.minHp = minHp; }
+    }
+
+    // Inner class for route response
+    public static class RouteResponse {
+        private Long boardId;
+        private int minHp;
+        private String path;
+
+        public RouteResponse(Long boardId, int minHp, String path) {
+            this.boardId = boardId;
+            this.minHp = minHp;
+            this.path = path;
+        }
+
+        // Getters and setters
+        public Long getBoardId() { return boardId; }
+        public void setBoardId(Long boardId) { this.boardId = boardId; }
+        public int getMinHp() { return minHp; }
+        public void setMinHp(int minHp) { this.minHp = minHp; }
+        public String getPath() { return path; }
+        public void setPath(String path) { this.path = path; }
+    }
+
+    // Response body: the grid is written straight from its stored form, never through int[][], under the
+    // boardArray name clients already read. Legacy JSON rows are copied into the output as a raw value; binary
+    // rows stream their cells. Mapped boards carry no inline grid ("boardArray": null). The boardData string,
+    // the same grid again as escaped JSON, is no longer sent (see the README).
+    public static class BoardResponse implements JsonSerializable {
+        private final Long id;
+        private final String name;
+        private final boolean mapped;
+        private final Integer minHp;
+        private final byte[] boardBytes;
+        private final String boardData;
+
+        public BoardResponse(Board board) {
+            this.id = board.getId();
+            this.name = board.getName();
+            this.mapped = board.isMapped();
+            this.minHp = board.minHpFor(DungeonService.SOLVER_VERSION);
+            this.boardBytes = board.getBoardBytes();
+            this.boardData = board.getBoardData();
+        }
+
+        public Long getId() { return id; }
+        public String getName() { return name; }
+        public boolean isMapped() { return mapped; }
+        public Integer getMinHp() { return minHp; }
+
+        @Override
+        public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeStartObject();
+            if (id == null) {
+                gen.writeNullField("id");
+            } else {
+                gen.writeNumberField("id", id);
+            }
+            gen.writeStringField("name", name);
+            gen.writeBooleanField("mapped", mapped);
+            if (minHp == null) {
+                gen.writeNullField("minHp");
+            } else {
+                gen.writeNumberField("minHp", minHp);
+            }
+            gen.writeFieldName("boardArray");
+            if (boardBytes != null) {
+                Grid grid = BoardCodec.decode(boardBytes);
+                int[] cells = grid.cells();
+                gen.writeStartArray();
+                for (int i = 0; i < grid.rows(); i++) {
+                    gen.writeArray(cells, i * grid.cols(), grid.cols());
+                }
+                gen.writeEndArray();
+            } else if (boardData != null) {
+                gen.writeRawValue(boardData);
+            } else {
+                gen.writeNull();
+            }
+            gen.writeEndObject();
+        }
+
+        @Override
+        public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+                throws IOException {
+            serialize(gen, serializers);
+        }
     }
 }
@@ -0,0 +1,53 @@
+package com.example.dungeon.controller;
+
+import com.example.dungeon.service.EntityCacheService;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    @Autowired
+    private EntityCacheService entityCacheService;
+
+    // GET second-level cache statistics per region
+    @GetMapping("/entities")
+    public List<RegionStats> getEntityCacheStats() {
+        return entityCacheService.regionStatistics().entrySet().stream()
+                .map(region -> new RegionStats(region.getKey(), region.getValue()))
+                .toList();
+    }
+
+    // Inner class for response
+    public static class RegionStats {
+        private String region;
+        private long hitCount;
+        private long missCount;
+        private long putCount;
+        private long elementCount;
+
+        public RegionStats(String region, CacheRegionStatistics statistics) {
+            this.region = region;
+            this.hitCount = statistics.getHitCount();
+            this.missCount = statistics.getMissCount();
+            this.putCount = statistics.getPutCount();
+            this.elementCount = statistics.getElementCountInMemory();
+        }
+
+        // Getters and setters
+        public String getRegion() { return region; }
+        public void setRegion(String region) { this.region = region; }
+        public long getHitCount() { return hitCount; }
+        public void setHitCount(long hitCount) { this.hitCount = hitCount; }
+        public long getMissCount() { return missCount; }
+        public void setMissCount(long missCount) { this.missCount = missCount; }
+        public long getPutCount() { return putCount; }
+        public void setPutCount(long putCount) { this.putCount = putCount; }
+        public long getElementCount() { return elementCount; }
+        public void setElementCount(long elementCount) { this.elementCount = elementCount; }
+    }
+}
@@ -1,89 +1,261 @@
 package com.example.dungeon.controller;
 
+import com.example.dungeon.config.GameProperties;
+import com.example.dungeon.config.JobProperties;
 import com.example.dungeon.entity.Game;
-import com.example.dungeon.entity.Player;
-import com.example.dungeon.entity.Board;
+import com.example.dungeon.metrics.DungeonMetrics;
 import com.example.dungeon.repository.GameRepository;
+import com.example.dungeon.repository.GameSummary;
 import com.example.dungeon.repository.PlayerRepository;
-import com.example.dungeon.repository.BoardRepository;
-import com.example.dungeon.service.DungeonService;
+import com.example.dungeon.service.GameListingService;
+import com.example.dungeon.service.PlayJob;
+import com.example.dungeon.service.PlayJobService;
+import com.example.dungeon.service.PlayService;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/api/games")
 public class GameController {
 
+    static final String NDJSON = "application/x-ndjson";
+    static final String NEXT_CURSOR = "X-Next-Cursor";
+    static final String PENDING_GAMES_ERROR = "Too many games waiting to be stored, retry later";
+
     @Autowired
     private GameRepository gameRepository;
     
     @Autowired
     private PlayerRepository playerRepository;
-    
+
     @Autowired
-    private BoardRepository boardRepository;
-    
+    private PlayService playService;
+
+    @Autowired
+    private GameProperties gameProperties;
+
     @Autowired
-    private DungeonService dungeonService;
+    private GameListingService gameListingService;
 
-    // GET all games
+    @Autowired
+    private PlayJobService playJobService;
+
+    @Autowired
+    private JobProperties jobProperties;
+
+    // GET all games, newest first, one page at a time
     @GetMapping
-    public List<Game> getAllGames() {
-        return gameRepository.findAll();
+    public ResponseEntity<List<GameSummary>> getAllGames(@RequestParam(required = false) String cursor,
+                                                  @RequestParam(required = false) Integer limit) {
+        return page(null, null, cursor, limit);
+    }
+
+    // GET all games as NDJSON, streamed as they are read
+    @GetMapping(produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAllGames(@RequestParam(required = false) String cursor) {
+        return stream(null, null, cursor);
     }
 
     // GET game by ID
     @GetMapping("/{id}")
     public ResponseEntity<Game> getGameById(@PathVariable Long id) {
-        Optional<Game> game = gameRepository.findById(id);
+        Optional<Game> game = gameRepository.findDetailById(id);
         if (game.isPresent()) {
             return ResponseEntity.ok(game.get());
         }
         return ResponseEntity.notFound().build();
     }
 
-    // GET games by player ID
+    // GET games by player ID, newest first, one page at a time
     @GetMapping("/player/{playerId}")
-    public List<Game> getGamesByPlayerId(@PathVariable Long playerId) {
-        return gameRepository.findByPlayerId(playerId);
+    public ResponseEntity<List<GameSummary>> getGamesByPlayerId(@PathVariable Long playerId,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(required = false) Integer limit) {
+        return page(playerId, null, cursor, limit);
+    }
+
+    // GET games by player ID as NDJSON
+    @GetMapping(value = "/player/{playerId}", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamGamesByPlayerId(@PathVariable Long playerId,
+                                                                       @RequestParam(required = false) String cursor) {
+        return stream(playerId, null, cursor);
     }
 
-    // GET games by board ID
+    // GET games by board ID, newest first, one page at a time
     @GetMapping("/board/{boardId}")
-    public List<Game> getGamesByBoardId(@PathVariable Long boardId) {
-        return gameRepository.findByBoardId(boardId);
+    public ResponseEntity<List<GameSummary>> getGamesByBoardId(@PathVariable Long boardId,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer limit) {
+        return page(null, boardId, cursor, limit);
+    }
+
+    // GET games by board ID as NDJSON
+    @GetMapping(value = "/board/{boardId}", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamGamesByBoardId(@PathVariable Long boardId,
+                                                                      @RequestParam(required = false) String cursor) {
+        return stream(null, boardId, cursor);
     }
 
     // POST play a new game
     @PostMapping("/play")
     public ResponseEntity<GameResult> playGame(@RequestBody PlayGameRequest request) {
-        // Find player and board
-        Optional<Player> playerOpt = playerRepository.findById(request.getPlayerId());
-        Optional<Board> boardOpt = boardRepository.findById(request.getBoardId());
-        
-        if (!playerOpt.isPresent()) {
-            return ResponseEntity.badRequest().body(new GameResult("Player not found"));
+        Timer.Sample sample = Timer.start();
+        Optional<PlayService.PlayedGame> played;
+        try {
+            played = playService.play(request.getPlayerId(), request.getBoardId());
+        } catch (RejectedExecutionException e) {
+            sample.stop(DungeonMetrics.play("rejected"));
+            return tooManyPendingGames(new GameResult(PENDING_GAMES_ERROR));
         }
-        
-        if (!boardOpt.isPresent()) {
+        if (played.isEmpty()) {
+            // Only a failed play pays for finding out which one is missing
+            if (!playerRepository.existsById(request.getPlayerId())) {
+                sample.stop(DungeonMetrics.play("player_not_found"));
+                return ResponseEntity.badRequest().body(new GameResult("Player not found"));
+            }
+            sample.stop(DungeonMetrics.play("board_not_found"));
             return ResponseEntity.badRequest().body(new GameResult("Board not found"));
         }
-        
-        Player player = playerOpt.get();
-        Board board = boardOpt.get();
-        
-        // Calculate minimum health using the dungeon service
-        int minHealth = dungeonService.calculateMinimumHP(board.getBoardArray());
-        
-        // Save the game result
-        Game game = new Game(player, board, minHealth);
-        Game savedGame = gameRepository.save(game);
-        
-        return ResponseEntity.ok(new GameResult(savedGame.getId(), player.getName(), board.getName(), minHealth));
+        PlayService.PlayedGame game = played.get();
+        sample.stop(DungeonMetrics.play("played"));
+        return ResponseEntity.ok(new GameResult(game.gameId(), game.playerName(), game.boardName(), game.minimumHealth()));
+    }
+
+    // POST play a batch of games, with one result (or error) per play, in request order
+    @PostMapping("/play/batch")
+    public ResponseEntity<List<GameResult>> playGames(@RequestBody List<PlayGameRequest> requests) {
+        if (requests.size() > gameProperties.getMaxBatchSize()) {
+            return ResponseEntity.badRequest().body(List.of(
+                    new GameResult("A batch holds at most " + gameProperties.getMaxBatchSize() + " plays")));
+        }
+        List<PlayService.PlayOutcome> outcomes;
+        try {
+            outcomes = playService.playAll(requests.stream()
+                    .map(request -> new PlayService.PlayRequest(request.getPlayerId(), request.getBoardId()))
+                    .toList());
+        } catch (RejectedExecutionException e) {
+            return tooManyPendingGames(List.of(new GameResult(PENDING_GAMES_ERROR)));
+        }
+        return ResponseEntity.ok(outcomes.stream()
+                .map(outcome -> outcome.game() == null
+                        ? new GameResult(outcome.error())
+                        : new GameResult(outcome.game().gameId(), outcome.game().playerName(),
+                                outcome.game().boardName(), outcome.game().minimumHealth()))
+                .toList());
+    }
+
+    // POST play a new game in the background; the job is polled or streamed at its Location
+    @PostMapping(value = "/play", params = "async=true")
+    public ResponseEntity<PlayJobResponse> playGameAsync(@RequestBody PlayGameRequest request) {
+        PlayJob job;
+        try {
+            job = playJobService.submit(request.getPlayerId(), request.getBoardId());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new PlayJobResponse("Too many play jobs, retry later"));
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/games/jobs/" + job.getId()))
+                .body(PlayJobResponse.of(job));
+    }
+
+    // GET play job by ID
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<PlayJobResponse> getJob(@PathVariable String jobId) {
+        return playJobService.find(jobId)
+                .map(job -> ResponseEntity.ok(PlayJobResponse.of(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // GET play job progress as server-sent events: "progress" events, then one "done", "failed" or "cancelled"
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamJob(@PathVariable String jobId) {
+        Optional<PlayJob> found = playJobService.find(jobId);
+        if (found.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        PlayJob job = found.get();
+        SseEmitter emitter = new SseEmitter(jobProperties.getStreamTimeout().toMillis());
+        Consumer<PlayJob> listener = new Consumer<>() {
+            @Override
+            public void accept(PlayJob update) {
+                PlayJob.Status status = update.getStatus();
+                try {
+                    emitter.send(SseEmitter.event()
+                            .name(status.isFinished() ? status.name().toLowerCase(Locale.ROOT) : "progress")
+                            .data(PlayJobResponse.of(update), MediaType.APPLICATION_JSON));
+                    if (status.isFinished()) {
+                        emitter.complete();
+                    }
+                } catch (Exception e) {
+                    // The client went away; the job carries on
+                    update.unlisten(this);
+                }
+            }
+        };
+        emitter.onCompletion(() -> job.unlisten(listener));
+        emitter.onTimeout(() -> job.unlisten(listener));
+        emitter.onError(error -> job.unlisten(listener));
+        job.listen(listener);
+        return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(emitter);
+    }
+
+    // DELETE cancel a play job; a finished job is left as it is
+    @DeleteMapping("/jobs/{jobId}")
+    public ResponseEntity<PlayJobResponse> cancelJob(@PathVariable String jobId) {
+        return playJobService.cancel(jobId)
+                .map(job -> ResponseEntity.ok(PlayJobResponse.of(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // 503 while write-behind has too many games waiting to be stored
+    private static <T> ResponseEntity<T> tooManyPendingGames(T body) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(body);
+    }
+
+    // The cursor of the next page, if any, goes in the X-Next-Cursor header
+    private ResponseEntity<List<GameSummary>> page(Long playerId, Long boardId, String cursor, Integer limit) {
+        GameListingService.Cursor position;
+        try {
+            position = cursor == null ? null : GameListingService.Cursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        GameListingService.GamePage page = gameListingService.page(playerId, boardId, position, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR, page.nextCursor());
+        }
+        return response.body(page.games());
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(Long playerId, Long boardId, String cursor) {
+        GameListingService.Cursor position;
+        try {
+            position = cursor == null ? null : GameListingService.Cursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(out -> gameListingService.stream(playerId, boardId, position, out));
     }
 
     // Inner classes for request and response
@@ -129,4 +301,49 @@ public class GameController {
         public String getError() { return error; }
         public void setError(String error) { this.error = error; }
     }
-}
+
+    public static class PlayJobResponse {
+        private String jobId;
+        private String status;
+        private Integer rowsSolved;
+        private Integer totalRows;
+        private GameResult result;
+        private String error;
+
+        // Error constructor
+        public PlayJobResponse(String error) {
+            this.error = error;
+        }
+
+        public PlayJobResponse(String jobId, String status, Integer rowsSolved, Integer totalRows, GameResult result, String error) {
+            this.jobId = jobId;
+            this.status = status;
+            this.rowsSolved = rowsSolved;
+            this.totalRows = totalRows;
+            this.result = result;
+            this.error = error;
+        }
+
+        // The job as it is now; the result only once it is done
+        static PlayJobResponse of(PlayJob job) {
+            PlayService.PlayedGame game = job.getResult();
+            return new PlayJobResponse(job.getId(), job.getStatus().name(), job.getRowsSolved(), job.getTotalRows(),
+                    game == null ? null : new GameResult(game.gameId(), game.playerName(), game.boardName(), game.minimumHealth()),
+                    job.getError());
+        }
+
+        // Getters and setters
+        public String getJobId() { return jobId; }
+        public void setJobId(String jobId) { this.jobId = jobId; }
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+        public Integer getRowsSolved() { return rowsSolved; }
+        public void setRowsSolved(Integer rowsSolved) { this.rowsSolved = rowsSolved; }
+        public Integer getTotalRows() { return totalRows; }
+        public void setTotalRows(Integer totalRows) { this.totalRows = totalRows; }
+        public GameResult getResult() { return result; }
+        public void setResult(GameResult result) { this.result = result; }
+        public String getError() { return error; }
+        public void setError(String error) { this.error = error; }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.example.dungeon.controller;
+
+import com.example.dungeon.config.ConcurrencyLimitFilter;
+import com.example.dungeon.config.GradientLimiter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/limits")
+public class LimitController {
+
+    @Autowired(required = false) // Absent with dungeon.limits.enabled=false
+    private ConcurrencyLimitFilter concurrencyLimitFilter;
+
+    // GET concurrency limit, requests in flight and rejections per limited endpoint
+    @GetMapping
+    public List<LimitStats> getLimits() {
+        if (concurrencyLimitFilter == null) {
+            return List.of();
+        }
+        return concurrencyLimitFilter.limiters().entrySet().stream()
+                .map(endpoint -> new LimitStats(endpoint.getKey(), endpoint.getValue()))
+                .toList();
+    }
+
+    // Inner class for response
+    public static class LimitStats {
+        private String endpoint;
+        private int limit;
+        private int inFlight;
+        private long rejected;
+
+        public LimitStats(String endpoint, GradientLimiter limiter) {
+            this.endpoint = endpoint;
+            this.limit = limiter.limit();
+            this.inFlight = limiter.inFlight();
+            this.rejected = limiter.rejected();
+        }
+
+        // Getters and setters
+        public String getEndpoint() { return endpoint; }
+        public void setEndpoint(String endpoint) { this.endpoint = endpoint; }
+        public int getLimit() { return limit; }
+        public void setLimit(int limit) { this.limit = limit; }
+        public int getInFlight() { return inFlight; }
+        public void setInFlight(int inFlight) { this.inFlight = inFlight; }
+        public long getRejected() { return rejected; }
+        public void setRejected(long rejected) { this.rejected = rejected; }
+    }
+}
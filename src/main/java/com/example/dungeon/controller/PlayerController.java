@@ -1,7 +1,11 @@
 package com.example.dungeon.controller;
 
 import com.example.dungeon.entity.Player;
+import com.example.dungeon.entity.PlayerStats;
+import com.example.dungeon.repository.LeaderboardEntry;
 import com.example.dungeon.repository.PlayerRepository;
+import com.example.dungeon.service.EntityCacheService;
+import com.example.dungeon.service.GameStatsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -13,9 +17,17 @@ import java.util.Optional;
 @RequestMapping("/api/players")
 public class PlayerController {
 
+    static final int MAX_LEADERBOARD_SIZE = 100;
+
     @Autowired
     private PlayerRepository playerRepository;
 
+    @Autowired
+    private EntityCacheService entityCacheService;
+
+    @Autowired
+    private GameStatsService gameStatsService;
+
     // GET all players
     @GetMapping
     public List<Player> getAllPlayers() {
@@ -32,10 +44,28 @@ public class PlayerController {
         return ResponseEntity.notFound().build();
     }
 
+    // GET player statistics
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<PlayerStats> getPlayerStats(@PathVariable Long id) {
+        Optional<PlayerStats> stats = gameStatsService.playerStats(id);
+        if (stats.isPresent()) {
+            return ResponseEntity.ok(stats.get());
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    // GET the players with the most games played
+    @GetMapping("/leaderboard")
+    public List<LeaderboardEntry> getLeaderboard(@RequestParam(defaultValue = "10") int limit) {
+        return gameStatsService.leaderboard(Math.min(Math.max(limit, 1), MAX_LEADERBOARD_SIZE));
+    }
+
     // POST create new player
     @PostMapping
     public Player createPlayer(@RequestBody Player player) {
-        return playerRepository.save(player);
+        Player savedPlayer = playerRepository.save(player);
+        gameStatsService.createPlayerStats(savedPlayer.getId());
+        return savedPlayer;
     }
 
     // PUT update player
@@ -46,7 +76,9 @@ public class PlayerController {
             Player player = optionalPlayer.get();
             player.setName(playerDetails.getName());
             player.setEmail(playerDetails.getEmail());
-            return ResponseEntity.ok(playerRepository.save(player));
+            Player savedPlayer = playerRepository.save(player);
+            entityCacheService.evict(Player.class, id);
+            return ResponseEntity.ok(savedPlayer);
         }
         return ResponseEntity.notFound().build();
     }
@@ -56,6 +88,8 @@ public class PlayerController {
     public ResponseEntity<Void> deletePlayer(@PathVariable Long id) {
         if (playerRepository.existsById(id)) {
             playerRepository.deleteById(id);
+            gameStatsService.deletePlayerStats(id);
+            entityCacheService.evict(Player.class, id);
             return ResponseEntity.noContent().build();
         }
         return ResponseEntity.notFound().build();
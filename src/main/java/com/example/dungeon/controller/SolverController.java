@@ -0,0 +1,54 @@
+package com.example.dungeon.controller;
+
+import com.example.dungeon.service.DungeonService;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/solver")
+public class SolverController {
+
+    @Autowired
+    private DungeonService dungeonService;
+
+    // GET result cache statistics
+    @GetMapping("/cache")
+    public CacheStatsResponse getCacheStats() {
+        return new CacheStatsResponse(dungeonService.cacheStats(), dungeonService.cachedCells(),
+                dungeonService.retainedTableBytes());
+    }
+
+    // Inner class for response
+    public static class CacheStatsResponse {
+        private long hitCount;
+        private long missCount;
+        private double hitRate;
+        private long evictionCount;
+        private long cachedCells;
+        private long tableBytes;
+
+        public CacheStatsResponse(CacheStats stats, long cachedCells, long tableBytes) {
+            this.hitCount = stats.hitCount();
+            this.missCount = stats.missCount();
+            this.hitRate = stats.hitRate();
+            this.evictionCount = stats.evictionCount();
+            this.cachedCells = cachedCells;
+            this.tableBytes = tableBytes;
+        }
+
+        // Getters and setters
+        public long getHitCount() { return hitCount; }
+        public void setHitCount(long hitCount) { this.hitCount = hitCount; }
+        public long getMissCount() { return missCount; }
+        public void setMissCount(long missCount) { this.missCount = missCount; }
+        public double getHitRate() { return hitRate; }
+        public void setHitRate(double hitRate) { this.hitRate = hitRate; }
+        public long getEvictionCount() { return evictionCount; }
+        public void setEvictionCount(long evictionCount) { this.evictionCount = evictionCount; }
+        public long getCachedCells() { return cachedCells; }
+        public void setCachedCells(long cachedCells) { this.cachedCells = cachedCells; }
+        public long getTableBytes() { return tableBytes; }
+        public void setTableBytes(long tableBytes) { this.tableBytes = tableBytes; }
+    }
+}
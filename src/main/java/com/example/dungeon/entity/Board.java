@@ -1,11 +1,26 @@
 package com.example.dungeon.entity;
 
+import com.example.dungeon.metrics.DungeonMetrics;
+import com.example.dungeon.solver.Grid;
+import com.example.dungeon.storage.BoardCodec;
 import jakarta.persistence.*;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+
+import java.io.IOException;
+import java.util.Arrays;
 
 @Entity
-@Table(name = "boards")
+@Table(name = "boards", indexes = @Index(name = "idx_boards_content_hash", columnList = "content_hash"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "boards") // Bounds in application.conf
+@DynamicUpdate // Background jobs update a few columns; don't rewrite the grid or race each other on it
 public class Board {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -15,7 +30,22 @@ public class Board {
     private String name;
     
     @Column(columnDefinition = "TEXT")
-    private String boardData; // Store the 2D array as JSON string
+    private String boardData; // Legacy JSON grid, migrated to boardBytes
+
+    @Column(name = "board_bytes", columnDefinition = "bytea")
+    private byte[] boardBytes; // Grid encoded with BoardCodec
+
+    @Column
+    private String boardFile; // Memory-mapped file of an oversized board, instead of boardBytes
+
+    @Column(name = "min_hp")
+    private Integer minHp; // Precomputed minimum HP, valid for minHpVersion and contentHash
+
+    @Column(name = "min_hp_version")
+    private Integer minHpVersion; // DungeonService.SOLVER_VERSION that computed minHp
+
+    @Column(name = "content_hash")
+    private Long contentHash; // Grid.contentHash() of the board minHp was computed for
 
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -45,6 +75,7 @@ public class Board {
         this.name = name;
     }
 
+    @JsonIgnore
     public String getBoardData() {
         return boardData;
     }
@@ -53,21 +84,132 @@ public class Board {
         this.boardData = boardData;
     }
 
-    // Helper methods to convert between int[][] and JSON string
+    @JsonIgnore
+    public byte[] getBoardBytes() {
+        return boardBytes;
+    }
+
+    public void setBoardBytes(byte[] boardBytes) {
+        this.boardBytes = boardBytes;
+    }
+
+    @JsonIgnore
+    public String getBoardFile() {
+        return boardFile;
+    }
+
+    public void setBoardFile(String boardFile) {
+        this.boardFile = boardFile;
+    }
+
+    public Integer getMinHp() {
+        return minHp;
+    }
+
+    public void setMinHp(Integer minHp) {
+        this.minHp = minHp;
+    }
+
+    @JsonIgnore
+    public Integer getMinHpVersion() {
+        return minHpVersion;
+    }
+
+    public void setMinHpVersion(Integer minHpVersion) {
+        this.minHpVersion = minHpVersion;
+    }
+
+    @JsonIgnore
+    public Long getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(Long contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    // The stored minimum HP, or null when it is missing or was computed by another solver version
+    public Integer minHpFor(int solverVersion) {
+        return minHpVersion != null && minHpVersion == solverVersion ? minHp : null;
+    }
+
+    public boolean isMapped() {
+        return boardFile != null;
+    }
+
+    // Helper methods to convert between int[][] and the stored grid
+    @JsonIgnore
     public int[][] getBoardArray() {
+        Grid grid = getGrid();
+        return grid == null ? null : grid.toArray();
+    }
+
+    public void setBoardArray(int[][] board) {
+        setGrid(board == null ? null : Grid.of(board));
+    }
+
+    // Decodes the binary grid, or streams a legacy JSON grid, straight into a flat grid; timed by format
+    @JsonIgnore
+    public Grid getGrid() {
+        if (boardBytes != null) {
+            byte[] bytes = boardBytes;
+            return DungeonMetrics.DECODE_BINARY.record(() -> BoardCodec.decode(bytes));
+        }
         if (boardData == null) return null;
-        try {
-            return objectMapper.readValue(boardData, int[][].class);
-        } catch (JsonProcessingException e) {
+        Timer.Sample sample = Timer.start();
+        try (JsonParser parser = objectMapper.getFactory().createParser(boardData)) {
+            return readGrid(parser);
+        } catch (IOException e) {
             throw new RuntimeException("Error parsing board data", e);
+        } finally {
+            sample.stop(DungeonMetrics.DECODE_JSON);
         }
     }
 
-    public void setBoardArray(int[][] board) {
-        try {
-            this.boardData = objectMapper.writeValueAsString(board);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Error serializing board data", e);
+    // Always writes the binary format, dropping any legacy JSON copy and the now stale minimum HP
+    public void setGrid(Grid grid) {
+        this.boardBytes = grid == null ? null : BoardCodec.encode(grid);
+        this.boardData = null;
+        this.minHp = null;
+        this.minHpVersion = null;
+        this.contentHash = null;
+    }
+
+    // Re-encodes a legacy JSON grid in the binary format; the contents, and so the minimum HP, are unchanged.
+    // False when there was no legacy grid left to convert.
+    public boolean migrateLegacyData() {
+        if (boardData == null || boardBytes != null) {
+            return false;
+        }
+        this.boardBytes = BoardCodec.encode(getGrid());
+        this.boardData = null;
+        return true;
+    }
+
+    private static Grid readGrid(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException("Board data must be a JSON array of rows");
+        }
+        int[] cells = new int[64];
+        int size = 0;
+        int rows = 0;
+        int cols = -1;
+        while (parser.nextToken() == JsonToken.START_ARRAY) {
+            int rowStart = size;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (size == cells.length) {
+                    cells = Arrays.copyOf(cells, cells.length * 2);
+                }
+                cells[size++] = parser.getIntValue();
+            }
+            int rowLength = size - rowStart;
+            if (cols == -1) {
+                cols = rowLength;
+            } else if (rowLength != cols) {
+                throw new IllegalArgumentException("Board must be rectangular");
+            }
+            rows++;
         }
+        return new Grid(rows, Math.max(cols, 0), size == cells.length ? cells : Arrays.copyOf(cells, size));
     }
 }
@@ -0,0 +1,93 @@
+package com.example.dungeon.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Aggregates of the board's games, kept current as games are recorded (see GameStatsService)
+@Entity
+@Table(name = "board_stats")
+public class BoardStats {
+    @Id
+    private Long boardId;
+
+    @Column(nullable = false)
+    private Long gamesPlayed;
+
+    @Column
+    private Integer bestMinHp; // Lowest minimum HP, null until the first game
+
+    @Column
+    private Integer worstMinHp; // Highest minimum HP
+
+    @Column(nullable = false)
+    private Long totalMinHp; // Sum of the results, for the average
+
+    @Column
+    private LocalDateTime lastPlayedAt;
+
+    // Default constructor
+    public BoardStats() {}
+
+    // Constructor with parameters
+    public BoardStats(Long boardId) {
+        this.boardId = boardId;
+        this.gamesPlayed = 0L;
+        this.totalMinHp = 0L;
+    }
+
+    // Getters and setters
+    public Long getBoardId() {
+        return boardId;
+    }
+
+    public void setBoardId(Long boardId) {
+        this.boardId = boardId;
+    }
+
+    public Long getGamesPlayed() {
+        return gamesPlayed;
+    }
+
+    public void setGamesPlayed(Long gamesPlayed) {
+        this.gamesPlayed = gamesPlayed;
+    }
+
+    public Integer getBestMinHp() {
+        return bestMinHp;
+    }
+
+    public void setBestMinHp(Integer bestMinHp) {
+        this.bestMinHp = bestMinHp;
+    }
+
+    public Integer getWorstMinHp() {
+        return worstMinHp;
+    }
+
+    public void setWorstMinHp(Integer worstMinHp) {
+        this.worstMinHp = worstMinHp;
+    }
+
+    @JsonIgnore
+    public Long getTotalMinHp() {
+        return totalMinHp;
+    }
+
+    public void setTotalMinHp(Long totalMinHp) {
+        this.totalMinHp = totalMinHp;
+    }
+
+    // Null until the first game
+    public Double getAverageMinHp() {
+        return gamesPlayed == 0 ? null : (double) totalMinHp / gamesPlayed;
+    }
+
+    public LocalDateTime getLastPlayedAt() {
+        return lastPlayedAt;
+    }
+
+    public void setLastPlayedAt(LocalDateTime lastPlayedAt) {
+        this.lastPlayedAt = lastPlayedAt;
+    }
+}
@@ -1,21 +1,36 @@
 package com.example.dungeon.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "games")
+@Table(name = "games", indexes = {
+        // Keyset pagination of game listings, newest first
+        @Index(name = "idx_games_played_at_id", columnList = "played_at, id"),
+        @Index(name = "idx_games_player_played_at_id", columnList = "player_id, played_at, id"),
+        @Index(name = "idx_games_board_played_at_id", columnList = "board_id, played_at, id")
+})
 public class Game {
+    public static final String ID_SEQUENCE = "games_seq";
+
+    // Ids are taken from the sequence this many at a time, so inserts can be batched
+    public static final int ID_ALLOCATION = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION)
     private Long id;
     
-    @ManyToOne
+    // Lazy: listings read GameSummary projections, and the detail query join-fetches both
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "player_id", nullable = false)
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
     private Player player;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "board_id", nullable = false)
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
     private Board board;
     
     @Column(nullable = false)
@@ -0,0 +1,39 @@
+package com.example.dungeon.entity;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "journal_checkpoints")
+public class JournalCheckpoint {
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private Long committedSequence; // Last journal sequence inserted into games
+
+    // Default constructor
+    public JournalCheckpoint() {}
+
+    // Constructor with parameters
+    public JournalCheckpoint(String name, Long committedSequence) {
+        this.name = name;
+        this.committedSequence = committedSequence;
+    }
+
+    // Getters and setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getCommittedSequence() {
+        return committedSequence;
+    }
+
+    public void setCommittedSequence(Long committedSequence) {
+        this.committedSequence = committedSequence;
+    }
+}
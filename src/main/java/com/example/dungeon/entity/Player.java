@@ -1,9 +1,13 @@
 package com.example.dungeon.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "players")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "players") // Bounds in application.conf
 public class Player {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,93 @@
+package com.example.dungeon.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Meters that tell where a play spent its time: the play as a whole
+ * ({@code dungeon.play}, by outcome), its phases ({@code dungeon.play.phase}:
+ * lookup, solve and insert), decoding a stored grid
+ * ({@code dungeon.board.decode}, by format), the size of every board solved
+ * ({@code dungeon.board.cells}) and the solver's time per cell
+ * ({@code dungeon.solver.time.per.cell}, by solver), and plays that
+ * waited on another play's solve of the same board
+ * ({@code dungeon.solve.coalesced}, and {@code dungeon.solve.waiting} now).
+ *
+ * <p>The meters live in Micrometer's global registry, which Spring Boot adds
+ * its registries to, so entities and solvers record without being beans.
+ * Outside a Spring context recording is a no-op.
+ */
+public final class DungeonMetrics {
+
+    public static final String PLAY = "dungeon.play";
+    public static final String PLAY_PHASE = "dungeon.play.phase";
+    public static final String BOARD_DECODE = "dungeon.board.decode";
+    public static final String BOARD_CELLS = "dungeon.board.cells";
+    public static final String SOLVER_TIME_PER_CELL = "dungeon.solver.time.per.cell";
+    public static final String SOLVE_COALESCED = "dungeon.solve.coalesced";
+    public static final String SOLVE_WAITING = "dungeon.solve.waiting";
+
+    public static final Timer LOOKUP = phase("lookup");
+    public static final Timer SOLVE = phase("solve");
+    public static final Timer INSERT = phase("insert");
+    public static final Timer DECODE_BINARY = decode("binary");
+    public static final Timer DECODE_JSON = decode("json");
+
+    private static final DistributionSummary CELLS = DistributionSummary.builder(BOARD_CELLS)
+            .description("Cells of each board solved")
+            .baseUnit("cells")
+            .register(Metrics.globalRegistry);
+
+    private static final Counter COALESCED = Counter.builder(SOLVE_COALESCED)
+            .description("Plays that waited on another play's solve of the same board")
+            .register(Metrics.globalRegistry);
+
+    private static final AtomicInteger WAITING = Metrics.globalRegistry.gauge(SOLVE_WAITING, new AtomicInteger());
+
+    private DungeonMetrics() {}
+
+    // outcome is played, player_not_found, board_not_found or rejected (too many games waiting to be stored)
+    public static Timer play(String outcome) {
+        return Timer.builder(PLAY)
+                .description("Time to play a single game, from the parsed request to the response")
+                .tag("outcome", outcome)
+                .register(Metrics.globalRegistry);
+    }
+
+    // A board of cells solved by solver in nanos
+    public static void solved(String solver, long cells, long nanos) {
+        CELLS.record(cells);
+        DistributionSummary.builder(SOLVER_TIME_PER_CELL)
+                .description("Solver time per board cell")
+                .baseUnit("nanoseconds")
+                .tag("solver", solver)
+                .register(Metrics.globalRegistry)
+                .record((double) nanos / Math.max(cells, 1));
+    }
+
+    // A play started (+1) or stopped (-1) waiting on another play's solve
+    public static void solveWaiting(int delta) {
+        if (delta > 0) {
+            COALESCED.increment(delta);
+        }
+        WAITING.addAndGet(delta);
+    }
+
+    private static Timer phase(String phase) {
+        return Timer.builder(PLAY_PHASE)
+                .description("Time a play spends in each phase")
+                .tag("phase", phase)
+                .register(Metrics.globalRegistry);
+    }
+
+    private static Timer decode(String format) {
+        return Timer.builder(BOARD_DECODE)
+                .description("Time to decode a stored board grid")
+                .tag("format", format)
+                .register(Metrics.globalRegistry);
+    }
+}
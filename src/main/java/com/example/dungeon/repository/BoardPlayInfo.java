@@ -0,0 +1,13 @@
+package com.example.dungeon.repository;
+
+/**
+ * The columns a batch of plays needs from each of its boards, read with one
+ * {@code IN} query.
+ */
+public record BoardPlayInfo(Long id, String name, Integer minHp, Integer minHpVersion) {
+
+    // The stored minimum HP, or null when it is missing or was computed by another solver version
+    public Integer minHpFor(int solverVersion) {
+        return minHpVersion != null && minHpVersion == solverVersion ? minHp : null;
+    }
+}
@@ -1,9 +1,42 @@
 package com.example.dungeon.repository;
 
 import com.example.dungeon.entity.Board;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface BoardRepository extends JpaRepository<Board, Long> {
+
+    List<Board> findByContentHash(Long contentHash);
+
+    // Serializes cell edits of a board, so each applies to the grid the previous one left
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Board b where b.id = :id")
+    Optional<Board> findForUpdateById(Long id);
+
+    // Locks a migration batch, so a board written meanwhile is read as it was written and not written back
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Board b where b.id in :ids order by b.id")
+    List<Board> findAllForUpdateByIdIn(Collection<Long> ids);
+
+    @Query("select new com.example.dungeon.repository.BoardPlayInfo(b.id, b.name, b.minHp, b.minHpVersion) "
+            + "from Board b where b.id in :ids")
+    List<BoardPlayInfo> findPlayInfoByIdIn(Collection<Long> ids);
+
+    @Query("select b.boardFile from Board b where b.id = :id and b.boardFile is not null")
+    Optional<String> findBoardFileById(Long id);
+
+    @Query("select b.id from Board b where b.id > :afterId and b.boardData is not null and b.boardBytes is null order by b.id")
+    List<Long> findLegacyJsonIdsAfter(Long afterId, Pageable pageable);
+
+    @Query("select b.id from Board b where b.id > :afterId and (b.minHpVersion is null or b.minHpVersion <> :solverVersion) order by b.id")
+    List<Long> findIdsWithoutMinHpAfter(Long afterId, int solverVersion, Pageable pageable);
 }
@@ -0,0 +1,9 @@
+package com.example.dungeon.repository;
+
+import com.example.dungeon.entity.BoardStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BoardStatsRepository extends JpaRepository<BoardStats, Long> {
+}
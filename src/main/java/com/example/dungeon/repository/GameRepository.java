@@ -1,12 +1,55 @@
 package com.example.dungeon.repository;
 
 import com.example.dungeon.entity.Game;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface GameRepository extends JpaRepository<Game, Long> {
-    List<Game> findByPlayerId(Long playerId);
-    List<Game> findByBoardId(Long boardId);
+    // Keyset pagination, newest first: games strictly before the (playedAt, id) of the last one seen
+    String LISTING = "select new com.example.dungeon.repository.GameSummary(g.id, p.id, p.name, b.id, b.name, "
+            + "g.result, g.playedAt) from Game g join g.player p join g.board b where ";
+    String BEFORE = "(g.playedAt < :playedAt or (g.playedAt = :playedAt and g.id < :id))";
+    String NEWEST_FIRST = " order by g.playedAt desc, g.id desc";
+    String STREAM_FETCH_SIZE = "500";
+
+    // The full game, with its player and board, for the detail endpoint
+    @Query("select g from Game g join fetch g.player join fetch g.board where g.id = :id")
+    Optional<Game> findDetailById(Long id);
+
+    @Query(LISTING + BEFORE + NEWEST_FIRST)
+    List<GameSummary> findPageBefore(LocalDateTime playedAt, Long id, Pageable pageable);
+
+    @Query(LISTING + "p.id = :playerId and " + BEFORE + NEWEST_FIRST)
+    List<GameSummary> findPageByPlayerIdBefore(Long playerId, LocalDateTime playedAt, Long id, Pageable pageable);
+
+    @Query(LISTING + "b.id = :boardId and " + BEFORE + NEWEST_FIRST)
+    List<GameSummary> findPageByBoardIdBefore(Long boardId, LocalDateTime playedAt, Long id, Pageable pageable);
+
+    // Scrolled through a server-side cursor; must be consumed inside a transaction
+    @Query(LISTING + BEFORE + NEWEST_FIRST)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    Stream<GameSummary> streamBefore(LocalDateTime playedAt, Long id);
+
+    @Query(LISTING + "p.id = :playerId and " + BEFORE + NEWEST_FIRST)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    Stream<GameSummary> streamByPlayerIdBefore(Long playerId, LocalDateTime playedAt, Long id);
+
+    @Query(LISTING + "b.id = :boardId and " + BEFORE + NEWEST_FIRST)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    Stream<GameSummary> streamByBoardIdBefore(Long boardId, LocalDateTime playedAt, Long id);
+
+    // Empty when either the player or the board does not exist
+    @Query("select new com.example.dungeon.repository.PlayContext(p.name, b.name, b.minHp, b.minHpVersion) "
+            + "from Player p, Board b where p.id = :playerId and b.id = :boardId")
+    Optional<PlayContext> findPlayContext(Long playerId, Long boardId);
 }
@@ -0,0 +1,11 @@
+package com.example.dungeon.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * A game as listed: ids and names of its player and board, its result and
+ * when it was played. Read with the names joined in, without loading either
+ * entity or the board's grid.
+ */
+public record GameSummary(Long id, Long playerId, String playerName, Long boardId, String boardName,
+                          Integer result, LocalDateTime playedAt) {}
@@ -0,0 +1,16 @@
+package com.example.dungeon.repository;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+
+// A player's line on the leaderboard: their stats with their name joined in
+public record LeaderboardEntry(Long playerId, String playerName, Long gamesPlayed, Integer bestMinHp,
+                               Integer worstMinHp, @JsonIgnore Long totalMinHp, LocalDateTime lastPlayedAt) {
+
+    @JsonProperty
+    public Double averageMinHp() {
+        return gamesPlayed == 0 ? null : (double) totalMinHp / gamesPlayed;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.dungeon.repository;
+
+/**
+ * The columns a play needs from its player and board, read in one query
+ * without hydrating either entity or touching the board's grid.
+ */
+public record PlayContext(String playerName, String boardName, Integer minHp, Integer minHpVersion) {
+
+    // The stored minimum HP, or null when it is missing or was computed by another solver version
+    public Integer minHpFor(int solverVersion) {
+        return minHpVersion != null && minHpVersion == solverVersion ? minHp : null;
+    }
+}
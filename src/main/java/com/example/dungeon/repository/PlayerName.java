@@ -0,0 +1,3 @@
+package com.example.dungeon.repository;
+
+public record PlayerName(Long id, String name) {}
@@ -2,8 +2,15 @@ package com.example.dungeon.repository;
 
 import com.example.dungeon.entity.Player;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface PlayerRepository extends JpaRepository<Player, Long> {
+
+    @Query("select new com.example.dungeon.repository.PlayerName(p.id, p.name) from Player p where p.id in :ids")
+    List<PlayerName> findNamesByIdIn(Collection<Long> ids);
 }
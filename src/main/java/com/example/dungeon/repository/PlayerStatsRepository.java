@@ -0,0 +1,20 @@
+package com.example.dungeon.repository;
+
+import com.example.dungeon.entity.PlayerStats;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PlayerStatsRepository extends JpaRepository<PlayerStats, Long> {
+
+    // Most games played first; a backward scan of the first rows of idx_player_stats_games_played
+    @Query("select new com.example.dungeon.repository.LeaderboardEntry(s.playerId, p.name, s.gamesPlayed, "
+            + "s.bestMinHp, s.worstMinHp, s.totalMinHp, s.lastPlayedAt) "
+            + "from PlayerStats s join Player p on p.id = s.playerId where s.gamesPlayed > 0 "
+            + "order by s.gamesPlayed desc, s.playerId desc")
+    List<LeaderboardEntry> findLeaderboard(Pageable pageable);
+}
@@ -0,0 +1,89 @@
+package com.example.dungeon.service;
+
+import com.example.dungeon.entity.Board;
+import com.example.dungeon.repository.BoardRepository;
+import com.example.dungeon.solver.DpTable;
+import com.example.dungeon.solver.Grid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Edits a few cells of a stored board without re-solving all of it. The
+ * board row is locked for the edit, the new grid and its minimum HP are
+ * stored in the same transaction, and the board's DP table
+ * ({@link DungeonService#editTable}) is re-solved only above and to the
+ * left of the edits. The table, and the new layout's cached result, are
+ * handed back to {@link DungeonService} once the transaction commits, so a
+ * rolled back edit leaves neither behind.
+ *
+ * <p>Mapped boards are edited by replacing them (PUT): their file is
+ * written once and never changed in place.
+ */
+@Service
+public class BoardEditService {
+
+    @Autowired
+    private BoardRepository boardRepository;
+
+    @Autowired
+    private DungeonService dungeonService;
+
+    // Empty when there is no such board; IllegalArgumentException for edits outside the board or of a mapped one
+    @Transactional
+    public Optional<Board> editCells(Long boardId, List<CellEdit> edits) {
+        if (edits.isEmpty()) {
+            throw new IllegalArgumentException("No cells to edit");
+        }
+        Optional<Board> found = boardRepository.findForUpdateById(boardId);
+        if (found.isEmpty()) {
+            return found;
+        }
+        Board board = found.get();
+        if (board.isMapped()) {
+            throw new IllegalArgumentException("Mapped boards can only be replaced");
+        }
+        Grid grid = board.getGrid();
+        int[] cells = grid.cells().clone();
+        int top = Integer.MAX_VALUE;
+        int bottom = -1;
+        int right = -1;
+        for (CellEdit edit : edits) {
+            if (edit.row() < 0 || edit.row() >= grid.rows() || edit.col() < 0 || edit.col() >= grid.cols()) {
+                throw new IllegalArgumentException("Cell (" + edit.row() + ", " + edit.col() + ") is outside the "
+                        + grid.rows() + "x" + grid.cols() + " board");
+            }
+            cells[edit.row() * grid.cols() + edit.col()] = edit.value();
+            top = Math.min(top, edit.row());
+            bottom = Math.max(bottom, edit.row());
+            right = Math.max(right, edit.col());
+        }
+        Grid edited = new Grid(grid.rows(), grid.cols(), cells);
+        Long previousHash = board.minHpFor(DungeonService.SOLVER_VERSION) == null ? null : board.getContentHash();
+        DpTable table = dungeonService.editTable(boardId, previousHash, edited, top, bottom, right);
+
+        board.setGrid(edited);
+        if (table == null) {
+            dungeonService.precompute(board);
+        } else {
+            long hash = edited.contentHash();
+            board.setContentHash(hash);
+            board.setMinHp(table.minHp());
+            board.setMinHpVersion(DungeonService.SOLVER_VERSION);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dungeonService.retainTable(boardId, edited, hash, table);
+                }
+            });
+        }
+        return Optional.of(boardRepository.save(board));
+    }
+
+    public record CellEdit(int row, int col, int value) {}
+}
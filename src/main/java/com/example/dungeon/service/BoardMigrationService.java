@@ -0,0 +1,79 @@
+package com.example.dungeon.service;
+
+import com.example.dungeon.config.StorageProperties;
+import com.example.dungeon.entity.Board;
+import com.example.dungeon.repository.BoardRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Converts boards written before the binary format from their JSON
+ * {@code boardData} column to {@code board_bytes}, in batches on a
+ * background thread so startup is not delayed. Rows that fail to convert
+ * are logged and skipped; they keep working through the JSON fallback.
+ *
+ * <p>A batch locks its rows ({@code SELECT ... FOR UPDATE}) before reading
+ * them, so a board written by a PUT or a cell edit while the batch runs is
+ * either converted before that write or read as written (already binary)
+ * and skipped, never written back with its old grid.
+ */
+@Service
+public class BoardMigrationService implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BoardMigrationService.class);
+
+    @Autowired
+    private BoardRepository boardRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private StorageProperties properties;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (properties.isMigrateJson()) {
+            Thread.ofPlatform().daemon().name("board-json-migration").start(this::migrateAll);
+        }
+    }
+
+    public int migrateAll() {
+        int migrated = 0;
+        long afterId = 0;
+        while (true) {
+            List<Long> ids = boardRepository.findLegacyJsonIdsAfter(afterId,
+                    PageRequest.of(0, properties.getMigrationBatchSize()));
+            if (ids.isEmpty()) break;
+            Integer converted = transactionTemplate.execute(status -> migrateBatch(ids));
+            migrated += converted == null ? 0 : converted;
+            afterId = ids.get(ids.size() - 1);
+        }
+        if (migrated > 0) {
+            log.info("Migrated {} boards from JSON to the binary format", migrated);
+        }
+        return migrated;
+    }
+
+    private int migrateBatch(List<Long> ids) {
+        int converted = 0;
+        for (Board board : boardRepository.findAllForUpdateByIdIn(ids)) {
+            try {
+                if (board.migrateLegacyData()) {
+                    converted++;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Skipping board {} with unreadable JSON data", board.getId(), e);
+            }
+        }
+        return converted;
+    }
+}
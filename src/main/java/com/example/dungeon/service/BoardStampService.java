@@ -0,0 +1,55 @@
+package com.example.dungeon.service;
+
+import com.example.dungeon.entity.Board;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Stores the minimum HP of a board solved after it was written (by a play,
+ * or by the backfill). The grid was read some time before the result is
+ * stored, so the stamp is a compare-and-set on the board's content hash:
+ * it is written only while the board still has the hash it had when its
+ * grid was read. A board rewritten in the meantime keeps the stamp its
+ * write stored, and the stale result is dropped.
+ *
+ * <p>Written with JDBC rather than a bulk JPQL update, which would empty
+ * Hibernate's whole boards cache region; only the stamped board is
+ * evicted, once the stamp commits.
+ */
+@Service
+public class BoardStampService {
+
+    private static final String UPDATE = "update boards set content_hash = ?, min_hp = ?, min_hp_version = ? where id = ? and ";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityCacheService entityCacheService;
+
+    // False when the board was deleted, or its content hash is no longer readHash (null for a board never stamped)
+    public boolean store(Long boardId, Long readHash, DungeonService.Stamp stamp) {
+        int updated = readHash == null
+                ? jdbcTemplate.update(UPDATE + "content_hash is null", stamp.contentHash(), stamp.minHp(),
+                        DungeonService.SOLVER_VERSION, boardId)
+                : jdbcTemplate.update(UPDATE + "content_hash = ?", stamp.contentHash(), stamp.minHp(),
+                        DungeonService.SOLVER_VERSION, boardId, readHash);
+        if (updated == 0) {
+            return false;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    entityCacheService.evict(Board.class, boardId);
+                }
+            });
+        } else {
+            entityCacheService.evict(Board.class, boardId);
+        }
+        return true;
+    }
+}
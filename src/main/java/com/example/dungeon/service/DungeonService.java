@@ -1,31 +1,382 @@
 package com.example.dungeon.service;
 
+import com.example.dungeon.config.SolverProperties;
+import com.example.dungeon.entity.Board;
+import com.example.dungeon.metrics.DungeonMetrics;
+import com.example.dungeon.solver.DpTable;
+import com.example.dungeon.solver.DungeonSolver;
+import com.example.dungeon.solver.Grid;
+import com.example.dungeon.solver.Route;
+import com.example.dungeon.solver.RouteSolver;
+import com.example.dungeon.solver.RowSource;
+import com.example.dungeon.solver.SequentialSolver;
+import com.example.dungeon.solver.SolveProgress;
+import com.example.dungeon.solver.StreamingSolver;
+import com.example.dungeon.solver.VectorSupport;
+import com.example.dungeon.solver.WavefrontSolver;
+import com.example.dungeon.storage.MappedBoard;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import java.util.Arrays;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
 
 @Service
 public class DungeonService {
 
+    private static final Logger log = LoggerFactory.getLogger(DungeonService.class);
+
+    // Bump when a solver change could alter results, so stored minimum HP values are recomputed
+    public static final int SOLVER_VERSION = 1;
+
+    private final SolverProperties properties;
+    private final DungeonSolver sequentialSolver = new SequentialSolver();
+    private final DungeonSolver singleCoreSolver;
+    private final ForkJoinPool wavefrontPool;
+    private final DungeonSolver wavefrontSolver;
+    private final StreamingSolver streamingSolver = new StreamingSolver();
+    private final RouteSolver routeSolver = new RouteSolver();
+    private final Cache<LayoutKey, CachedResult> resultCache;
+    private final long maxCachedCells;
+    private final Cache<Long, RetainedTable> tables; // By board id
+    private final long maxTableBytes;
+    private final SingleFlight<TableKey, DpTable> tableBuilds = new SingleFlight<>();
+
+    public DungeonService() {
+        this(new SolverProperties());
+    }
+
+    @Autowired
+    public DungeonService(SolverProperties properties) {
+        this.properties = properties;
+        this.wavefrontPool = new ForkJoinPool(properties.effectiveParallelism());
+        this.wavefrontSolver = new WavefrontSolver(wavefrontPool, properties.getTileSize());
+        this.singleCoreSolver = switch (properties.getVector()) {
+            case ON -> VectorSupport.create();
+            case AUTO -> VectorSupport.isAvailable() ? VectorSupport.create() : sequentialSolver;
+            case OFF -> sequentialSolver;
+        };
+        // A single board may take at most an eighth of the cache, so one huge layout can't flush it
+        this.maxCachedCells = Math.max(properties.getCacheMaxCells(), 0) / 8;
+        this.resultCache = Caffeine.newBuilder()
+                .maximumWeight(Math.max(properties.getCacheMaxCells(), 0))
+                .weigher((LayoutKey key, CachedResult result) -> key.rows() * key.cols())
+                .recordStats()
+                .build();
+        // DP tables of boards edited or queried by start cell, most recently used kept; same eighth per board
+        this.maxTableBytes = Math.max(properties.getTableMaxBytes(), 0) / 8;
+        this.tables = Caffeine.newBuilder()
+                .maximumWeight(Math.max(properties.getTableMaxBytes(), 0))
+                .weigher((Long boardId, RetainedTable table) -> (int) Math.min(table.table().sizeInBytes(), Integer.MAX_VALUE))
+                .build();
+    }
+
     public int calculateMinimumHP(int[][] dungeon) {
-        int m = dungeon.length;
-        int n = dungeon[0].length;
+        return calculateMinimumHP(Grid.of(dungeon));
+    }
+
+    // Each distinct layout is solved once and then served from the result cache
+    public int calculateMinimumHP(Grid grid) {
+        if (grid.cellCount() > maxCachedCells) {
+            return solve(grid);
+        }
+        return solveCached(grid, grid.contentHash());
+    }
+
+    // Mapped boards are streamed from their file row by row, others are solved in memory
+    public int calculateMinimumHP(Board board) {
+        if (board.isMapped()) {
+            Path file = Path.of(board.getBoardFile());
+            return offload(Long.MAX_VALUE, () -> solveStreaming(MappedBoard.open(file), SolveProgress.NONE));
+        }
+        return calculateMinimumHP(board.getGrid());
+    }
+
+    // The minimum HP with an optimal route, in memory linear in the board's sides; a current stamp
+    // saves solving the board for its minimum HP first
+    public Route route(Board board) {
+        Integer stamped = board.minHpFor(SOLVER_VERSION);
+        if (board.isMapped()) {
+            RowSource source = MappedBoard.open(Path.of(board.getBoardFile()));
+            return offload(Long.MAX_VALUE, () -> stamped != null
+                    ? routeSolver.solve(source, stamped)
+                    : routeSolver.solve(source, solveStreaming(source, SolveProgress.NONE)));
+        }
+        Grid grid = board.getGrid();
+        int minHp = stamped != null ? stamped : calculateMinimumHP(grid);
+        return offload(grid.cellCount(), () -> routeSolver.solve(grid, minHp));
+    }
+
+    // Stamps the board with its content hash and minimum HP under the current solver version. For a board
+    // being written, in the transaction that writes its grid; stamps of a stored board go through
+    // BoardStampService, so they can't overwrite a write that committed while the board was solved.
+    public void precompute(Board board) {
+        stamp(board, SolveProgress.NONE).applyTo(board);
+    }
+
+    // The board's stamp, leaving the board as it is. With a progress other than NONE the board is solved
+    // row by row on the calling thread, reporting every row, and a cancelled progress stops it with a
+    // CancellationException. Layouts in the result cache are not solved again either way.
+    public Stamp stamp(Board board, SolveProgress progress) {
+        if (board.isMapped()) {
+            Path file = Path.of(board.getBoardFile());
+            long hash = Grid.contentHash(MappedBoard.open(file));
+            return new Stamp(hash, offload(Long.MAX_VALUE, () -> solveStreaming(MappedBoard.open(file), progress)));
+        }
+        Grid grid = board.getGrid();
+        long hash = grid.contentHash();
+        return new Stamp(hash, progress == SolveProgress.NONE
+                ? solveCached(grid, hash)
+                : solveCached(grid, hash, () -> solveStreaming(grid, progress)));
+    }
+
+    // The stamps of the boards by id, solved in parallel on the solver pool. Grids are read on the calling
+    // thread, which owns the boards. A board that fails to solve is logged and left out, so one bad board
+    // doesn't fail the others.
+    public Map<Long, Stamp> stampAll(List<Board> boards) {
+        List<Callable<Stamp>> tasks = new ArrayList<>(boards.size());
+        for (Board board : boards) {
+            if (board.isMapped()) {
+                Path file = Path.of(board.getBoardFile());
+                tasks.add(() -> new Stamp(Grid.contentHash(MappedBoard.open(file)),
+                        solveStreaming(MappedBoard.open(file), SolveProgress.NONE)));
+            } else {
+                Grid grid = board.getGrid();
+                tasks.add(() -> {
+                    long hash = grid.contentHash();
+                    return new Stamp(hash, solveCached(grid, hash));
+                });
+            }
+        }
+        List<Future<Stamp>> stamps = wavefrontPool.invokeAll(tasks);
+        Map<Long, Stamp> stamped = new HashMap<>();
+        for (int k = 0; k < boards.size(); k++) {
+            Board board = boards.get(k);
+            try {
+                stamped.put(board.getId(), stamps.get(k).get());
+            } catch (ExecutionException e) {
+                log.warn("Could not solve board {}", board.getId(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while solving boards", e);
+            }
+        }
+        return stamped;
+    }
+
+    // The DP table of a board after cell edits: a copy of its retained table for the contents it had before,
+    // re-solved only where the edits reach, or else a fresh one. Queries already reading the retained table
+    // keep reading the old contents' entries, untouched; the retained table is taken out of the cache, so an
+    // edit that doesn't commit can't leave it out of step with the stored board, and retainTable publishes
+    // the updated copy. Null when the board is too large to keep a table for, so it is to be solved in full.
+    public DpTable editTable(Long boardId, Long previousHash, Grid edited, int top, int bottom, int right) {
+        RetainedTable retained = tables.asMap().remove(boardId);
+        if (retained != null && previousHash != null && retained.contentHash() == previousHash
+                && retained.table().rows() == edited.rows() && retained.table().cols() == edited.cols()) {
+            DpTable table = retained.table().copy();
+            long start = System.nanoTime();
+            long solved = offload((long) (bottom + 1) * (right + 1), () -> table.update(edited, top, bottom, right));
+            DungeonMetrics.solved(DpTable.class.getSimpleName(), solved, System.nanoTime() - start);
+            return table;
+        }
+        if (edited.cellCount() > maxTableBytes) {
+            return null;
+        }
+        long start = System.nanoTime();
+        DpTable table = offload(edited.cellCount(), () -> DpTable.solve(edited));
+        DungeonMetrics.solved(DpTable.class.getSimpleName(), edited.cellCount(), System.nanoTime() - start);
+        return table;
+    }
+
+    // Keeps the table of a board's committed contents for its next edit, and caches their result by layout
+    public void retainTable(Long boardId, Grid grid, long contentHash, DpTable table) {
+        tables.put(boardId, new RetainedTable(contentHash, table));
+        if (grid.cellCount() <= maxCachedCells) {
+            resultCache.put(new LayoutKey(contentHash, grid.rows(), grid.cols()),
+                    new CachedResult(grid.fingerprint(), table.minHp()));
+        }
+    }
+
+    // The least HP needed to reach the princess from (row, col): a lookup in the board's retained DP table,
+    // built on first use, once however many queries ask for it at the same time. The table is only trusted
+    // for the contents it was built from: a stamped board's content hash, or for a board not stamped yet the
+    // hash of its cells, worked out before the lookup. A board too large to keep a table for (a table takes
+    // at least a byte per cell) is solved from that cell instead, streaming the rows below it.
+    public int minHpFrom(Board board, int row, int col) {
+        Long stamped = board.minHpFor(SOLVER_VERSION) == null ? null : board.getContentHash();
+        if (stamped != null) {
+            RetainedTable retained = tables.getIfPresent(board.getId());
+            if (retained != null && retained.contentHash() == stamped) {
+                return retained.table().at(row, col);
+            }
+        }
+        RowSource source = board.isMapped() ? MappedBoard.open(Path.of(board.getBoardFile())) : board.getGrid();
+        if (row < 0 || row >= source.rows() || col < 0 || col >= source.cols()) {
+            throw new IndexOutOfBoundsException("Cell (" + row + ", " + col + ") is outside the "
+                    + source.rows() + "x" + source.cols() + " board");
+        }
+        long cells = (long) source.rows() * source.cols();
+        long offloaded = board.isMapped() ? Long.MAX_VALUE : cells;
+        if (cells > maxTableBytes) {
+            return offload(offloaded, () -> solveStreaming(from(source, row, col), SolveProgress.NONE));
+        }
+        long contentHash = stamped != null ? stamped : Grid.contentHash(source);
+        if (stamped == null) {
+            RetainedTable retained = tables.getIfPresent(board.getId());
+            if (retained != null && retained.contentHash() == contentHash) {
+                return retained.table().at(row, col);
+            }
+        }
+        DpTable table = tableBuilds.execute(new TableKey(board.getId(), contentHash), () -> {
+            long start = System.nanoTime();
+            DpTable built = offload(offloaded, () -> DpTable.solve(source));
+            DungeonMetrics.solved(DpTable.class.getSimpleName(), cells, System.nanoTime() - start);
+            tables.put(board.getId(), new RetainedTable(contentHash, built));
+            return built;
+        });
+        return table.at(row, col);
+    }
+
+    // Bytes of the DP tables retained, after pending evictions
+    public long retainedTableBytes() {
+        tables.cleanUp();
+        return tables.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    // Pending evictions are applied first, so the figures are exact
+    public CacheStats cacheStats() {
+        resultCache.cleanUp();
+        return resultCache.stats();
+    }
+
+    public long cachedCells() {
+        resultCache.cleanUp();
+        return resultCache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
 
-        int[][] dp = new int[m + 1][n + 1];
+    private int solveCached(Grid grid, long hash) {
+        return solveCached(grid, hash, () -> solve(grid));
+    }
 
-        for (int i = 0; i <= m; i++) {
-            Arrays.fill(dp[i], Integer.MAX_VALUE);
+    // Not computed under the cache's lock: a long solve would block other layouts in the same bin. A cached
+    // result whose fingerprint differs is another layout with the same content hash, and is replaced
+    private int solveCached(Grid grid, long hash, IntSupplier solve) {
+        if (grid.cellCount() > maxCachedCells) {
+            return solve.getAsInt();
+        }
+        LayoutKey key = new LayoutKey(hash, grid.rows(), grid.cols());
+        long fingerprint = grid.fingerprint();
+        CachedResult cached = resultCache.getIfPresent(key);
+        if (cached != null && cached.fingerprint() == fingerprint) {
+            return cached.minHp();
         }
+        int result = solve.getAsInt();
+        resultCache.put(key, new CachedResult(fingerprint, result));
+        return result;
+    }
+
+    private int solve(Grid grid) {
+        DungeonSolver solver = solverFor(grid);
+        return offload(grid.cellCount(), () -> timed(solver.getClass().getSimpleName(), grid.cellCount(),
+                () -> solver.solve(grid)));
+    }
 
-        dp[m][n - 1] = 1;
-        dp[m - 1][n] = 1;
+    private int solveStreaming(RowSource source, SolveProgress progress) {
+        return timed(StreamingSolver.class.getSimpleName(), (long) source.rows() * source.cols(),
+                () -> streamingSolver.solve(source, progress));
+    }
 
-        for (int i = m - 1; i >= 0; i--) {
-            for (int j = n - 1; j >= 0; j--) {
-                int need = Math.min(dp[i + 1][j], dp[i][j + 1]) - dungeon[i][j];
-                dp[i][j] = Math.max(1, need);
+    // The part of a board below and to the right of (row, col), as a board of its own
+    private static RowSource from(RowSource source, int row, int col) {
+        return new RowSource() {
+            @Override
+            public int rows() {
+                return source.rows() - row;
             }
+
+            @Override
+            public int cols() {
+                return source.cols() - col;
+            }
+
+            @Override
+            public void readRow(int i, int start, int end, int[] dst) {
+                source.readRow(row + i, col + start, col + end, dst);
+            }
+        };
+    }
+
+    // Records the board's cells and the solver's time per cell, on the thread that runs the solve
+    private static int timed(String solver, long cells, IntSupplier solve) {
+        long start = System.nanoTime();
+        int result = solve.getAsInt();
+        DungeonMetrics.solved(solver, cells, System.nanoTime() - start);
+        return result;
+    }
+
+    // A virtual thread hands solves of offload-threshold cells or more to the solver pool and parks until
+    // they finish, rather than holding one of the few carrier threads every request is scheduled on
+    int offload(long cells, IntSupplier solve) {
+        if (cells < properties.getOffloadThreshold() || !Thread.currentThread().isVirtual()) {
+            return solve.getAsInt();
         }
+        return wavefrontPool.submit(() -> solve.getAsInt()).join();
+    }
 
-        return dp[0][0];
+    private <T> T offload(long cells, Supplier<T> solve) {
+        if (cells < properties.getOffloadThreshold() || !Thread.currentThread().isVirtual()) {
+            return solve.get();
+        }
+        return wavefrontPool.submit(solve::get).join();
+    }
+
+    // Large boards go to the wavefront solver, unless there is only one worker to run it on;
+    // everything else to the vector solver when enabled, or the scalar one
+    DungeonSolver solverFor(Grid grid) {
+        if (grid.cellCount() >= properties.getParallelThreshold() && wavefrontPool.getParallelism() > 1) {
+            return wavefrontSolver;
+        }
+        return singleCoreSolver;
     }
+
+    @PreDestroy
+    public void shutdown() {
+        wavefrontPool.shutdown();
+    }
+
+    // A board's content hash and its minimum HP under SOLVER_VERSION
+    public record Stamp(long contentHash, int minHp) {
+        public void applyTo(Board board) {
+            board.setContentHash(contentHash);
+            board.setMinHp(minHp);
+            board.setMinHpVersion(SOLVER_VERSION);
+        }
+    }
+
+    // A board's DP table, for the contents with this hash
+    private record RetainedTable(long contentHash, DpTable table) {}
+
+    private record TableKey(Long boardId, long contentHash) {}
+
+    // A layout by its content hash and dimensions; its cells are not kept, so an entry costs the same whatever
+    // the board's size
+    private record LayoutKey(long hash, int rows, int cols) {}
+
+    // The fingerprint of the cells the result was solved for, checked on every hit
+    private record CachedResult(long fingerprint, int minHp) {}
 }
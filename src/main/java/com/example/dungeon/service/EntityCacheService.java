@@ -0,0 +1,42 @@
+package com.example.dungeon.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Second-level cache of {@code Board} and {@code Player}. Hibernate keeps
+ * entries current for writes made through this node; handlers still evict
+ * explicitly after a change, and entries expire after a TTL so changes made
+ * elsewhere are picked up (see {@code application.conf}).
+ */
+@Service
+public class EntityCacheService {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    public void evict(Class<?> entity, Object id) {
+        entityManagerFactory.getCache().evict(entity, id);
+    }
+
+    public void evictAll() {
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    // Statistics of each second-level cache region, by region name
+    public Map<String, CacheRegionStatistics> regionStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, CacheRegionStatistics> regions = new LinkedHashMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            regions.put(region, statistics.getDomainDataRegionStatistics(region));
+        }
+        return regions;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.dungeon.service;
+
+import com.example.dungeon.entity.Game;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ids of games inserted outside Hibernate, taken from {@link Game#ID_SEQUENCE}
+ * in blocks of {@link Game#ID_ALLOCATION} the way Hibernate's pooled optimizer
+ * takes them: a sequence value {@code hi} reserves {@code (hi - ID_ALLOCATION, hi]}.
+ *
+ * <p>Games used to take their ids from an identity column. On startup the
+ * sequence is moved past the highest existing id, so a database written
+ * before the switch keeps working. It is only ever moved forward, so blocks
+ * other nodes already hold stay theirs: on PostgreSQL nodes starting at
+ * once take turns under an advisory lock, and the move is a
+ * {@code setval} to the greater of the sequence's next value and that id.
+ * Other databases (H2 in tests) restart the sequence, which is only safe
+ * for one node.
+ */
+@Service
+public class GameIdSequence {
+
+    private static final Logger log = LoggerFactory.getLogger(GameIdSequence.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Not synchronized: a virtual thread blocked on JDBC under a monitor would pin its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private String nextValueSql;
+    private long next;
+    private long hi;
+
+    @PostConstruct
+    public void align() {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        nextValueSql = dialect.getSequenceSupport().getSequenceNextValString(Game.ID_SEQUENCE);
+        // Also takes a fresh sequence's first value, which Hibernate would otherwise treat as a special case
+        long value = nextValue();
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from games", Long.class);
+        if (maxId != null && value < maxId) {
+            log.info("Moving {} past existing game id {}", Game.ID_SEQUENCE, maxId);
+            if (dialect instanceof PostgreSQLDialect) {
+                // A node that got here first may have moved it, and handed out blocks, already
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.queryForList("select pg_advisory_xact_lock(hashtext(?))", Game.ID_SEQUENCE);
+                    jdbcTemplate.queryForObject("select setval('" + Game.ID_SEQUENCE + "', greatest(nextval('"
+                            + Game.ID_SEQUENCE + "'), ?))", Long.class, maxId);
+                });
+            } else {
+                jdbcTemplate.execute("alter sequence " + Game.ID_SEQUENCE + " restart with " + (maxId + Game.ID_ALLOCATION));
+            }
+        }
+    }
+
+    public long next() {
+        lock.lock();
+        try {
+            if (next == 0 || next > hi) {
+                hi = nextValue();
+                next = Math.max(1, hi - Game.ID_ALLOCATION + 1);
+            }
+            return next++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long nextValue() {
+        Long value = jdbcTemplate.queryForObject(nextValueSql, Long.class);
+        if (value == null) {
+            throw new IllegalStateException("No value from " + Game.ID_SEQUENCE);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.dungeon.service;
+
+import com.example.dungeon.config.GameProperties;
+import com.example.dungeon.repository.GameRepository;
+import com.example.dungeon.repository.GameSummary;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Game listings, newest first, keyset-paginated on {@code (played_at, id)}:
+ * a page is the games strictly before its cursor, so every page is one
+ * index range scan however deep into the table it is. A listing can also be
+ * streamed as NDJSON from a scrolled result set, so memory stays flat however
+ * many games there are.
+ *
+ * <p>Listings are of all games, or of one player's or one board's games, as
+ * {@link GameSummary} projections: no entity is loaded, so nothing piles up
+ * in the persistence context and no board grid is read.
+ */
+@Service
+public class GameListingService {
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private GameProperties properties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // The page before the cursor (the first page without one); limit defaults to and is capped by the properties
+    @Transactional(readOnly = true)
+    public GamePage page(Long playerId, Long boardId, Cursor cursor, Integer limit) {
+        int size = Math.min(limit == null ? properties.getPageSize() : Math.max(limit, 1), properties.getMaxPageSize());
+        Cursor before = cursor == null ? Cursor.START : cursor;
+        // One row past the page tells whether there is a next one
+        PageRequest request = PageRequest.of(0, size + 1);
+        List<GameSummary> games;
+        if (playerId != null) {
+            games = gameRepository.findPageByPlayerIdBefore(playerId, before.playedAt(), before.id(), request);
+        } else if (boardId != null) {
+            games = gameRepository.findPageByBoardIdBefore(boardId, before.playedAt(), before.id(), request);
+        } else {
+            games = gameRepository.findPageBefore(before.playedAt(), before.id(), request);
+        }
+        if (games.size() <= size) {
+            return new GamePage(games, null);
+        }
+        List<GameSummary> page = games.subList(0, size);
+        return new GamePage(page, Cursor.of(page.get(size - 1)).encode());
+    }
+
+    // Writes every game before the cursor as one JSON object per line
+    @Transactional(readOnly = true)
+    public void stream(Long playerId, Long boardId, Cursor cursor, OutputStream out) throws IOException {
+        Cursor before = cursor == null ? Cursor.START : cursor;
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (Stream<GameSummary> games = playerId != null
+                ? gameRepository.streamByPlayerIdBefore(playerId, before.playedAt(), before.id())
+                : boardId != null
+                ? gameRepository.streamByBoardIdBefore(boardId, before.playedAt(), before.id())
+                : gameRepository.streamBefore(before.playedAt(), before.id());
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            for (Iterator<GameSummary> rows = games.iterator(); rows.hasNext(); ) {
+                writer.writeValue(generator, rows.next());
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    // nextCursor is null on the last page
+    public record GamePage(List<GameSummary> games, String nextCursor) {}
+
+    // Position in a listing, handed to clients as an opaque string
+    public record Cursor(LocalDateTime playedAt, Long id) {
+
+        // Before every game
+        public static final Cursor START = new Cursor(LocalDateTime.of(9999, 12, 31, 0, 0), Long.MAX_VALUE);
+
+        static Cursor of(GameSummary game) {
+            return new Cursor(game.playedAt(), game.id());
+        }
+
+        public String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((playedAt + "/" + id).getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static Cursor decode(String cursor) {
+            try {
+                String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int slash = value.indexOf('/');
+                return new Cursor(LocalDateTime.parse(value.substring(0, slash)), Long.parseLong(value.substring(slash + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+            }
+        }
+    }
+}
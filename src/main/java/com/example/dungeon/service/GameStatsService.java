@@ -0,0 +1,312 @@
+package com.example.dungeon.service;
+
+import com.example.dungeon.config.GameProperties;
+import com.example.dungeon.entity.BoardStats;
+import com.example.dungeon.entity.PlayerStats;
+import com.example.dungeon.repository.BoardStatsRepository;
+import com.example.dungeon.repository.LeaderboardEntry;
+import com.example.dungeon.repository.PlayerStatsRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-player and per-board aggregates of games (games played, best, worst
+ * and average minimum HP, last played), kept in {@code player_stats} and
+ * {@code board_stats} so that reading them never scans {@code games}.
+ *
+ * <p>Stats are kept off the plays' transactions, so plays of a popular
+ * board don't queue on its row lock. {@link #record(List)} folds a play's
+ * games into per-player and per-board deltas once its transaction commits,
+ * and a background thread applies what has accumulated every
+ * {@code stats-flush-interval}: one transaction of one upsert per distinct
+ * player and board, taken in id order so concurrent flushes lock rows in
+ * the same order. Stats lag the games by up to an interval; deltas not yet
+ * applied when the node dies are lost until the stats are rebuilt (a normal
+ * shutdown applies them). The write-behind committer, already batched and
+ * off the plays' path, applies its games with {@link #apply(List)} in the
+ * transaction that inserts them. A delta is only applied while its player
+ * or board exists, so one applied after the row was deleted with its
+ * entity doesn't bring the row back.
+ *
+ * <p>Rows are created with their player or board. On startup, before the
+ * node serves plays, {@link #rebuildStats()} replaces every row with an
+ * aggregate of its games, which recovers the deltas a node that died never
+ * applied and drops rows left without their player or board. With
+ * {@code stats-rebuild-on-start} off, only the missing rows (entities
+ * created before these tables existed) are inserted that way.
+ */
+@Service
+public class GameStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(GameStatsService.class);
+    private static final String COLUMNS = "games_played, best_min_hp, worst_min_hp, total_min_hp, last_played_at";
+    // Only for a player or board that still exists, so a delta applied after its row was deleted doesn't
+    // bring it back. PostgreSQL's least and greatest ignore nulls, so an empty row takes the delta's values
+    private static final String UPSERT = "insert into %1$s as s (%2$s, " + COLUMNS + ") select d.* from (values "
+            + "(cast(? as bigint), cast(? as bigint), cast(? as integer), cast(? as integer), cast(? as bigint), "
+            + "cast(? as timestamp))) d (id, " + COLUMNS + ") where exists (select 1 from %3$s e where e.id = d.id) "
+            + "on conflict (%2$s) do update set games_played = s.games_played + excluded.games_played, "
+            + "best_min_hp = least(s.best_min_hp, excluded.best_min_hp), "
+            + "worst_min_hp = greatest(s.worst_min_hp, excluded.worst_min_hp), "
+            + "total_min_hp = s.total_min_hp + excluded.total_min_hp, "
+            + "last_played_at = greatest(s.last_played_at, excluded.last_played_at)";
+    // Other databases (H2 in tests), which have no on conflict ... do update
+    private static final String MERGE = "merge into %1$s s using (select v.* from (values (cast(? as bigint), "
+            + "cast(? as bigint), cast(? as integer), cast(? as integer), cast(? as bigint), cast(? as timestamp))) "
+            + "v (id, " + COLUMNS + ") where exists (select 1 from %3$s e where e.id = v.id)) d on s.%2$s = d.id "
+            + "when matched then update set games_played = s.games_played + d.games_played, "
+            + "best_min_hp = case when s.best_min_hp is null or s.best_min_hp > d.best_min_hp then d.best_min_hp else s.best_min_hp end, "
+            + "worst_min_hp = case when s.worst_min_hp is null or s.worst_min_hp < d.worst_min_hp then d.worst_min_hp else s.worst_min_hp end, "
+            + "total_min_hp = s.total_min_hp + d.total_min_hp, "
+            + "last_played_at = case when s.last_played_at is null or s.last_played_at < d.last_played_at then d.last_played_at else s.last_played_at end "
+            + "when not matched then insert (%2$s, " + COLUMNS + ") values (d.id, d." + COLUMNS.replace(", ", ", d.") + ")";
+    private static final String INSERT_MISSING = "insert into %1$s (%2$s, " + COLUMNS + ") "
+            + "select e.id, count(g.id), min(g.result), max(g.result), coalesce(sum(g.result), 0), max(g.played_at) "
+            + "from %3$s e left join games g on g.%2$s = e.id "
+            + "where not exists (select 1 from %1$s s where s.%2$s = e.id) group by e.id";
+    private static final String CREATE = "insert into %1$s (%2$s, games_played, total_min_hp) values (?, 0, 0)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private GameProperties properties;
+
+    @Autowired
+    private PlayerStatsRepository playerStatsRepository;
+
+    @Autowired
+    private BoardStatsRepository boardStatsRepository;
+
+    // Not synchronized: record() runs on virtual threads, which a contended monitor would pin
+    private final ReentrantLock pendingLock = new ReentrantLock();
+    private Map<Long, Delta> pendingPlayers = new TreeMap<>();
+    private Map<Long, Delta> pendingBoards = new TreeMap<>();
+    private String upsertSql;
+    private Thread flusher;
+    private volatile boolean running;
+
+    // Rebuilds the rows, or inserts just the missing ones, then starts applying recorded games
+    @PostConstruct
+    public synchronized void start() {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        upsertSql = dialect instanceof PostgreSQLDialect ? UPSERT : MERGE;
+        if (properties.isStatsRebuildOnStart()) {
+            rebuildStats();
+        } else {
+            createMissingStats();
+        }
+        running = true;
+        flusher = Thread.ofPlatform().daemon().name("game-stats-flusher").start(this::flushLoop);
+    }
+
+    // Rows for the players and boards that have none, from their games
+    public void createMissingStats() {
+        int players = jdbcTemplate.update(INSERT_MISSING.formatted("player_stats", "player_id", "players"));
+        int boards = jdbcTemplate.update(INSERT_MISSING.formatted("board_stats", "board_id", "boards"));
+        if (players > 0 || boards > 0) {
+            log.info("Created the missing stats of {} players and {} boards from their games", players, boards);
+        }
+    }
+
+    // Every row replaced by an aggregate of its games, in one transaction: stats readers see the old rows until
+    // it commits. Games another node recorded but has yet to flush are counted here and again by its flush
+    public void rebuildStats() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("delete from player_stats");
+            int players = jdbcTemplate.update(INSERT_MISSING.formatted("player_stats", "player_id", "players"));
+            jdbcTemplate.update("delete from board_stats");
+            int boards = jdbcTemplate.update(INSERT_MISSING.formatted("board_stats", "board_id", "boards"));
+            log.info("Rebuilt the stats of {} players and {} boards from their games", players, boards);
+        });
+    }
+
+    // Applies what is still pending
+    @PreDestroy
+    public synchronized void stop() {
+        if (!running) return;
+        running = false;
+        flusher.interrupt();
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    public Optional<PlayerStats> playerStats(Long playerId) {
+        return playerStatsRepository.findById(playerId);
+    }
+
+    public Optional<BoardStats> boardStats(Long boardId) {
+        return boardStatsRepository.findById(boardId);
+    }
+
+    // The players with the most games played, at most limit of them
+    public List<LeaderboardEntry> leaderboard(int limit) {
+        return playerStatsRepository.findLeaderboard(PageRequest.of(0, limit));
+    }
+
+    public void createPlayerStats(Long playerId) {
+        jdbcTemplate.update(CREATE.formatted("player_stats", "player_id"), playerId);
+    }
+
+    public void createBoardStats(Long boardId) {
+        jdbcTemplate.update(CREATE.formatted("board_stats", "board_id"), boardId);
+    }
+
+    public void deletePlayerStats(Long playerId) {
+        jdbcTemplate.update("delete from player_stats where player_id = ?", playerId);
+    }
+
+    public void deleteBoardStats(Long boardId) {
+        jdbcTemplate.update("delete from board_stats where board_id = ?", boardId);
+    }
+
+    // Call in the transaction that inserted the games; they are applied once it commits, by a later flush
+    public void record(List<RecordedGame> games) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    fold(games);
+                }
+            });
+        } else {
+            fold(games);
+        }
+    }
+
+    // Applies the games now, in the caller's transaction if there is one
+    public void apply(List<RecordedGame> games) {
+        Map<Long, Delta> players = new TreeMap<>();
+        Map<Long, Delta> boards = new TreeMap<>();
+        for (RecordedGame game : games) {
+            players.computeIfAbsent(game.playerId(), id -> new Delta()).add(game);
+            boards.computeIfAbsent(game.boardId(), id -> new Delta()).add(game);
+        }
+        apply(players, boards);
+    }
+
+    // Applies the games recorded so far in one transaction; on failure they stay pending for the next flush
+    public void flush() {
+        Map<Long, Delta> players;
+        Map<Long, Delta> boards;
+        pendingLock.lock();
+        try {
+            players = pendingPlayers;
+            boards = pendingBoards;
+            pendingPlayers = new TreeMap<>();
+            pendingBoards = new TreeMap<>();
+        } finally {
+            pendingLock.unlock();
+        }
+        if (players.isEmpty() && boards.isEmpty()) return;
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(players, boards));
+        } catch (RuntimeException e) {
+            log.warn("Could not apply the stats of {} players and {} boards, retrying", players.size(), boards.size(), e);
+            pendingLock.lock();
+            try {
+                players.forEach((id, delta) -> pendingPlayers.merge(id, delta, Delta::add));
+                boards.forEach((id, delta) -> pendingBoards.merge(id, delta, Delta::add));
+            } finally {
+                pendingLock.unlock();
+            }
+        }
+    }
+
+    private void fold(List<RecordedGame> games) {
+        pendingLock.lock();
+        try {
+            for (RecordedGame game : games) {
+                pendingPlayers.computeIfAbsent(game.playerId(), id -> new Delta()).add(game);
+                pendingBoards.computeIfAbsent(game.boardId(), id -> new Delta()).add(game);
+            }
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (running) {
+            try {
+                Thread.sleep(properties.getStatsFlushInterval());
+            } catch (InterruptedException e) {
+                return;
+            }
+            flush();
+        }
+    }
+
+    // Players and boards are each keyed in id order
+    private void apply(Map<Long, Delta> players, Map<Long, Delta> boards) {
+        players.forEach((id, delta) -> upsert("player_stats", "player_id", "players", id, delta));
+        boards.forEach((id, delta) -> upsert("board_stats", "board_id", "boards", id, delta));
+    }
+
+    private void upsert(String table, String key, String entities, Long id, Delta delta) {
+        jdbcTemplate.update(upsertSql.formatted(table, key, entities), id, delta.count, delta.best, delta.worst,
+                delta.total, Timestamp.valueOf(delta.last));
+    }
+
+    public record RecordedGame(Long playerId, Long boardId, int result, LocalDateTime playedAt) {}
+
+    // Games of one player or board, folded together
+    private static final class Delta {
+        private long count;
+        private int best = Integer.MAX_VALUE;
+        private int worst = Integer.MIN_VALUE;
+        private long total;
+        private LocalDateTime last;
+
+        void add(RecordedGame game) {
+            count++;
+            best = Math.min(best, game.result());
+            worst = Math.max(worst, game.result());
+            total += game.result();
+            if (last == null || game.playedAt().isAfter(last)) {
+                last = game.playedAt();
+            }
+        }
+
+        Delta add(Delta other) {
+            count += other.count;
+            best = Math.min(best, other.best);
+            worst = Math.max(worst, other.worst);
+            total += other.total;
+            if (other.last.isAfter(last)) {
+                last = other.last;
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.dungeon.service;
+
+import com.example.dungeon.config.GameProperties;
+import com.example.dungeon.entity.JournalCheckpoint;
+import com.example.dungeon.repository.JournalCheckpointRepository;
+import com.example.dungeon.storage.GameJournal;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind persistence of games ({@code dungeon.games.write-behind}).
+ * A play is appended to the local {@link GameJournal} and acknowledged once
+ * the journal is durable; a background committer then inserts journaled
+ * games in multi-row INSERTs of up to {@code flush-size} rows, waiting at
+ * most {@code flush-latency} for a batch to fill, and updates the player and
+ * board statistics in the same transaction.
+ *
+ * <p>At most {@code pending-capacity} journaled games wait to be committed.
+ * A play first reserves room for its games, waiting up to
+ * {@code pending-timeout} for the committer to make some, and is turned
+ * away with a {@link RejectedExecutionException} before anything is
+ * journaled when it doesn't: a slow or unreachable database pushes back on
+ * plays instead of piling their games up on the heap.
+ *
+ * <p>Each batch advances this node's row in {@code journal_checkpoints} in
+ * the same transaction, so a restart replays exactly the games that were
+ * journaled but not committed. A batch rejected by a constraint (say, its
+ * board was deleted in the meantime) is retried row by row and the rejected
+ * games are dropped; any other failure is retried as a whole.
+ */
+@Service
+public class GameWriteBehindService {
+
+    private static final Logger log = LoggerFactory.getLogger(GameWriteBehindService.class);
+    private static final String INSERT = "insert into games (id, player_id, board_id, result, played_at) values ";
+    private static final long RETRY_DELAY_MS = 1000;
+    private static final int MAX_ROWS = 65_535 / 5; // PostgreSQL's bind parameter limit, five per row
+
+    @Autowired
+    private GameProperties properties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JournalCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private GameIdSequence gameIds;
+
+    @Autowired
+    private GameStatsService gameStatsService;
+
+    private final BlockingQueue<GameJournal.Entry> pending = new LinkedBlockingQueue<>(); // Bounded by room
+    private final List<GameJournal.Entry> batch = new ArrayList<>(); // Committer thread only, until it is joined
+    private final ReentrantLock appendLock = new ReentrantLock(); // Held across journal I/O, so not a monitor
+    private Semaphore room; // A permit per game that may still be journaled; given back as games commit
+    private long committedSequence; // Committer thread only (and stop(), once it is joined)
+    private GameJournal journal;
+    private Thread committer;
+    private volatile boolean running;
+
+    public boolean isEnabled() {
+        return properties.isWriteBehind();
+    }
+
+    // Opens the journal, queues what it holds beyond the checkpoint and starts the committer
+    @PostConstruct
+    public synchronized void start() {
+        if (!isEnabled() || running) return;
+        long committed = checkpointRepository.findById(properties.getJournalName())
+                .orElseGet(() -> checkpointRepository.save(new JournalCheckpoint(properties.getJournalName(), 0L)))
+                .getCommittedSequence();
+        committedSequence = committed;
+        journal = GameJournal.open(Path.of(properties.getJournalDirectory()), committed);
+        List<GameJournal.Entry> replay = journal.readAfter(committed);
+        if (!replay.isEmpty()) {
+            log.info("Replaying {} journaled games not yet in the database", replay.size());
+        }
+        pending.addAll(replay);
+        room = new Semaphore(properties.getPendingCapacity() - replay.size());
+        running = true;
+        committer = Thread.ofPlatform().name("game-journal-committer").start(this::commitLoop);
+    }
+
+    // Returns the game's journal sequence once it is durable
+    public long record(Long playerId, Long boardId, int result) {
+        reserve(1);
+        long sequence;
+        try {
+            sequence = append(playerId, boardId, result);
+        } catch (RuntimeException e) {
+            release(1);
+            throw e;
+        }
+        sync(sequence);
+        return sequence;
+    }
+
+    // Makes room for games about to be appended, all or none; RejectedExecutionException when there is
+    // still none after pending-timeout
+    public void reserve(int games) {
+        if (!running) {
+            throw new IllegalStateException("Game write-behind is not running");
+        }
+        try {
+            if (!room.tryAcquire(games, properties.getPendingTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new RejectedExecutionException("Too many games waiting to be stored");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting to journal games", e);
+        }
+    }
+
+    // Gives back room reserve() made for games that were never appended
+    public void release(int games) {
+        if (games > 0) {
+            room.release(games);
+        }
+    }
+
+    // Journals a game reserve() made room for, without waiting for it to be durable; sync(sequence)
+    // waits for it and every game before it. Games are queued in sequence order, so every batch ends
+    // with its highest sequence and the checkpoint only ever moves forward. A game that fails to be
+    // appended keeps its room, for the caller to release().
+    public long append(Long playerId, Long boardId, int result) {
+        if (!running) {
+            throw new IllegalStateException("Game write-behind is not running");
+        }
+        long playedAt = System.currentTimeMillis();
+        appendLock.lock();
+        try {
+            long sequence = journal.append(playerId, boardId, result, playedAt);
+            pending.add(new GameJournal.Entry(sequence, playerId, boardId, result, playedAt));
+            return sequence;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public void sync(long sequence) {
+        journal.sync(sequence);
+    }
+
+    // Commits what is pending on shutdown; anything left over is replayed on the next start
+    @PreDestroy
+    public synchronized void stop() {
+        if (!running) return;
+        running = false;
+        committer.interrupt();
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<GameJournal.Entry> rest = new ArrayList<>(batch);
+        pending.drainTo(rest);
+        try {
+            for (int from = 0; from < rest.size(); from += flushSize()) {
+                commit(rest.subList(from, Math.min(rest.size(), from + flushSize())));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Leaving {} journaled games for replay", rest.size(), e);
+        }
+        journal.close();
+    }
+
+    // An interrupted batch stays in the batch field for stop() to commit ahead of the queue
+    private void commitLoop() {
+        while (running) {
+            try {
+                if (batch.isEmpty()) {
+                    fill();
+                }
+                if (!batch.isEmpty()) {
+                    commit(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Could not commit {} journaled games, retrying", batch.size(), e);
+                try {
+                    Thread.sleep(RETRY_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Waits for a first game, then up to flush-latency for the batch to fill
+    private void fill() throws InterruptedException {
+        GameJournal.Entry first = pending.poll(1, TimeUnit.SECONDS);
+        if (first == null) return;
+        batch.add(first);
+        long deadline = System.nanoTime() + properties.getFlushLatency().toNanos();
+        while (batch.size() < flushSize()) {
+            pending.drainTo(batch, flushSize() - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= flushSize() || remaining <= 0) break;
+            GameJournal.Entry next = pending.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) break;
+            batch.add(next);
+        }
+    }
+
+    private int flushSize() {
+        return Math.max(1, Math.min(properties.getFlushSize(), MAX_ROWS));
+    }
+
+    // A batch retried after a failure part way through the row by row fallback skips the games that
+    // fallback already committed, so none is inserted twice
+    private void commit(List<GameJournal.Entry> entries) {
+        long last = entries.get(entries.size() - 1).sequence();
+        List<GameJournal.Entry> uncommitted = entries.stream()
+                .filter(entry -> entry.sequence() > committedSequence)
+                .toList();
+        if (!uncommitted.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    insert(uncommitted);
+                    recordStats(uncommitted);
+                    checkpoint(last);
+                });
+            } catch (DataIntegrityViolationException e) {
+                for (GameJournal.Entry entry : uncommitted) {
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> {
+                            insert(List.of(entry));
+                            recordStats(List.of(entry));
+                            checkpoint(entry.sequence());
+                        });
+                    } catch (DataIntegrityViolationException rejected) {
+                        log.warn("Dropping journaled game {} rejected by the database", entry.sequence(), rejected);
+                        transactionTemplate.executeWithoutResult(status -> checkpoint(entry.sequence()));
+                    }
+                    committedSequence = entry.sequence();
+                }
+            }
+            committedSequence = last;
+        }
+        journal.release(last);
+        room.release(entries.size());
+    }
+
+    private void insert(List<GameJournal.Entry> entries) {
+        StringBuilder sql = new StringBuilder(INSERT.length() + entries.size() * 19).append(INSERT);
+        Object[] args = new Object[entries.size() * 5];
+        for (int k = 0; k < entries.size(); k++) {
+            GameJournal.Entry entry = entries.get(k);
+            sql.append(k == 0 ? "(?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?)");
+            args[5 * k] = gameIds.next();
+            args[5 * k + 1] = entry.playerId();
+            args[5 * k + 2] = entry.boardId();
+            args[5 * k + 3] = entry.result();
+            args[5 * k + 4] = new Timestamp(entry.playedAtMillis());
+        }
+        jdbcTemplate.update(sql.toString(), args);
+    }
+
+    private void recordStats(List<GameJournal.Entry> entries) {
+        gameStatsService.apply(entries.stream()
+                .map(entry -> new GameStatsService.RecordedGame(entry.playerId(), entry.boardId(), entry.result(),
+                        new Timestamp(entry.playedAtMillis()).toLocalDateTime()))
+                .toList());
+    }
+
+    private void checkpoint(long sequence) {
+        jdbcTemplate.update("update journal_checkpoints set committed_sequence = ? where name = ?",
+                sequence, properties.getJournalName());
+    }
+}
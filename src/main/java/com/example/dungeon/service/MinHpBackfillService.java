@@ -0,0 +1,81 @@
+package com.example.dungeon.service;
+
+import com.example.dungeon.config.SolverProperties;
+import com.example.dungeon.entity.Board;
+import com.example.dungeon.repository.BoardRepository;
+import com.example.dungeon.solver.SolveProgress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Solves and stores the minimum HP of boards written before it was
+ * precomputed, or by an older {@link DungeonService#SOLVER_VERSION}, in
+ * batches on a background thread. Boards that fail to solve are logged and
+ * skipped; playing them solves and stores the result on first use.
+ *
+ * <p>A batch is read, then solved outside any transaction, and each result
+ * is stored through {@link BoardStampService}, so a board rewritten while
+ * its batch was being solved keeps the stamp of its write.
+ */
+@Service
+public class MinHpBackfillService implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(MinHpBackfillService.class);
+
+    @Autowired
+    private BoardRepository boardRepository;
+
+    @Autowired
+    private DungeonService dungeonService;
+
+    @Autowired
+    private BoardStampService boardStampService;
+
+    @Autowired
+    private SolverProperties properties;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (properties.isBackfillMinHp()) {
+            Thread.ofPlatform().daemon().name("board-min-hp-backfill").start(this::backfillAll);
+        }
+    }
+
+    public int backfillAll() {
+        int backfilled = 0;
+        long afterId = 0;
+        while (true) {
+            List<Long> ids = boardRepository.findIdsWithoutMinHpAfter(afterId, DungeonService.SOLVER_VERSION,
+                    PageRequest.of(0, properties.getBackfillBatchSize()));
+            if (ids.isEmpty()) break;
+            backfilled += backfillBatch(ids);
+            afterId = ids.get(ids.size() - 1);
+        }
+        if (backfilled > 0) {
+            log.info("Stored the minimum HP of {} boards", backfilled);
+        }
+        return backfilled;
+    }
+
+    private int backfillBatch(List<Long> ids) {
+        int solved = 0;
+        for (Board board : boardRepository.findAllById(ids)) {
+            try {
+                if (boardStampService.store(board.getId(), board.getContentHash(),
+                        dungeonService.stamp(board, SolveProgress.NONE))) {
+                    solved++;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Skipping board {} that could not be solved", board.getId(), e);
+            }
+        }
+        return solved;
+    }
+}
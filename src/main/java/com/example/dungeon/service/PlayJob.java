@@ -0,0 +1,157 @@
+package com.example.dungeon.service;
+
+import com.example.dungeon.solver.SolveProgress;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * A play run in the background by {@link PlayJobService}. It is its own
+ * {@link SolveProgress}: rows solved are recorded as they come, and
+ * listeners hear of them at most every progress interval. Listeners are
+ * told of the outcome exactly once, however late they start listening.
+ */
+public class PlayJob implements SolveProgress {
+
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED, CANCELLED;
+
+        public boolean isFinished() {
+            return this == DONE || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    private final String id;
+    private final Long playerId;
+    private final Long boardId;
+    private final long progressIntervalNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<Consumer<PlayJob>> listeners = new ArrayList<>(); // Under lock
+    private volatile Status status = Status.QUEUED;
+    private volatile int rowsSolved;
+    private volatile int totalRows;
+    private volatile PlayService.PlayedGame result;
+    private volatile String error;
+    private volatile boolean cancelled;
+    private volatile Future<?> future;
+    private long lastProgress; // Job thread only
+
+    PlayJob(String id, Long playerId, Long boardId, long progressIntervalNanos) {
+        this.id = id;
+        this.playerId = playerId;
+        this.boardId = boardId;
+        this.progressIntervalNanos = progressIntervalNanos;
+    }
+
+    public String getId() { return id; }
+    public Long getPlayerId() { return playerId; }
+    public Long getBoardId() { return boardId; }
+    public Status getStatus() { return status; }
+    public int getRowsSolved() { return rowsSolved; }
+    public int getTotalRows() { return totalRows; }
+    public PlayService.PlayedGame getResult() { return result; }
+    public String getError() { return error; }
+
+    @Override
+    public void rowsSolved(int rows, int total) {
+        rowsSolved = rows;
+        totalRows = total;
+        long now = System.nanoTime();
+        if (rows == 0 || rows == total || now - lastProgress >= progressIntervalNanos) {
+            lastProgress = now;
+            notifyListeners();
+        }
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    // Listens to progress and the outcome; a finished job tells the listener at once
+    public void listen(Consumer<PlayJob> listener) {
+        lock.lock();
+        try {
+            if (!status.isFinished()) {
+                listeners.add(listener);
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        listener.accept(this);
+    }
+
+    public void unlisten(Consumer<PlayJob> listener) {
+        lock.lock();
+        try {
+            listeners.remove(listener);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    // A queued job is cancelled at once, a running one at its next row
+    void cancel() {
+        boolean queued;
+        lock.lock();
+        try {
+            cancelled = true;
+            queued = status == Status.QUEUED;
+        } finally {
+            lock.unlock();
+        }
+        if (queued) {
+            Future<?> task = future;
+            if (task != null) task.cancel(false);
+            finish(Status.CANCELLED, null, "Cancelled");
+        }
+    }
+
+    // False when the job was cancelled before it started
+    boolean start() {
+        lock.lock();
+        try {
+            if (status != Status.QUEUED || cancelled) return false;
+            status = Status.RUNNING;
+        } finally {
+            lock.unlock();
+        }
+        notifyListeners();
+        return true;
+    }
+
+    void finish(Status outcome, PlayService.PlayedGame game, String message) {
+        List<Consumer<PlayJob>> notified;
+        lock.lock();
+        try {
+            if (status.isFinished()) return;
+            result = game;
+            error = message;
+            status = outcome;
+            notified = new ArrayList<>(listeners);
+            listeners.clear();
+        } finally {
+            lock.unlock();
+        }
+        notified.forEach(listener -> listener.accept(this));
+    }
+
+    private void notifyListeners() {
+        List<Consumer<PlayJob>> notified;
+        lock.lock();
+        try {
+            notified = new ArrayList<>(listeners);
+        } finally {
+            lock.unlock();
+        }
+        notified.forEach(listener -> listener.accept(this));
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.dungeon.service;
+
+import com.example.dungeon.config.JobProperties;
+import com.example.dungeon.repository.BoardRepository;
+import com.example.dungeon.repository.PlayerRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays run in the background, for boards too large to solve within a
+ * request. Jobs run on their own bounded pool of {@code dungeon.jobs.threads}
+ * platform threads with a queue of {@code queue-capacity}; a job submitted
+ * to a full queue is refused rather than left to wait indefinitely.
+ *
+ * <p>Jobs are kept in memory. Once {@code max-jobs} jobs are unfinished,
+ * queued or running, a new one is refused as well. Only finished jobs are
+ * ever dropped: {@code expiry} after they finished, or sooner, oldest
+ * first, once more than {@code max-jobs} of them are kept. So a job that
+ * was accepted can be read at its Location until it finishes. Cancelling a
+ * queued job removes it from the queue; a running one stops at its next
+ * solved row and records no game.
+ *
+ * <p>A running job holds no transaction or connection while it solves (or
+ * waits for another play's solve of the same board). Its game is inserted
+ * by a short transaction once the minimum HP is known, and only if the job
+ * was not cancelled by then; see {@link PlayService}.
+ */
+@Service
+public class PlayJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(PlayJobService.class);
+
+    @Autowired
+    private PlayService playService;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private BoardRepository boardRepository;
+
+    private final JobProperties properties;
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, PlayJob> jobs;
+    private final Semaphore unfinished; // A permit per job not yet finished
+
+    public PlayJobService(JobProperties properties) {
+        this.properties = properties;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(properties.getQueueCapacity(), 1)),
+                task -> Thread.ofPlatform().name("play-job-" + threads.incrementAndGet()).daemon().unstarted(task));
+        this.unfinished = new Semaphore(Math.max(properties.getMaxJobs(), 1));
+        // Unfinished jobs weigh nothing, so only finished ones are ever evicted to make room;
+        // a job is weighed again when it finishes, as it is put back to start its expiry
+        this.jobs = Caffeine.newBuilder()
+                .maximumWeight(Math.max(properties.getMaxJobs(), 1))
+                .weigher((String id, PlayJob job) -> job.getStatus().isFinished() ? 1 : 0)
+                .expireAfter(new FinishedJobExpiry(properties.getExpiry().toNanos()))
+                .build();
+    }
+
+    // Throws RejectedExecutionException when max-jobs jobs are unfinished or the queue is full
+    public PlayJob submit(Long playerId, Long boardId) {
+        if (!unfinished.tryAcquire()) {
+            throw new RejectedExecutionException("Too many unfinished play jobs");
+        }
+        PlayJob job = new PlayJob(UUID.randomUUID().toString(), playerId, boardId,
+                properties.getProgressInterval().toNanos());
+        job.listen(update -> {
+            if (update.getStatus().isFinished()) unfinished.release();
+        });
+        jobs.put(job.getId(), job);
+        try {
+            job.setFuture(executor.submit(() -> run(job)));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.getId());
+            unfinished.release();
+            throw e;
+        }
+        return job;
+    }
+
+    public Optional<PlayJob> find(String jobId) {
+        return Optional.ofNullable(jobs.getIfPresent(jobId));
+    }
+
+    // Empty when there is no such job; a finished job is left as it is
+    public Optional<PlayJob> cancel(String jobId) {
+        Optional<PlayJob> job = find(jobId);
+        job.ifPresent(found -> {
+            found.cancel();
+            if (found.getStatus().isFinished()) {
+                // Frees the queue slot of a job cancelled before it started, and starts its expiry
+                executor.purge();
+                jobs.asMap().replace(found.getId(), found, found);
+            }
+        });
+        return job;
+    }
+
+    private void run(PlayJob job) {
+        if (!job.start()) return;
+        try {
+            Optional<PlayService.PlayedGame> game = playService.play(job.getPlayerId(), job.getBoardId(), job);
+            if (game.isPresent()) {
+                job.finish(PlayJob.Status.DONE, game.get(), null);
+            } else {
+                job.finish(PlayJob.Status.FAILED, null,
+                        playerRepository.existsById(job.getPlayerId()) ? "Board not found" : "Player not found");
+            }
+        } catch (CancellationException e) {
+            job.finish(PlayJob.Status.CANCELLED, null, "Cancelled");
+        } catch (RuntimeException e) {
+            log.warn("Play job {} failed", job.getId(), e);
+            job.finish(PlayJob.Status.FAILED, null, "Board could not be solved");
+        } finally {
+            // Starts the finished job's expiry
+            jobs.asMap().replace(job.getId(), job, job);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.asMap().values().forEach(PlayJob::cancel);
+        executor.shutdownNow();
+    }
+
+    // Unfinished jobs never expire; finished ones expire a fixed time after they finished
+    private record FinishedJobExpiry(long expiryNanos) implements Expiry<String, PlayJob> {
+
+        @Override
+        public long expireAfterCreate(String id, PlayJob job, long currentTime) {
+            return job.getStatus().isFinished() ? expiryNanos : Long.MAX_VALUE;
+        }
+
+        @Override
+        public long expireAfterUpdate(String id, PlayJob job, long currentTime, long currentDuration) {
+            return job.getStatus().isFinished() ? expiryNanos : Long.MAX_VALUE;
+        }
+
+        @Override
+        public long expireAfterRead(String id, PlayJob job, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.example.dungeon.service;
+
+import com.example.dungeon.entity.Board;
+import com.example.dungeon.entity.Game;
+import com.example.dungeon.metrics.DungeonMetrics;
+import com.example.dungeon.repository.BoardPlayInfo;
+import com.example.dungeon.repository.BoardRepository;
+import com.example.dungeon.repository.GameRepository;
+import com.example.dungeon.repository.PlayContext;
+import com.example.dungeon.repository.PlayerName;
+import com.example.dungeon.repository.PlayerRepository;
+import com.example.dungeon.solver.SolveProgress;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Records a play with two statements: a projection of the player and
+ * board columns the result needs, and the game INSERT. The game links its
+ * player and board through references, so neither entity (nor the board's
+ * grid) is loaded. Only a board without a current minimum HP is loaded,
+ * solved and stamped first, one statement each. Player and board
+ * statistics add none: they are applied once the play commits, in batches
+ * off the play's transaction ({@link GameStatsService}); with write-behind,
+ * in the committer's transaction. With write-behind enabled the INSERT is
+ * replaced by an append to the local journal, and the game has no id yet;
+ * when too many journaled games are waiting to be stored the play is
+ * turned away with a {@link java.util.concurrent.RejectedExecutionException}.
+ * A batch whose journal append fails part way keeps the games journaled
+ * before the failure, which are stored as usual, and reports the rest as
+ * failed; the room reserved for those is given back.
+ *
+ * <p>Two statements per play is the final design, not a step towards one.
+ * Folding the lookup into the INSERT ({@code insert ... select} returning
+ * the names) would need the minimum HP to already be stamped, but whether
+ * it is, and so whether the board must be solved first with no transaction
+ * open, is what the lookup finds out. Returning the player and board names
+ * from the INSERT would take a data-modifying CTE, which only PostgreSQL
+ * has. And with write-behind there is no INSERT to fold into, only the
+ * journal append. The lookup is a primary-key read of one player and one
+ * board row.
+ *
+ * <p>No transaction, and so no connection, is held while a board is solved
+ * or while a play waits for another's solve. The lookup and the board load
+ * are queries of their own, the solve's stamp is a single UPDATE stored as
+ * soon as the solve finishes, and the games are inserted by a short
+ * transaction once the minimum HP is known.
+ *
+ * <p>A batch of plays reads all its players and boards with one {@code IN}
+ * query each, solves the distinct boards without a current minimum HP in
+ * parallel, and inserts its games in JDBC batches (game ids come from a
+ * pooled sequence, so Hibernate can batch the INSERTs).
+ *
+ * <p>Concurrent plays of the same unsolved board share one solve: the
+ * first loads, solves and stamps the board, and the others wait for its
+ * result ({@link SingleFlight}, keyed by board and solver version). Board
+ * writes stamp the minimum HP in the same transaction, so a play only gets
+ * here when the board it read had no current stamp. The solve's stamp is
+ * stored only if the board still has the content hash its grid was read
+ * with ({@link BoardStampService}): a write that commits during the solve
+ * keeps its own stamp, and the games of the plays sharing the solve record
+ * the board as they read it.
+ *
+ * <p>Both time their lookup, solve and insert phases in
+ * {@link DungeonMetrics#PLAY_PHASE}.
+ */
+@Service
+public class PlayService {
+
+    private static final Logger log = LoggerFactory.getLogger(PlayService.class);
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private BoardRepository boardRepository;
+
+    @Autowired
+    private DungeonService dungeonService;
+
+    @Autowired
+    private GameWriteBehindService writeBehind;
+
+    @Autowired
+    private GameStatsService gameStatsService;
+
+    @Autowired
+    private BoardStampService boardStampService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final SingleFlight<SolveKey, Integer> solves = new SingleFlight<>(DungeonMetrics::solveWaiting);
+
+    // Empty when the player or the board does not exist
+    public Optional<PlayedGame> play(Long playerId, Long boardId) {
+        return play(playerId, boardId, SolveProgress.NONE);
+    }
+
+    // Reports the solve row by row when this play leads it; a cancelled play records no game
+    public Optional<PlayedGame> play(Long playerId, Long boardId, SolveProgress progress) {
+        Optional<PlayContext> context = DungeonMetrics.LOOKUP.record(
+                () -> gameRepository.findPlayContext(playerId, boardId));
+        if (context.isEmpty()) {
+            return Optional.empty();
+        }
+        Integer minHealth = context.get().minHpFor(DungeonService.SOLVER_VERSION);
+        if (minHealth == null) {
+            minHealth = DungeonMetrics.SOLVE.record(() -> solves.execute(new SolveKey(boardId), () -> solve(boardId, progress)));
+            if (minHealth == null) {
+                return Optional.empty();
+            }
+        }
+        if (progress.isCancelled()) {
+            throw new CancellationException("Play cancelled");
+        }
+        Timer.Sample insert = Timer.start();
+        if (writeBehind.isEnabled()) {
+            writeBehind.record(playerId, boardId, minHealth);
+            insert.stop(DungeonMetrics.INSERT);
+            return Optional.of(new PlayedGame(null, context.get().playerName(), context.get().boardName(), minHealth));
+        }
+        int result = minHealth;
+        Game savedGame = transactionTemplate.execute(status -> {
+            Game game = gameRepository.saveAndFlush(new Game(playerRepository.getReferenceById(playerId),
+                    boardRepository.getReferenceById(boardId), result));
+            gameStatsService.record(List.of(
+                    new GameStatsService.RecordedGame(playerId, boardId, result, game.getPlayedAt())));
+            return game;
+        });
+        insert.stop(DungeonMetrics.INSERT);
+        return Optional.of(new PlayedGame(savedGame.getId(), context.get().playerName(),
+                context.get().boardName(), minHealth));
+    }
+
+    // One outcome per request, in request order; a failed play doesn't fail the others
+    public List<PlayOutcome> playAll(List<PlayRequest> requests) {
+        Timer.Sample lookup = Timer.start();
+        Set<Long> playerIds = new HashSet<>();
+        Set<Long> boardIds = new HashSet<>();
+        for (PlayRequest request : requests) {
+            if (request.playerId() != null) playerIds.add(request.playerId());
+            if (request.boardId() != null) boardIds.add(request.boardId());
+        }
+        Map<Long, String> playerNames = new HashMap<>();
+        if (!playerIds.isEmpty()) {
+            for (PlayerName player : playerRepository.findNamesByIdIn(playerIds)) {
+                playerNames.put(player.id(), player.name());
+            }
+        }
+        Map<Long, BoardPlayInfo> boards = new HashMap<>();
+        if (!boardIds.isEmpty()) {
+            for (BoardPlayInfo board : boardRepository.findPlayInfoByIdIn(boardIds)) {
+                boards.put(board.id(), board);
+            }
+        }
+        lookup.stop(DungeonMetrics.LOOKUP);
+
+        // Only boards some valid play needs are solved, each once however often it is played
+        Map<Long, Integer> minHealth = new HashMap<>();
+        Set<Long> unsolved = new HashSet<>();
+        for (PlayRequest request : requests) {
+            BoardPlayInfo board = boards.get(request.boardId());
+            if (board == null || !playerNames.containsKey(request.playerId())) continue;
+            Integer stored = board.minHpFor(DungeonService.SOLVER_VERSION);
+            if (stored != null) {
+                minHealth.put(board.id(), stored);
+            } else {
+                unsolved.add(board.id());
+            }
+        }
+        if (!unsolved.isEmpty()) {
+            Map<SolveKey, Integer> solved = DungeonMetrics.SOLVE.record(() -> solves.executeAll(
+                    unsolved.stream().map(SolveKey::new).toList(), this::solveAll));
+            solved.forEach((key, result) -> minHealth.put(key.boardId(), result));
+        }
+
+        Timer.Sample insert = Timer.start();
+        PlayOutcome[] outcomes = new PlayOutcome[requests.size()];
+        List<Integer> gameIndexes = new ArrayList<>();
+        List<Integer> journaledIndexes = new ArrayList<>();
+        for (int k = 0; k < requests.size(); k++) {
+            PlayRequest request = requests.get(k);
+            String playerName = playerNames.get(request.playerId());
+            BoardPlayInfo board = boards.get(request.boardId());
+            Integer result = board == null ? null : minHealth.get(board.id());
+            if (playerName == null) {
+                outcomes[k] = PlayOutcome.failed("Player not found");
+            } else if (board == null) {
+                outcomes[k] = PlayOutcome.failed("Board not found");
+            } else if (result == null) {
+                outcomes[k] = PlayOutcome.failed("Board could not be solved");
+            } else if (writeBehind.isEnabled()) {
+                journaledIndexes.add(k);
+            } else {
+                gameIndexes.add(k);
+            }
+        }
+        if (!journaledIndexes.isEmpty()) {
+            // Room for the whole batch first, so a rejected batch has journaled none of its games
+            writeBehind.reserve(journaledIndexes.size());
+            int appended = 0;
+            long lastSequence = 0;
+            try {
+                for (int k : journaledIndexes) {
+                    PlayRequest request = requests.get(k);
+                    BoardPlayInfo board = boards.get(request.boardId());
+                    int result = minHealth.get(board.id());
+                    lastSequence = writeBehind.append(request.playerId(), board.id(), result);
+                    appended++;
+                    outcomes[k] = PlayOutcome.played(new PlayedGame(null, playerNames.get(request.playerId()), board.name(), result));
+                }
+            } catch (RuntimeException e) {
+                // The games journaled so far stay played and will be stored; the others are reported as failed
+                log.warn("Could not journal {} of {} games", journaledIndexes.size() - appended, journaledIndexes.size(), e);
+                for (int k : journaledIndexes.subList(appended, journaledIndexes.size())) {
+                    outcomes[k] = PlayOutcome.failed("Game could not be stored");
+                }
+            } finally {
+                writeBehind.release(journaledIndexes.size() - appended);
+            }
+            if (appended > 0) {
+                writeBehind.sync(lastSequence);
+            }
+        }
+        List<Game> saved = gameIndexes.isEmpty() ? List.of() : transactionTemplate.execute(status -> {
+            List<Game> games = new ArrayList<>(gameIndexes.size());
+            for (int k : gameIndexes) {
+                PlayRequest request = requests.get(k);
+                games.add(new Game(playerRepository.getReferenceById(request.playerId()),
+                        boardRepository.getReferenceById(request.boardId()), minHealth.get(request.boardId())));
+            }
+            List<Game> inserted = gameRepository.saveAllAndFlush(games);
+            List<GameStatsService.RecordedGame> recorded = new ArrayList<>(inserted.size());
+            for (int g = 0; g < inserted.size(); g++) {
+                PlayRequest request = requests.get(gameIndexes.get(g));
+                recorded.add(new GameStatsService.RecordedGame(request.playerId(), request.boardId(),
+                        inserted.get(g).getResult(), inserted.get(g).getPlayedAt()));
+            }
+            gameStatsService.record(recorded);
+            return inserted;
+        });
+        insert.stop(DungeonMetrics.INSERT);
+        for (int g = 0; g < saved.size(); g++) {
+            int k = gameIndexes.get(g);
+            BoardPlayInfo board = boards.get(requests.get(k).boardId());
+            outcomes[k] = PlayOutcome.played(new PlayedGame(saved.get(g).getId(),
+                    playerNames.get(requests.get(k).playerId()), board.name(), saved.get(g).getResult()));
+        }
+        return Arrays.asList(outcomes);
+    }
+
+    // Loads, solves and stamps the board; null when it was deleted since the play looked it up
+    private Integer solve(Long boardId, SolveProgress progress) {
+        Optional<Board> board = boardRepository.findById(boardId);
+        if (board.isEmpty()) {
+            return null;
+        }
+        DungeonService.Stamp stamp = dungeonService.stamp(board.get(), progress);
+        boardStampService.store(boardId, board.get().getContentHash(), stamp);
+        return stamp.minHp();
+    }
+
+    // Solves and stamps the boards in parallel; a board that could not be solved is left out
+    private Map<SolveKey, Integer> solveAll(List<SolveKey> keys) {
+        List<Board> boards = boardRepository.findAllById(keys.stream().map(SolveKey::boardId).toList());
+        Map<Long, DungeonService.Stamp> stamps = dungeonService.stampAll(boards);
+        Map<SolveKey, Integer> results = new HashMap<>();
+        for (Board board : boards) {
+            DungeonService.Stamp stamp = stamps.get(board.getId());
+            if (stamp == null) continue;
+            boardStampService.store(board.getId(), board.getContentHash(), stamp);
+            results.put(new SolveKey(board.getId()), stamp.minHp());
+        }
+        return results;
+    }
+
+    // A solve of a board under the current solver version
+    private record SolveKey(Long boardId, int solverVersion) {
+        SolveKey(Long boardId) {
+            this(boardId, DungeonService.SOLVER_VERSION);
+        }
+    }
+
+    public record PlayRequest(Long playerId, Long boardId) {}
+
+    // Either the played game or, when the play failed, why
+    public record PlayOutcome(PlayedGame game, String error) {
+        public static PlayOutcome played(PlayedGame game) {
+            return new PlayOutcome(game, null);
+        }
+
+        public static PlayOutcome failed(String error) {
+            return new PlayOutcome(null, error);
+        }
+    }
+
+    public record PlayedGame(Long gameId, String playerName, String boardName, int minimumHealth) {}
+}
@@ -0,0 +1,123 @@
+package com.example.dungeon.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key: the first caller runs the
+ * call, and callers arriving while it runs wait for its result (or its
+ * exception) instead of running their own. Nothing is kept once the call
+ * completes, so a later caller always runs a fresh one. A call that was
+ * cancelled (a {@link CancellationException}) is the leader's own business:
+ * its followers run the call again instead.
+ *
+ * <p>A leader completes every flight it leads before it waits on anyone
+ * else's, so callers leading and following different keys can't deadlock.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+    private final Listener listener;
+
+    public SingleFlight() {
+        this(Listener.NONE);
+    }
+
+    public SingleFlight(Listener listener) {
+        this.listener = listener;
+    }
+
+    public V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing;
+        while ((existing = flights.putIfAbsent(key, flight)) != null) {
+            try {
+                return await(existing);
+            } catch (CancellationException e) {
+                // Take over the call
+            }
+        }
+        try {
+            V value = call.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    // Runs call once for the keys no one else is running, then waits for the rest; the call's map
+    // may leave out keys it has no value for, which then map to null for their followers too
+    public Map<K, V> executeAll(Collection<K> keys, Function<List<K>, Map<K, V>> call) {
+        Map<K, CompletableFuture<V>> led = new HashMap<>();
+        Map<K, CompletableFuture<V>> followed = new HashMap<>();
+        for (K key : keys) {
+            if (led.containsKey(key) || followed.containsKey(key)) continue;
+            CompletableFuture<V> flight = new CompletableFuture<>();
+            CompletableFuture<V> existing = flights.putIfAbsent(key, flight);
+            if (existing == null) {
+                led.put(key, flight);
+            } else {
+                followed.put(key, existing);
+            }
+        }
+        Map<K, V> values = new HashMap<>();
+        if (!led.isEmpty()) {
+            try {
+                Map<K, V> computed = call.apply(new ArrayList<>(led.keySet()));
+                led.forEach((key, flight) -> {
+                    V value = computed.get(key);
+                    flight.complete(value);
+                    if (value != null) values.put(key, value);
+                });
+            } catch (RuntimeException | Error e) {
+                led.values().forEach(flight -> flight.completeExceptionally(e));
+                throw e;
+            } finally {
+                led.forEach(flights::remove);
+            }
+        }
+        followed.forEach((key, flight) -> {
+            V value;
+            try {
+                value = await(flight);
+            } catch (CancellationException e) {
+                value = execute(key, () -> call.apply(List.of(key)).get(key));
+            }
+            if (value != null) values.put(key, value);
+        });
+        return values;
+    }
+
+    private V await(CompletableFuture<V> flight) {
+        listener.waiting(1);
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        } finally {
+            listener.waiting(-1);
+        }
+    }
+
+    // Told when a caller starts (+1) or stops (-1) waiting for another's call
+    public interface Listener {
+        Listener NONE = delta -> {};
+
+        void waiting(int delta);
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.dungeon.solver;
+
+/**
+ * The whole bottom-up DP of a board: the least HP needed on entering each
+ * cell to reach the princess, row-major like {@link Grid}. The minimum HP
+ * is the top-left entry, and any other entry answers the same question for
+ * a knight starting at that cell.
+ *
+ * <p>Entries are at least 1 and mostly small, so each is stored less one at
+ * the narrowest fixed width that holds them all, 1, 2 or 4 bytes like
+ * {@link com.example.dungeon.storage.BoardCodec} cells, and still read in
+ * O(1). A write that doesn't fit widens the whole table once; the entries
+ * are swapped in one volatile write, so a concurrent reader sees either
+ * width whole.
+ *
+ * <p>A cell's entry depends only on the cells below and to the right of it,
+ * so after edits only the entries above and to the left of the lowest and
+ * rightmost edit can change. {@link #update} re-solves just that region,
+ * bottom-up, and stops early once a row above every edit comes out
+ * unchanged: nothing above it can change either. It changes the table in
+ * place, so a table others may still be reading is {@link #copy copied}
+ * first and the copy updated.
+ */
+public final class DpTable {
+
+    private final int rows;
+    private final int cols;
+    private volatile Entries entries;
+
+    private DpTable(int rows, int cols) {
+        this(rows, cols, new ByteEntries(new byte[rows * cols]));
+    }
+
+    private DpTable(int rows, int cols, Entries entries) {
+        this.rows = rows;
+        this.cols = cols;
+        this.entries = entries;
+    }
+
+    // Solves the board row by row, so a mapped board is never loaded whole
+    public static DpTable solve(RowSource source) {
+        int m = source.rows();
+        int n = source.cols();
+        if (m == 0 || n == 0) {
+            throw new IllegalArgumentException("Board must not be empty");
+        }
+        if ((long) m * n > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Board of " + m + "x" + n + " is too large for a table");
+        }
+        DpTable table = new DpTable(m, n);
+        int[] row = new int[n];
+        for (int i = m - 1; i >= 0; i--) {
+            source.readRow(i, 0, n, row);
+            table.solveRow(i, row, 0, n - 1);
+        }
+        return table;
+    }
+
+    // An independent table with the same entries, at the same width
+    public DpTable copy() {
+        return new DpTable(rows, cols, entries.copy());
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public int cellCount() {
+        return rows * cols;
+    }
+
+    public long sizeInBytes() {
+        return (long) cellCount() * entries.width();
+    }
+
+    public int minHp() {
+        return entries.get(0);
+    }
+
+    // The least HP needed on entering (row, col)
+    public int at(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            throw new IndexOutOfBoundsException("Cell (" + row + ", " + col + ") is outside the " + rows + "x" + cols + " table");
+        }
+        return entries.get(row * cols + col);
+    }
+
+    // Re-solves the entries the edited cells of grid affect, given the topmost and lowest edited rows and the
+    // rightmost edited column; returns how many entries were re-solved
+    public long update(Grid grid, int top, int bottom, int right) {
+        if (grid.rows() != rows || grid.cols() != cols) {
+            throw new IllegalArgumentException("Grid of " + grid.rows() + "x" + grid.cols()
+                    + " doesn't match a table of " + rows + "x" + cols);
+        }
+        int[] cells = grid.cells();
+        long solved = 0;
+        for (int i = bottom; i >= 0; i--) {
+            boolean changed = solveRow(i, cells, i * cols, right);
+            solved += right + 1;
+            if (!changed && i <= top) break;
+        }
+        return solved;
+    }
+
+    // Re-solves entries [0, right] of row i, whose cells start at offset; true when any of them changed
+    private boolean solveRow(int i, int[] cells, int offset, int right) {
+        Entries e = entries;
+        boolean changed = false;
+        int base = i * cols;
+        for (int j = right; j >= 0; j--) {
+            int below = i == rows - 1 ? (j == cols - 1 ? 1 : Integer.MAX_VALUE) : e.get(base + cols + j);
+            int next = j == cols - 1 ? (i == rows - 1 ? 1 : Integer.MAX_VALUE) : e.get(base + j + 1);
+            int value = Math.max(1, Math.min(below, next) - cells[offset + j]);
+            if (value != e.get(base + j)) {
+                if (!e.fits(value)) {
+                    e = e.widen(value);
+                    entries = e;
+                }
+                e.set(base + j, value);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    // Entries stored less one
+    private abstract static class Entries {
+        abstract int width();
+
+        abstract int size();
+
+        abstract int get(int k);
+
+        abstract void set(int k, int value);
+
+        abstract boolean fits(int value);
+
+        abstract Entries copy();
+
+        // A copy wide enough for value as well
+        Entries widen(int value) {
+            int size = size();
+            Entries wider = value - 1 <= 0xFFFF ? new CharEntries(new char[size]) : new IntEntries(new int[size]);
+            for (int k = 0; k < size; k++) {
+                wider.set(k, get(k));
+            }
+            return wider;
+        }
+    }
+
+    private static final class ByteEntries extends Entries {
+        private final byte[] values;
+
+        ByteEntries(byte[] values) {
+            this.values = values;
+        }
+
+        int width() { return 1; }
+        int size() { return values.length; }
+        int get(int k) { return (values[k] & 0xFF) + 1; }
+        void set(int k, int value) { values[k] = (byte) (value - 1); }
+        boolean fits(int value) { return value - 1 <= 0xFF; }
+        Entries copy() { return new ByteEntries(values.clone()); }
+    }
+
+    private static final class CharEntries extends Entries {
+        private final char[] values;
+
+        CharEntries(char[] values) {
+            this.values = values;
+        }
+
+        int width() { return 2; }
+        int size() { return values.length; }
+        int get(int k) { return values[k] + 1; }
+        void set(int k, int value) { values[k] = (char) (value - 1); }
+        boolean fits(int value) { return value - 1 <= 0xFFFF; }
+        Entries copy() { return new CharEntries(values.clone()); }
+    }
+
+    private static final class IntEntries extends Entries {
+        private final int[] values;
+
+        IntEntries(int[] values) {
+            this.values = values;
+        }
+
+        int width() { return 4; }
+        int size() { return values.length; }
+        int get(int k) { return values[k] + 1; }
+        void set(int k, int value) { values[k] = value - 1; }
+        boolean fits(int value) { return true; }
+        Entries copy() { return new IntEntries(values.clone()); }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.dungeon.solver;
+
+/**
+ * Computes the minimum initial health a knight needs to cross a dungeon
+ * from the top-left to the bottom-right cell, moving only right or down.
+ */
+public interface DungeonSolver {
+
+    int solve(Grid grid);
+}
@@ -0,0 +1,144 @@
+package com.example.dungeon.solver;
+
+import java.util.Arrays;
+
+/**
+ * Immutable-by-convention dungeon board stored row-major in a single
+ * {@code int[]}, so cell (i, j) lives at {@code cells[i * cols + j]}.
+ */
+public final class Grid implements RowSource {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long FINGERPRINT_SEED = 0x2545f4914f6cdd1dL;
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final int ROW_CHUNK = 1 << 16;
+
+    private final int rows;
+    private final int cols;
+    private final int[] cells;
+
+    public Grid(int rows, int cols, int[] cells) {
+        if (rows < 0 || cols < 0) {
+            throw new IllegalArgumentException("Grid dimensions must not be negative");
+        }
+        if ((long) rows * cols != cells.length) {
+            throw new IllegalArgumentException(
+                    "Grid of " + rows + "x" + cols + " needs " + ((long) rows * cols) + " cells, got " + cells.length);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.cells = cells;
+    }
+
+    // Copies a (rectangular) jagged array into a flat grid
+    public static Grid of(int[][] board) {
+        int rows = board.length;
+        int cols = rows == 0 ? 0 : board[0].length;
+        int[] cells = new int[rows * cols];
+        for (int i = 0; i < rows; i++) {
+            if (board[i].length != cols) {
+                throw new IllegalArgumentException("Board must be rectangular");
+            }
+            System.arraycopy(board[i], 0, cells, i * cols, cols);
+        }
+        return new Grid(rows, cols, cells);
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int cols() {
+        return cols;
+    }
+
+    public int cellCount() {
+        return cells.length;
+    }
+
+    public int get(int row, int col) {
+        return cells[row * cols + col];
+    }
+
+    @Override
+    public void readRow(int row, int from, int to, int[] dst) {
+        System.arraycopy(cells, row * cols + from, dst, 0, to - from);
+    }
+
+    // Backing array, shared rather than copied; callers must not modify it
+    public int[] cells() {
+        return cells;
+    }
+
+    // 64-bit hash of the dimensions and cells; equal boards hash equal, wherever they are stored
+    public long contentHash() {
+        long hash = mix(mix(FNV_OFFSET, rows), cols);
+        for (int cell : cells) {
+            hash = mix(hash, cell);
+        }
+        return finish(hash);
+    }
+
+    // A second 64-bit hash of the cells, built unlike contentHash() (multiply-add rather than xor-multiply),
+    // so that boards whose content hashes collide can still be told apart without keeping their cells
+    public long fingerprint() {
+        long hash = FINGERPRINT_SEED;
+        for (int cell : cells) {
+            hash = hash * GOLDEN_GAMMA + cell;
+        }
+        return finish(hash);
+    }
+
+    // Same hash as contentHash(), for boards read one row at a time
+    public static long contentHash(RowSource source) {
+        int rows = source.rows();
+        int cols = source.cols();
+        long hash = mix(mix(FNV_OFFSET, rows), cols);
+        int[] row = new int[Math.min(cols, ROW_CHUNK)];
+        for (int i = 0; i < rows; i++) {
+            for (int from = 0; from < cols; from += row.length) {
+                int to = Math.min(cols, from + row.length);
+                source.readRow(i, from, to, row);
+                for (int k = 0; k < to - from; k++) {
+                    hash = mix(hash, row[k]);
+                }
+            }
+        }
+        return finish(hash);
+    }
+
+    private static long mix(long hash, int value) {
+        return (hash ^ value) * FNV_PRIME;
+    }
+
+    // Murmur3 finalizer, so that nearby boards spread over all 64 bits
+    private static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    // Boards are equal when their dimensions and every cell match
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Grid grid && rows == grid.rows && cols == grid.cols
+                && Arrays.equals(cells, grid.cells);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(contentHash());
+    }
+
+    public int[][] toArray() {
+        int[][] board = new int[rows][];
+        for (int i = 0; i < rows; i++) {
+            board[i] = Arrays.copyOfRange(cells, i * cols, (i + 1) * cols);
+        }
+        return board;
+    }
+}
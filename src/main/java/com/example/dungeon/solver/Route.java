@@ -0,0 +1,10 @@
+package com.example.dungeon.solver;
+
+/**
+ * The minimum HP of a board and an optimal route to the princess, as
+ * run-length encoded moves from the top-left cell: each run is a count and
+ * {@code D} (down) or {@code R} (right), so {@code "2R1D3R"} is
+ * {@code RRDRRR}. A one-cell board has an empty route.
+ */
+public record Route(int minHp, String path) {
+}
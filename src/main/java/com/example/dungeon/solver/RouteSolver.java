@@ -0,0 +1,133 @@
+package com.example.dungeon.solver;
+
+/**
+ * Finds an optimal route through a board in memory linear in its sides,
+ * Hirschberg style, reading it row by row from a {@link RowSource} as the
+ * {@link StreamingSolver} does, so it works on mapped boards too.
+ *
+ * <p>Starting with a given HP, the most HP the knight can have on leaving a
+ * cell alive is all that matters about the way there: more HP never hurts
+ * later. So a rectangle of the board, entered at its top-left cell with
+ * {@code hp} and to be left at its bottom-right cell with at least
+ * {@code target}, is split at its middle row. A forward pass gives the most
+ * HP on leaving each cell of the middle row, a backward pass the least HP
+ * needed on entering each cell of the row below, and wherever the first
+ * covers the second the route can step down there. The upper half is then
+ * solved to leave with at least that need, and the lower half as if entered
+ * with exactly that need, both the same way. Each pass holds one row, so memory is O(rows + cols)
+ * (the route included) and time is about twice that of a plain solve.
+ */
+public final class RouteSolver {
+
+    private static final long DEAD = Long.MIN_VALUE;
+    private static final long UNREACHABLE = Long.MAX_VALUE;
+
+    private final StreamingSolver streamingSolver = new StreamingSolver();
+
+    public Route solve(RowSource source) {
+        return solve(source, streamingSolver.solve(source));
+    }
+
+    // minHp must be the board's minimum HP, as another solver (or a stored stamp) gave it
+    public Route solve(RowSource source, int minHp) {
+        int m = source.rows();
+        int n = source.cols();
+        if (m == 0 || n == 0) {
+            throw new IllegalArgumentException("Board must not be empty");
+        }
+        Split split = new Split(source, n);
+        split.route(0, 0, m - 1, n - 1, minHp, 1);
+        return new Route(minHp, split.path.toString());
+    }
+
+    // Scratch rows of one route, reused by every split
+    private static final class Split {
+        private final RowSource source;
+        private final int[] row;
+        private final long[] most;
+        private final long[] least;
+        private final RunLengthPath path = new RunLengthPath();
+
+        Split(RowSource source, int cols) {
+            this.source = source;
+            this.row = new int[cols];
+            this.most = new long[cols];
+            this.least = new long[cols];
+        }
+
+        // Routes from (r0, c0), entered with hp, to (r1, c1), left with at least target
+        void route(int r0, int c0, int r1, int c1, long hp, long target) {
+            if (r0 == r1) {
+                path.add('R', c1 - c0);
+                return;
+            }
+            if (c0 == c1) {
+                path.add('D', r1 - r0);
+                return;
+            }
+            int mid = (r0 + r1) >>> 1;
+            mostLeft(r0, c0, mid, c1, hp);
+            leastNeeded(mid + 1, c0, r1, c1, target);
+            for (int k = 0; k <= c1 - c0; k++) {
+                if (most[k] != DEAD && most[k] >= least[k]) {
+                    // The upper half only promises needed, which is all the lower half takes
+                    long needed = least[k];
+                    route(r0, c0, mid, c0 + k, hp, needed);
+                    path.add('D', 1);
+                    route(mid + 1, c0 + k, r1, c1, needed, target);
+                    return;
+                }
+            }
+            throw new IllegalArgumentException("No route with " + hp + " HP");
+        }
+
+        // The most HP left on leaving each cell of row r1, entering (r0, c0) with hp; DEAD where the knight can't get alive
+        private void mostLeft(int r0, int c0, int r1, int c1, long hp) {
+            int width = c1 - c0 + 1;
+            for (int i = r0; i <= r1; i++) {
+                source.readRow(i, c0, c1 + 1, row);
+                for (int k = 0; k < width; k++) {
+                    long best = i == r0 ? (k == 0 ? hp : DEAD) : most[k];
+                    if (k > 0 && most[k - 1] > best) best = most[k - 1];
+                    long after = best == DEAD ? DEAD : best + row[k];
+                    most[k] = after >= 1 ? after : DEAD;
+                }
+            }
+        }
+
+        // The least HP needed on entering each cell of row r0 to leave (r1, c1) with at least target
+        private void leastNeeded(int r0, int c0, int r1, int c1, long target) {
+            int width = c1 - c0 + 1;
+            for (int i = r1; i >= r0; i--) {
+                source.readRow(i, c0, c1 + 1, row);
+                for (int k = width - 1; k >= 0; k--) {
+                    long below = i == r1 ? (k == width - 1 ? target : UNREACHABLE) : least[k];
+                    long right = k == width - 1 ? UNREACHABLE : least[k + 1];
+                    least[k] = Math.max(1, Math.min(below, right) - row[k]);
+                }
+            }
+        }
+    }
+
+    // Moves in order, folded into runs as they come
+    private static final class RunLengthPath {
+        private final StringBuilder out = new StringBuilder();
+        private char move;
+        private long run;
+
+        void add(char next, long count) {
+            if (count == 0) return;
+            if (next != move && run > 0) {
+                out.append(run).append(move);
+                run = 0;
+            }
+            move = next;
+            run += count;
+        }
+
+        @Override
+        public String toString() {
+            return run == 0 ? out.toString() : out.toString() + run + move;
+        }
+    }
+}
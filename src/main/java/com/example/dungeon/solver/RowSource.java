@@ -0,0 +1,14 @@
+package com.example.dungeon.solver;
+
+/**
+ * Board whose cells can be read one row at a time, wherever they live.
+ */
+public interface RowSource {
+
+    int rows();
+
+    int cols();
+
+    // Copies cells [from, to) of the given row into dst[0, to - from)
+    void readRow(int row, int from, int to, int[] dst);
+}
@@ -0,0 +1,63 @@
+package com.example.dungeon.solver;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A few reusable {@code int} buffers for the solvers' rolling lines, shared
+ * by every thread. A per-thread buffer would be allocated again for each
+ * request on a virtual thread, and kept for as long as that thread lives;
+ * this pool keeps at most {@code capacity} buffers however many threads
+ * solve, and a solve that finds it empty allocates a buffer of its own.
+ * Buffers taken must be given back, in a {@code finally}.
+ */
+final class ScratchPool {
+
+    // Enough for every core to solve at once without allocating
+    static final ScratchPool LINES = new ScratchPool(2 * Runtime.getRuntime().availableProcessors());
+
+    private static final int MIN_SIZE = 64;
+
+    private final int capacity;
+    // Not synchronized: solves run on virtual threads, which a contended monitor would pin
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<int[]> buffers = new ArrayDeque<>(); // Under lock
+
+    ScratchPool(int capacity) {
+        this.capacity = capacity;
+    }
+
+    // A buffer of at least size ints, with whatever it held before
+    int[] take(int size) {
+        int[] buffer;
+        lock.lock();
+        try {
+            buffer = buffers.pollFirst();
+        } finally {
+            lock.unlock();
+        }
+        // One too small is dropped, so the pool's buffers grow to the boards solved
+        return buffer != null && buffer.length >= size ? buffer : new int[Math.max(size, MIN_SIZE)];
+    }
+
+    // Kept for the next solve unless the pool is full
+    void give(int[] buffer) {
+        lock.lock();
+        try {
+            if (buffers.size() < capacity) {
+                buffers.addFirst(buffer);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return buffers.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
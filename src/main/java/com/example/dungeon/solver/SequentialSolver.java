@@ -0,0 +1,57 @@
+package com.example.dungeon.solver;
+
+import java.util.Arrays;
+
+/**
+ * Single-threaded bottom-up DP that keeps one rolling line of the table
+ * instead of the full {@code (m+1)x(n+1)} matrix. The line runs along the
+ * shorter side of the board, so working memory is O(min(m, n)), and it is
+ * taken from the shared {@link ScratchPool} so repeated solves do not allocate.
+ */
+public final class SequentialSolver implements DungeonSolver {
+
+    @Override
+    public int solve(Grid grid) {
+        int m = grid.rows();
+        int n = grid.cols();
+        if (m == 0 || n == 0) {
+            throw new IllegalArgumentException("Board must not be empty");
+        }
+        int[] cells = grid.cells();
+        int[] line = ScratchPool.LINES.take(Math.min(m, n) + 1);
+        try {
+            return n <= m ? solveByRows(cells, m, n, line) : solveByColumns(cells, m, n, line);
+        } finally {
+            ScratchPool.LINES.give(line);
+        }
+    }
+
+    // Rolling row: line[j] holds dp[i][j], line[n] is the virtual column right of the board
+    private static int solveByRows(int[] cells, int m, int n, int[] line) {
+        Arrays.fill(line, 0, n + 1, Integer.MAX_VALUE);
+        line[n - 1] = 1;
+
+        for (int i = m - 1; i >= 0; i--) {
+            int base = i * n;
+            for (int j = n - 1; j >= 0; j--) {
+                int need = Math.min(line[j], line[j + 1]) - cells[base + j];
+                line[j] = Math.max(1, need);
+            }
+        }
+        return line[0];
+    }
+
+    // Rolling column: line[i] holds dp[i][j], line[m] is the virtual row below the board
+    private static int solveByColumns(int[] cells, int m, int n, int[] line) {
+        Arrays.fill(line, 0, m + 1, Integer.MAX_VALUE);
+        line[m - 1] = 1;
+
+        for (int j = n - 1; j >= 0; j--) {
+            for (int i = m - 1; i >= 0; i--) {
+                int need = Math.min(line[i], line[i + 1]) - cells[i * n + j];
+                line[i] = Math.max(1, need);
+            }
+        }
+        return line[0];
+    }
+}
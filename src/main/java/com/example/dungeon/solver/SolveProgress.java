@@ -0,0 +1,18 @@
+package com.example.dungeon.solver;
+
+/**
+ * Progress of a row-by-row solve ({@link StreamingSolver}), which also asks
+ * it after every row whether to stop.
+ */
+public interface SolveProgress {
+
+    SolveProgress NONE = (rows, total) -> {};
+
+    // rows of total solved so far, from the bottom; called with 0 before the first row
+    void rowsSolved(int rows, int total);
+
+    // A cancelled solve stops with a CancellationException
+    default boolean isCancelled() {
+        return false;
+    }
+}
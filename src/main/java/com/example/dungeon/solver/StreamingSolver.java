@@ -0,0 +1,54 @@
+package com.example.dungeon.solver;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Bottom-up solver that reads the board one row at a time from a
+ * {@link RowSource}, for boards that are never loaded into the heap as a
+ * whole. It holds one row of cells and one rolling DP row, both taken from
+ * the shared {@link ScratchPool}, so its heap use does not grow with the
+ * number of rows. Rows are solved bottom-up and can be reported to a
+ * {@link SolveProgress}.
+ */
+public final class StreamingSolver {
+
+    public int solve(RowSource source) {
+        return solve(source, SolveProgress.NONE);
+    }
+
+    public int solve(RowSource source, SolveProgress progress) {
+        int m = source.rows();
+        int n = source.cols();
+        if (m == 0 || n == 0) {
+            throw new IllegalArgumentException("Board must not be empty");
+        }
+        int[] row = ScratchPool.LINES.take(n + 1);
+        int[] line = ScratchPool.LINES.take(n + 1);
+        try {
+            return solve(source, progress, m, n, row, line);
+        } finally {
+            ScratchPool.LINES.give(row);
+            ScratchPool.LINES.give(line);
+        }
+    }
+
+    private static int solve(RowSource source, SolveProgress progress, int m, int n, int[] row, int[] line) {
+        Arrays.fill(line, 0, n + 1, Integer.MAX_VALUE);
+        line[n - 1] = 1;
+
+        progress.rowsSolved(0, m);
+        for (int i = m - 1; i >= 0; i--) {
+            source.readRow(i, 0, n, row);
+            for (int j = n - 1; j >= 0; j--) {
+                int need = Math.min(line[j], line[j + 1]) - row[j];
+                line[j] = Math.max(1, need);
+            }
+            progress.rowsSolved(m - i, m);
+            if (progress.isCancelled()) {
+                throw new CancellationException("Solve cancelled after " + (m - i) + " of " + m + " rows");
+            }
+        }
+        return line[0];
+    }
+}
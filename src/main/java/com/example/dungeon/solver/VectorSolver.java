@@ -0,0 +1,74 @@
+package com.example.dungeon.solver;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD solver built on the incubating Vector API. The DP is swept along
+ * anti-diagonals, whose cells are independent of each other: with
+ * {@code line[i]} holding dp[i][d + 1 - i] of the previous diagonal, cell
+ * (i, d - i) needs {@code line[i]} (right) and {@code line[i + 1]} (below),
+ * so a whole run of lanes is {@code max(1, min(line[i], line[i + 1]) - cell)}.
+ * The cells of a diagonal sit {@code n - 1} apart in the row-major grid and
+ * are gathered with a constant index map.
+ *
+ * <p>Only load this class after {@link VectorSupport#isAvailable()} returned true.
+ */
+final class VectorSolver implements DungeonSolver {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    private final DungeonSolver scalarSolver = new SequentialSolver();
+
+    @Override
+    public int solve(Grid grid) {
+        int m = grid.rows();
+        int n = grid.cols();
+        // Diagonals shorter than a vector never reach the SIMD loop
+        if (Math.min(m, n) < LANES) {
+            return scalarSolver.solve(grid);
+        }
+        int[] line = ScratchPool.LINES.take(m + 1);
+        try {
+            return solve(grid.cells(), m, n, line);
+        } finally {
+            ScratchPool.LINES.give(line);
+        }
+    }
+
+    private static int solve(int[] cells, int m, int n, int[] line) {
+        // A handful of ints, once per solve
+        int[] indexMap = new int[LANES];
+        for (int k = 0; k < LANES; k++) {
+            indexMap[k] = k * (n - 1);
+        }
+        IntVector one = IntVector.broadcast(SPECIES, 1);
+
+        for (int d = m + n - 2; d >= 0; d--) {
+            int lo = Math.max(0, d - (n - 1));
+            int hi = Math.min(m - 1, d);
+            // Virtual column right of the board; dp[m - 1][n] is 1
+            if (d + 1 - n >= 0) {
+                line[d + 1 - n] = d + 1 - n == m - 1 ? 1 : Integer.MAX_VALUE;
+            }
+            // Virtual row below the board; dp[m][n - 1] is 1
+            if (hi == m - 1) {
+                line[m] = d + 1 - m == n - 1 ? 1 : Integer.MAX_VALUE;
+            }
+
+            int i = lo;
+            for (int upper = hi + 1 - LANES; i <= upper; i += LANES) {
+                IntVector right = IntVector.fromArray(SPECIES, line, i);
+                IntVector below = IntVector.fromArray(SPECIES, line, i + 1);
+                IntVector cell = IntVector.fromArray(SPECIES, cells, d + i * (n - 1), indexMap, 0);
+                right.min(below).sub(cell).max(one).intoArray(line, i);
+            }
+            for (; i <= hi; i++) {
+                int need = Math.min(line[i], line[i + 1]) - cells[i * n + d - i];
+                line[i] = Math.max(1, need);
+            }
+        }
+        return line[0];
+    }
+}
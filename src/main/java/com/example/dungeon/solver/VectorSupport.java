@@ -0,0 +1,33 @@
+package com.example.dungeon.solver;
+
+/**
+ * Guards access to {@link VectorSolver}, which links against the
+ * {@code jdk.incubator.vector} module. That module is only resolved when the
+ * JVM is started with {@code --add-modules jdk.incubator.vector}; without it
+ * the solver class must never be loaded.
+ */
+public final class VectorSupport {
+
+    private static final String MODULE = "jdk.incubator.vector";
+
+    private VectorSupport() {}
+
+    public static boolean isAvailable() {
+        return ModuleLayer.boot().findModule(MODULE).isPresent();
+    }
+
+    public static DungeonSolver create() {
+        if (!isAvailable()) {
+            throw new IllegalStateException(
+                    "Module " + MODULE + " is not available, start the JVM with --add-modules " + MODULE);
+        }
+        // Instantiated reflectively so callers never link against the incubator types
+        try {
+            return (DungeonSolver) Class.forName("com.example.dungeon.solver.VectorSolver")
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Error creating vector solver", e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.dungeon.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel solver that splits the board into square tiles and sweeps them
+ * in anti-diagonal wavefronts from the bottom-right corner. Tiles on the
+ * same wavefront only depend on the previous one, so they run concurrently
+ * on the given {@link ForkJoinPool}.
+ *
+ * <p>Only the tile edges are kept between tiles: {@code top[j]} holds the DP
+ * value of the topmost row already solved in column j, {@code left[i]} the
+ * leftmost one in row i. Tiles on one wavefront never share a row or column
+ * range, so they write disjoint slices. Working memory is O(m + n) and the
+ * arithmetic is exactly that of {@link SequentialSolver}.
+ */
+public final class WavefrontSolver implements DungeonSolver {
+
+    private final ForkJoinPool pool;
+    private final int tileSize;
+
+    public WavefrontSolver(ForkJoinPool pool, int tileSize) {
+        if (tileSize < 1) {
+            throw new IllegalArgumentException("Tile size must be positive");
+        }
+        this.pool = pool;
+        this.tileSize = tileSize;
+    }
+
+    @Override
+    public int solve(Grid grid) {
+        int m = grid.rows();
+        int n = grid.cols();
+        if (m == 0 || n == 0) {
+            throw new IllegalArgumentException("Board must not be empty");
+        }
+        int[] top = new int[n];
+        int[] left = new int[m];
+        Arrays.fill(top, Integer.MAX_VALUE);
+        Arrays.fill(left, Integer.MAX_VALUE);
+        top[n - 1] = 1;
+        left[m - 1] = 1;
+
+        pool.invoke(new Sweep(grid.cells(), m, n, tileSize, top, left));
+        return top[0];
+    }
+
+    private static final class Sweep extends RecursiveAction {
+        private final int[] cells;
+        private final int m;
+        private final int n;
+        private final int tile;
+        private final int[] top;
+        private final int[] left;
+
+        Sweep(int[] cells, int m, int n, int tile, int[] top, int[] left) {
+            this.cells = cells;
+            this.m = m;
+            this.n = n;
+            this.tile = tile;
+            this.top = top;
+            this.left = left;
+        }
+
+        @Override
+        protected void compute() {
+            int tileRows = (m + tile - 1) / tile;
+            int tileCols = (n + tile - 1) / tile;
+            List<RecursiveAction> wave = new ArrayList<>(Math.min(tileRows, tileCols));
+
+            // d counts wavefronts from the bottom-right tile
+            for (int d = 0; d <= tileRows + tileCols - 2; d++) {
+                int from = Math.max(0, d - (tileCols - 1));
+                int to = Math.min(tileRows - 1, d);
+                if (from == to) {
+                    solveTile(tileRows - 1 - from, tileCols - 1 - (d - from));
+                    continue;
+                }
+                wave.clear();
+                for (int a = from; a <= to; a++) {
+                    int tileRow = tileRows - 1 - a;
+                    int tileCol = tileCols - 1 - (d - a);
+                    wave.add(new RecursiveAction() {
+                        @Override
+                        protected void compute() {
+                            solveTile(tileRow, tileCol);
+                        }
+                    });
+                }
+                invokeAll(wave);
+            }
+        }
+
+        private void solveTile(int tileRow, int tileCol) {
+            int i0 = tileRow * tile;
+            int i1 = Math.min(m, i0 + tile);
+            int j0 = tileCol * tile;
+            int j1 = Math.min(n, j0 + tile);
+
+            for (int i = i1 - 1; i >= i0; i--) {
+                int base = i * n;
+                int right = left[i];
+                for (int j = j1 - 1; j >= j0; j--) {
+                    int need = Math.min(top[j], right) - cells[base + j];
+                    right = Math.max(1, need);
+                    top[j] = right;
+                }
+                left[i] = right;
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.dungeon.storage;
+
+import com.example.dungeon.solver.Grid;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Versioned binary encoding of a board, stored in {@code boards.board_bytes}.
+ *
+ * <p>Layout: magic byte, format version, flags, cell width, then rows, cols
+ * and payload length as unsigned varints, then the payload. Cells are packed
+ * little-endian at the narrowest fixed width (1, 2 or 4 bytes) that holds
+ * every value, or as zigzag varints when that is smaller than 4 bytes each.
+ * Payloads of large boards are deflated when that makes them smaller.
+ */
+public final class BoardCodec {
+
+    static final byte MAGIC = (byte) 0xDB;
+    static final byte VERSION = 1;
+    static final int FLAG_DEFLATE = 1;
+    static final int WIDTH_VARINT = 0;
+
+    // Boards below this many cells (256x256) decode faster than they would save on a Deflater
+    static final int COMPRESS_THRESHOLD = 65_536;
+
+    private BoardCodec() {}
+
+    public static byte[] encode(Grid grid) {
+        int[] cells = grid.cells();
+        int min = 0;
+        int max = 0;
+        long varintBytes = 0;
+        for (int cell : cells) {
+            min = Math.min(min, cell);
+            max = Math.max(max, cell);
+            varintBytes += varintSize(zigzag(cell));
+        }
+        int width;
+        if (min >= Byte.MIN_VALUE && max <= Byte.MAX_VALUE) {
+            width = 1;
+        } else if (min >= Short.MIN_VALUE && max <= Short.MAX_VALUE) {
+            width = 2;
+        } else {
+            width = varintBytes < 4L * cells.length ? WIDTH_VARINT : 4;
+        }
+
+        byte[] payload = width == WIDTH_VARINT ? packVarints(cells, (int) varintBytes) : packFixed(cells, width);
+        int flags = 0;
+        if (cells.length >= COMPRESS_THRESHOLD) {
+            byte[] deflated = deflate(payload);
+            if (deflated.length < payload.length) {
+                payload = deflated;
+                flags |= FLAG_DEFLATE;
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length + 20);
+        out.write(MAGIC);
+        out.write(VERSION);
+        out.write(flags);
+        out.write(width);
+        writeVarint(out, grid.rows());
+        writeVarint(out, grid.cols());
+        writeVarint(out, payload.length);
+        out.write(payload, 0, payload.length);
+        return out.toByteArray();
+    }
+
+    public static Grid decode(byte[] data) {
+        try {
+            return decodeChecked(data);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated board data", e);
+        }
+    }
+
+    private static Grid decodeChecked(byte[] data) {
+        if (data.length < 4 || data[0] != MAGIC) {
+            throw new IllegalArgumentException("Not an encoded board");
+        }
+        if (data[1] != VERSION) {
+            throw new IllegalArgumentException("Unsupported board format version " + data[1]);
+        }
+        int flags = data[2];
+        int width = data[3];
+        int[] position = {4};
+        int rows = readVarint(data, position);
+        int cols = readVarint(data, position);
+        int payloadLength = readVarint(data, position);
+
+        byte[] payload = data;
+        int offset = position[0];
+        if ((flags & FLAG_DEFLATE) != 0) {
+            payload = inflate(data, offset, payloadLength,
+                    width == WIDTH_VARINT ? -1 : rows * cols * width);
+            offset = 0;
+        }
+
+        int[] cells = new int[rows * cols];
+        if (width == WIDTH_VARINT) {
+            int[] cursor = {offset};
+            for (int k = 0; k < cells.length; k++) {
+                int raw = readVarint(payload, cursor);
+                cells[k] = (raw >>> 1) ^ -(raw & 1);
+            }
+        } else {
+            for (int k = 0; k < cells.length; k++, offset += width) {
+                cells[k] = switch (width) {
+                    case 1 -> payload[offset];
+                    case 2 -> (short) ((payload[offset] & 0xFF) | payload[offset + 1] << 8);
+                    case 4 -> (payload[offset] & 0xFF) | (payload[offset + 1] & 0xFF) << 8
+                            | (payload[offset + 2] & 0xFF) << 16 | payload[offset + 3] << 24;
+                    default -> throw new IllegalArgumentException("Unsupported cell width " + width);
+                };
+            }
+        }
+        return new Grid(rows, cols, cells);
+    }
+
+    private static byte[] packFixed(int[] cells, int width) {
+        byte[] payload = new byte[cells.length * width];
+        int offset = 0;
+        for (int cell : cells) {
+            for (int b = 0; b < width; b++) {
+                payload[offset++] = (byte) (cell >> (8 * b));
+            }
+        }
+        return payload;
+    }
+
+    private static byte[] packVarints(int[] cells, int size) {
+        byte[] payload = new byte[size];
+        int offset = 0;
+        for (int cell : cells) {
+            int value = zigzag(cell);
+            while ((value & ~0x7F) != 0) {
+                payload[offset++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            payload[offset++] = (byte) value;
+        }
+        return payload;
+    }
+
+    private static byte[] deflate(byte[] payload) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 2 + 64);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    // expectedSize is -1 when the inflated size is only known once inflated
+    private static byte[] inflate(byte[] data, int offset, int length, int expectedSize) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, offset, length);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(expectedSize > 0 ? expectedSize : length * 4);
+            byte[] chunk = new byte[8192];
+            while (!inflater.finished()) {
+                int read = inflater.inflate(chunk);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Truncated board payload");
+                }
+                out.write(chunk, 0, read);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt board payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(byte[] data, int[] position) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = data[position[0]++];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+}
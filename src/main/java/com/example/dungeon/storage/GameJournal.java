@@ -0,0 +1,234 @@
+package com.example.dungeon.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of played games, kept in memory-mapped segment files
+ * until they are committed to the database.
+ *
+ * <p>Each segment is named after its first sequence number and holds
+ * {@link #RECORDS_PER_SEGMENT} fixed-size records: sequence, player id,
+ * board id, played-at epoch millis, result, and a CRC32C of those fields.
+ * A record that fails its checksum (a torn write, or the zeroed tail of a
+ * segment) ends the segment. {@link #sync(long)} is a group commit: one
+ * thread forces the mapping while the appenders behind it wait, and all of
+ * them are durable once it returns.
+ *
+ * <p>Locking uses {@link ReentrantLock} rather than monitors: the locks are
+ * held across file I/O, and a virtual thread blocked inside
+ * {@code synchronized} pins its carrier thread.
+ */
+public final class GameJournal implements Closeable {
+
+    static final int RECORD_BYTES = 40;
+    static final int RECORDS_PER_SEGMENT = 1 << 18;
+    private static final String SUFFIX = ".journal";
+
+    private final Path directory;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long lastSequence;
+    private volatile long durableSequence;
+
+    private GameJournal(Path directory) {
+        this.directory = directory;
+    }
+
+    // Sequences continue after both the last record on disk and the last one already committed
+    public static GameJournal open(Path directory, long committedSequence) {
+        GameJournal journal = new GameJournal(directory);
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = segments(directory);
+            long last = committedSequence;
+            Path tail = null;
+            int tailRecords = 0;
+            if (!segments.isEmpty()) {
+                tail = segments.get(segments.size() - 1);
+                List<Entry> entries = read(tail);
+                tailRecords = entries.size();
+                last = Math.max(last, entries.isEmpty() ? firstSequence(tail) - 1 : entries.get(tailRecords - 1).sequence());
+            }
+            journal.lastSequence = last;
+            journal.durableSequence = last;
+            if (tail != null && tailRecords < RECORDS_PER_SEGMENT && firstSequence(tail) + tailRecords == last + 1) {
+                journal.map(tail);
+                journal.segment.position(tailRecords * RECORD_BYTES);
+            } else {
+                journal.map(directory.resolve(segmentName(last + 1)));
+            }
+            return journal;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error opening game journal in " + directory, e);
+        }
+    }
+
+    // Writes the record into the mapping and returns its sequence; call sync(sequence) to make it durable
+    public long append(long playerId, long boardId, int result, long playedAtMillis) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+        lock.lock();
+        try {
+            if (!segment.hasRemaining()) {
+                roll();
+            }
+            long sequence = ++lastSequence;
+            record.putLong(sequence).putLong(playerId).putLong(boardId).putLong(playedAtMillis).putInt(result);
+            CRC32C crc = new CRC32C();
+            crc.update(record.array(), 0, RECORD_BYTES - 4);
+            record.putInt((int) crc.getValue());
+            segment.put(record.array());
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void sync(long sequence) {
+        if (durableSequence >= sequence) return;
+        syncLock.lock();
+        try {
+            if (durableSequence >= sequence) return;
+            MappedByteBuffer current;
+            long target;
+            lock.lock();
+            try {
+                current = segment;
+                target = lastSequence;
+            } finally {
+                lock.unlock();
+            }
+            current.force();
+            durableSequence = target;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    // Records after the given sequence, in order, for replay
+    public List<Entry> readAfter(long sequence) {
+        List<Entry> entries = new ArrayList<>();
+        try {
+            for (Path file : segments(directory)) {
+                for (Entry entry : read(file)) {
+                    if (entry.sequence() > sequence) {
+                        entries.add(entry);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading game journal in " + directory, e);
+        }
+        return entries;
+    }
+
+    // Deletes the segments whose records are all committed; the last one is still being appended to
+    public void release(long committedSequence) {
+        lock.lock();
+        try {
+            List<Path> files = segments(directory);
+            for (int k = 0; k + 1 < files.size(); k++) {
+                if (firstSequence(files.get(k + 1)) - 1 <= committedSequence) {
+                    Files.deleteIfExists(files.get(k));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error releasing game journal segments in " + directory, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long lastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            segment.force();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error closing game journal in " + directory, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The full segment is forced before the next one takes appends, so sync() only ever forces the current one
+    private void roll() {
+        try {
+            segment.force();
+            channel.close();
+            map(directory.resolve(segmentName(lastSequence + 1)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error rolling game journal in " + directory, e);
+        }
+    }
+
+    private void map(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) RECORDS_PER_SEGMENT * RECORD_BYTES);
+    }
+
+    private static List<Entry> read(Path file) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    Math.min(channel.size(), (long) RECORDS_PER_SEGMENT * RECORD_BYTES));
+            byte[] record = new byte[RECORD_BYTES];
+            long expected = firstSequence(file);
+            while (buffer.remaining() >= RECORD_BYTES) {
+                buffer.get(record);
+                ByteBuffer fields = ByteBuffer.wrap(record);
+                CRC32C crc = new CRC32C();
+                crc.update(record, 0, RECORD_BYTES - 4);
+                long sequence = fields.getLong();
+                if (sequence != expected || fields.getInt(RECORD_BYTES - 4) != (int) crc.getValue()) {
+                    break;
+                }
+                entries.add(new Entry(sequence, fields.getLong(), fields.getLong(), fields.getInt(32), fields.getLong(24)));
+                expected++;
+            }
+        }
+        return entries;
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+    }
+
+    private static String segmentName(long firstSequence) {
+        return String.format("games-%019d%s", firstSequence, SUFFIX);
+    }
+
+    private static long firstSequence(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring("games-".length(), name.length() - SUFFIX.length()));
+    }
+
+    public record Entry(long sequence, long playerId, long boardId, int result, long playedAtMillis) {}
+}
@@ -0,0 +1,137 @@
+package com.example.dungeon.storage;
+
+import com.example.dungeon.solver.RowSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Board stored in a binary file and read through memory-mapped windows.
+ *
+ * <p>File layout: a 16 byte header (magic, format version, rows, cols as
+ * big-endian ints) followed by the cells as little-endian int32, row-major.
+ * Only a window of at most {@link #WINDOW_BYTES} is mapped at a time, so
+ * boards far larger than the heap (or than one 2GB mapping) can be read.
+ * An instance tracks its current window and is not thread-safe; open one
+ * per solve.
+ */
+public final class MappedBoard implements RowSource {
+
+    static final int MAGIC = 0x44474D42; // "DGMB"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final long WINDOW_BYTES = 64L << 20;
+
+    private final Path file;
+    private final int rows;
+    private final int cols;
+    private final int windowRows;
+
+    private IntBuffer window;
+    private int windowStart;
+    private int windowEnd;
+
+    private MappedBoard(Path file, int rows, int cols) {
+        this.file = file;
+        this.rows = rows;
+        this.cols = cols;
+        this.windowRows = (int) Math.max(1, Math.min(rows, WINDOW_BYTES / (4L * Math.max(cols, 1))));
+    }
+
+    public static MappedBoard open(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IllegalStateException("Not a board file: " + file);
+            }
+            int rows = header.getInt();
+            int cols = header.getInt();
+            if (channel.size() != HEADER_BYTES + 4L * rows * cols) {
+                throw new IllegalStateException("Truncated board file: " + file);
+            }
+            return new MappedBoard(file, rows, cols);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error opening board file " + file, e);
+        }
+    }
+
+    // Writes the board through writable mappings of the same window size used for reading
+    public static void write(Path file, int[][] board) {
+        int rows = board.length;
+        int cols = rows == 0 ? 0 : board[0].length;
+        int windowRows = (int) Math.max(1, Math.min(rows, WINDOW_BYTES / (4L * Math.max(cols, 1))));
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(cols);
+            header.force();
+
+            for (int start = 0; start < rows; start += windowRows) {
+                int end = Math.min(rows, start + windowRows);
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE,
+                        HEADER_BYTES + 4L * start * cols, 4L * (end - start) * cols);
+                IntBuffer cells = mapped.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+                for (int i = start; i < end; i++) {
+                    if (board[i].length != cols) {
+                        throw new IllegalArgumentException("Board must be rectangular");
+                    }
+                    cells.put(board[i]);
+                }
+                mapped.force();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing board file " + file, e);
+        }
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int cols() {
+        return cols;
+    }
+
+    @Override
+    public void readRow(int row, int from, int to, int[] dst) {
+        if (window == null || row < windowStart || row >= windowEnd) {
+            mapWindowAround(row);
+        }
+        window.get((row - windowStart) * cols + from, dst, 0, to - from);
+    }
+
+    // The window extends in the direction of travel: upwards for bottom-up sweeps, downwards otherwise
+    private void mapWindowAround(int row) {
+        int start;
+        int end;
+        if (window == null || row < windowStart) {
+            end = row + 1;
+            start = Math.max(0, end - windowRows);
+        } else {
+            start = row;
+            end = Math.min(rows, start + windowRows);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            window = channel.map(FileChannel.MapMode.READ_ONLY,
+                            HEADER_BYTES + 4L * start * cols, 4L * (end - start) * cols)
+                    .order(ByteOrder.LITTLE_ENDIAN)
+                    .asIntBuffer();
+            windowStart = start;
+            windowEnd = end;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error mapping board file " + file, e);
+        }
+    }
+}
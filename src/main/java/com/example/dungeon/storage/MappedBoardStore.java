@@ -0,0 +1,57 @@
+package com.example.dungeon.storage;
+
+import com.example.dungeon.config.StorageProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Owns the directory of memory-mapped board files and decides which boards
+ * are large enough to live there.
+ */
+@Component
+public class MappedBoardStore {
+
+    private final StorageProperties properties;
+    private final Path directory;
+
+    @Autowired
+    public MappedBoardStore(StorageProperties properties) {
+        this.properties = properties;
+        this.directory = Path.of(properties.getDirectory()).toAbsolutePath();
+    }
+
+    public boolean shouldMap(int[][] board) {
+        long cells = board.length == 0 ? 0 : (long) board.length * board[0].length;
+        return cells >= properties.getMappedThreshold();
+    }
+
+    // Writes the board to a new file and returns its absolute path
+    public String write(int[][] board) {
+        Path file = directory.resolve(UUID.randomUUID() + ".board");
+        try {
+            Files.createDirectories(directory);
+            MappedBoard.write(file, board);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error creating board directory " + directory, e);
+        } catch (RuntimeException e) {
+            delete(file.toString());
+            throw e;
+        }
+        return file.toString();
+    }
+
+    public void delete(String boardFile) {
+        if (boardFile == null) return;
+        try {
+            Files.deleteIfExists(Path.of(boardFile));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error deleting board file " + boardFile, e);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.dungeon.reactive.controller;
+
+import com.example.dungeon.controller.BoardController;
+import com.example.dungeon.reactive.ReactiveDungeonApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = ReactiveDungeonApplication.class, properties = {
+        "spring.main.web-application-type=reactive",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "dungeon.storage.directory=target/reactive-boards",
+        "dungeon.storage.mapped-threshold=100"
+})
+@ActiveProfiles(ReactiveDungeonApplication.PROFILE)
+@AutoConfigureWebTestClient
+class ReactiveBoardControllerTest {
+
+    private static final int[][] EXAMPLE = {{-2, -3, 3}, {-5, -10, 1}, {10, 30, -5}};
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void setUp() {
+        for (String table : new String[]{"games", "player_stats", "board_stats", "boards", "players"}) {
+            databaseClient.sql("delete from " + table).then().block();
+        }
+    }
+
+    @Test
+    void testCreateBoard() {
+        JsonNode board = create("Test Dungeon", EXAMPLE, false);
+
+        assertEquals("Test Dungeon", board.get("name").asText());
+        assertEquals(7, board.get("minHp").asInt());
+        assertFalse(board.get("mapped").asBoolean());
+        webTestClient.get().uri("/api/boards/{id}/stats", board.get("id").asLong()).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.gamesPlayed").isEqualTo(0);
+    }
+
+    @Test
+    void testCreateBoardDedupeReturnsSameLayout() {
+        JsonNode original = create("Original", EXAMPLE, false);
+
+        JsonNode again = create("Re-upload", EXAMPLE, true);
+
+        assertEquals(original.get("id"), again.get("id"));
+        assertEquals("Original", again.get("name").asText());
+        webTestClient.get().uri("/api/boards").exchange()
+                .expectBody().jsonPath("$.length()").isEqualTo(1);
+    }
+
+    @Test
+    void testCreateOrUpdateBoardWithoutAValidGridIsRejected() {
+        long id = create("Original", EXAMPLE, false).get("id").asLong();
+
+        for (String body : new String[]{"{\"name\":\"Missing\"}", "{\"name\":\"Empty\",\"board\":[]}"}) {
+            webTestClient.post().uri("/api/boards?dedupe=true").contentType(MediaType.APPLICATION_JSON).bodyValue(body)
+                    .exchange().expectStatus().isBadRequest();
+            webTestClient.put().uri("/api/boards/{id}", id).contentType(MediaType.APPLICATION_JSON).bodyValue(body)
+                    .exchange().expectStatus().isBadRequest();
+        }
+        webTestClient.get().uri("/api/boards/{id}", id).exchange()
+                .expectBody().jsonPath("$.name").isEqualTo("Original");
+    }
+
+    @Test
+    void testGetAllBoards() {
+        create("Easy Dungeon", new int[][]{{1, 2}, {3, 4}}, false);
+        create("Hard Dungeon", new int[][]{{-1, -2}, {-3, -4}}, false);
+
+        webTestClient.get().uri("/api/boards").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].name").isEqualTo("Easy Dungeon")
+                .jsonPath("$[1].name").isEqualTo("Hard Dungeon");
+    }
+
+    @Test
+    void testGetBoardById() {
+        long id = create("Test Board", new int[][]{{1, 2}, {3, 4}}, false).get("id").asLong();
+
+        webTestClient.get().uri("/api/boards/{id}", id).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Test Board")
+                .jsonPath("$.minHp").isEqualTo(1)
+                .jsonPath("$.boardArray[1][0]").isEqualTo(3)
+                .jsonPath("$.board").doesNotExist()
+                .jsonPath("$.boardData").doesNotExist();
+    }
+
+    @Test
+    void testGetLegacyJsonBoardWritesStoredJson() {
+        Long id = databaseClient.sql("insert into boards (name, board_data) values ('Legacy Board', '[[1,-2],[-3,4]]')")
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class)).one().block();
+
+        webTestClient.get().uri("/api/boards/{id}", id).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .json("{\"id\":" + id + ",\"name\":\"Legacy Board\",\"mapped\":false,\"minHp\":null,\"boardArray\":[[1,-2],[-3,4]]}", true);
+    }
+
+    @Test
+    void testGetBoardByIdNotFound() {
+        webTestClient.get().uri("/api/boards/99999").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void testUpdateBoard() {
+        long id = create("Original Board", new int[][]{{1, 2}}, false).get("id").asLong();
+
+        webTestClient.put().uri("/api/boards/{id}", id)
+                .bodyValue(request("Updated Board", new int[][]{{-1, -2}, {-3, -4}}))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Updated Board")
+                .jsonPath("$.minHp").isEqualTo(8)
+                .jsonPath("$.boardArray[1][1]").isEqualTo(-4);
+    }
+
+    @Test
+    void testCreateOversizedBoardIsMappedAndDeleteRemovesFile() {
+        int[][] huge = new int[10][10];
+        JsonNode board = create("Huge Dungeon", huge, false);
+        String file = databaseClient.sql("select board_file from boards where id = :id").bind("id", board.get("id").asLong())
+                .map(row -> row.get("board_file", String.class)).one().block();
+
+        assertTrue(board.get("mapped").asBoolean());
+        assertTrue(board.get("boardArray").isNull());
+        assertNull(board.get("boardFile"));
+        assertTrue(Files.exists(Path.of(file)));
+
+        webTestClient.delete().uri("/api/boards/{id}", board.get("id").asLong()).exchange().expectStatus().isNoContent();
+
+        assertFalse(Files.exists(Path.of(file)));
+    }
+
+    @Test
+    void testDeleteBoard() {
+        long id = create("Test Board", EXAMPLE, false).get("id").asLong();
+
+        webTestClient.delete().uri("/api/boards/{id}", id).exchange().expectStatus().isNoContent();
+
+        webTestClient.get().uri("/api/boards/{id}", id).exchange().expectStatus().isNotFound();
+        webTestClient.get().uri("/api/boards/{id}/stats", id).exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void testDeleteBoardNotFound() {
+        webTestClient.delete().uri("/api/boards/99999").exchange().expectStatus().isNotFound();
+    }
+
+    private JsonNode create(String name, int[][] board, boolean dedupe) {
+        return webTestClient.post().uri("/api/boards?dedupe={dedupe}", dedupe)
+                .bodyValue(request(name, board))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(JsonNode.class).returnResult().getResponseBody();
+    }
+
+    private static BoardController.BoardRequest request(String name, int[][] board) {
+        BoardController.BoardRequest request = new BoardController.BoardRequest();
+        request.setName(name);
+        request.setBoard(board);
+        return request;
+    }
+}
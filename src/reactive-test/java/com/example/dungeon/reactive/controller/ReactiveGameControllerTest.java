@@ -0,0 +1,213 @@
+package com.example.dungeon.reactive.controller;
+
+import com.example.dungeon.controller.BoardController;
+import com.example.dungeon.controller.GameController;
+import com.example.dungeon.entity.Player;
+import com.example.dungeon.reactive.ReactiveDungeonApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = ReactiveDungeonApplication.class, properties = {
+        "spring.main.web-application-type=reactive",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "dungeon.storage.directory=target/reactive-boards",
+        "dungeon.storage.mapped-threshold=100"
+})
+@ActiveProfiles(ReactiveDungeonApplication.PROFILE)
+@AutoConfigureWebTestClient
+class ReactiveGameControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private Long alice;
+    private Long bob;
+    private Long board;
+
+    @BeforeEach
+    void setUp() {
+        for (String table : new String[]{"games", "player_stats", "board_stats", "boards", "players"}) {
+            databaseClient.sql("delete from " + table).then().block();
+        }
+        alice = player("Alice");
+        bob = player("Bob");
+        BoardController.BoardRequest request = new BoardController.BoardRequest();
+        request.setName("Test Dungeon");
+        request.setBoard(new int[][]{{-2, -3, 3}, {-5, -10, 1}, {10, 30, -5}});
+        board = webTestClient.post().uri("/api/boards").bodyValue(request).exchange()
+                .expectBody(JsonNode.class).returnResult().getResponseBody().get("id").asLong();
+    }
+
+    @Test
+    void testPlayGame() {
+        JsonNode result = play(alice, board).expectStatus().isOk()
+                .expectBody(JsonNode.class).returnResult().getResponseBody();
+
+        assertEquals("Alice", result.get("playerName").asText());
+        assertEquals("Test Dungeon", result.get("boardName").asText());
+        assertEquals(7, result.get("minimumHealth").asInt());
+        webTestClient.get().uri("/api/players/{id}/stats", alice).exchange()
+                .expectBody()
+                .jsonPath("$.gamesPlayed").isEqualTo(1)
+                .jsonPath("$.bestMinHp").isEqualTo(7);
+        webTestClient.get().uri("/api/boards/{id}/stats", board).exchange()
+                .expectBody()
+                .jsonPath("$.gamesPlayed").isEqualTo(1);
+    }
+
+    @Test
+    void testPlayGamePlayerNotFound() {
+        play(99999L, board).expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("Player not found");
+    }
+
+    @Test
+    void testPlayGameBoardNotFound() {
+        play(alice, 99999L).expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("Board not found");
+    }
+
+    @Test
+    void testPlayGames() {
+        webTestClient.post().uri("/api/games/play/batch")
+                .bodyValue(List.of(request(alice, board), request(99999L, board), request(bob, board)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(3)
+                .jsonPath("$[0].playerName").isEqualTo("Alice")
+                .jsonPath("$[0].minimumHealth").isEqualTo(7)
+                .jsonPath("$[1].error").isEqualTo("Player not found")
+                .jsonPath("$[2].playerName").isEqualTo("Bob");
+        webTestClient.get().uri("/api/boards/{id}/stats", board).exchange()
+                .expectBody().jsonPath("$.gamesPlayed").isEqualTo(2);
+    }
+
+    @Test
+    void testPlayGamesRejectsOversizedBatch() {
+        webTestClient.post().uri("/api/games/play/batch")
+                .bodyValue(Collections.nCopies(1001, request(alice, board)))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$[0].error").isEqualTo("A batch holds at most 1000 plays");
+        webTestClient.get().uri("/api/players/{id}/stats", alice).exchange()
+                .expectBody().jsonPath("$.gamesPlayed").isEqualTo(0);
+    }
+
+    @Test
+    void testGetAllGamesPagesWithCursor() {
+        for (int k = 0; k < 3; k++) {
+            play(k % 2 == 0 ? alice : bob, board).expectStatus().isOk();
+        }
+
+        String cursor = webTestClient.get().uri("/api/games?limit=2").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].playerName").isEqualTo("Alice")
+                .jsonPath("$[0].boardName").isEqualTo("Test Dungeon")
+                .jsonPath("$[1].playerName").isEqualTo("Bob")
+                .returnResult().getResponseHeaders().getFirst(ReactiveGameController.NEXT_CURSOR);
+
+        assertNotNull(cursor);
+        webTestClient.get().uri("/api/games?cursor={cursor}&limit=2", cursor).exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(ReactiveGameController.NEXT_CURSOR)
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].playerName").isEqualTo("Alice");
+    }
+
+    @Test
+    void testGetAllGamesRejectsInvalidCursor() {
+        webTestClient.get().uri("/api/games?cursor=bm9wZQ").exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testStreamAllGames() {
+        play(alice, board).expectStatus().isOk();
+        play(bob, board).expectStatus().isOk();
+
+        List<JsonNode> games = webTestClient.get().uri("/api/games").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(JsonNode.class).getResponseBody().collectList().block();
+
+        assertEquals(2, games.size());
+        assertEquals("Bob", games.get(0).get("playerName").asText());
+        assertEquals(7, games.get(1).get("result").asInt());
+    }
+
+    @Test
+    void testGetGameById() {
+        Long id = play(alice, board).expectBody(JsonNode.class).returnResult().getResponseBody().get("gameId").asLong();
+
+        webTestClient.get().uri("/api/games/{id}", id).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(id)
+                .jsonPath("$.result").isEqualTo(7)
+                .jsonPath("$.player.name").isEqualTo("Alice")
+                .jsonPath("$.board.name").isEqualTo("Test Dungeon");
+    }
+
+    @Test
+    void testGetGameByIdNotFound() {
+        webTestClient.get().uri("/api/games/99999").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void testGetGamesByPlayerAndBoard() {
+        play(alice, board).expectStatus().isOk();
+        play(bob, board).expectStatus().isOk();
+        play(alice, board).expectStatus().isOk();
+
+        webTestClient.get().uri("/api/games/player/{id}", alice).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].playerId").isEqualTo(alice);
+        webTestClient.get().uri("/api/games/board/{id}", board).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(3);
+        List<JsonNode> bobs = webTestClient.get().uri("/api/games/player/{id}", bob)
+                .accept(MediaType.APPLICATION_NDJSON).exchange()
+                .returnResult(JsonNode.class).getResponseBody().collectList().block();
+        assertEquals(1, bobs.size());
+    }
+
+    private WebTestClient.ResponseSpec play(Long playerId, Long boardId) {
+        return webTestClient.post().uri("/api/games/play").bodyValue(request(playerId, boardId)).exchange();
+    }
+
+    private static GameController.PlayGameRequest request(Long playerId, Long boardId) {
+        GameController.PlayGameRequest request = new GameController.PlayGameRequest();
+        request.setPlayerId(playerId);
+        request.setBoardId(boardId);
+        return request;
+    }
+
+    private Long player(String name) {
+        return webTestClient.post().uri("/api/players")
+                .bodyValue(new Player(name, name.toLowerCase() + "@example.com"))
+                .exchange()
+                .expectBody(Player.class).returnResult().getResponseBody().getId();
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.dungeon.reactive.controller;
+
+import com.example.dungeon.entity.Player;
+import com.example.dungeon.reactive.ReactiveDungeonApplication;
+import com.example.dungeon.reactive.service.ReactiveGameStatsService;
+import com.example.dungeon.service.GameStatsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@SpringBootTest(classes = ReactiveDungeonApplication.class, properties = {
+        "spring.main.web-application-type=reactive",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "dungeon.storage.directory=target/reactive-boards",
+        "dungeon.storage.mapped-threshold=100"
+})
+@ActiveProfiles(ReactiveDungeonApplication.PROFILE)
+@AutoConfigureWebTestClient
+class ReactivePlayerControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private ReactiveGameStatsService gameStatsService;
+
+    @BeforeEach
+    void setUp() {
+        for (String table : new String[]{"games", "player_stats", "board_stats", "boards", "players"}) {
+            databaseClient.sql("delete from " + table).then().block();
+        }
+    }
+
+    @Test
+    void testCreatePlayer() {
+        Long id = create("John Doe", "john@example.com");
+
+        webTestClient.get().uri("/api/players/{id}", id).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("John Doe")
+                .jsonPath("$.email").isEqualTo("john@example.com");
+        webTestClient.get().uri("/api/players/{id}/stats", id).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.playerId").isEqualTo(id)
+                .jsonPath("$.gamesPlayed").isEqualTo(0)
+                .jsonPath("$.averageMinHp").doesNotExist();
+    }
+
+    @Test
+    void testGetPlayerStats() {
+        Long id = create("Alice", "alice@example.com");
+        databaseClient.sql("update player_stats set games_played = 4, best_min_hp = 1, worst_min_hp = 12, "
+                        + "total_min_hp = 22, last_played_at = :at where player_id = :id")
+                .bind("at", LocalDateTime.of(2024, 5, 1, 12, 0)).bind("id", id).then().block();
+
+        webTestClient.get().uri("/api/players/{id}/stats", id).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.gamesPlayed").isEqualTo(4)
+                .jsonPath("$.bestMinHp").isEqualTo(1)
+                .jsonPath("$.worstMinHp").isEqualTo(12)
+                .jsonPath("$.averageMinHp").isEqualTo(5.5)
+                .jsonPath("$.totalMinHp").doesNotExist();
+    }
+
+    @Test
+    void testGetPlayerStatsNotFound() {
+        webTestClient.get().uri("/api/players/99999/stats").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void testGetLeaderboard() {
+        Long alice = create("Alice", "alice@example.com");
+        Long bob = create("Bob", "bob@example.com");
+        create("Carol", "carol@example.com");
+        databaseClient.sql("update player_stats set games_played = 3, total_min_hp = 15 where player_id = :id")
+                .bind("id", bob).then().block();
+        databaseClient.sql("update player_stats set games_played = 1, total_min_hp = 7 where player_id = :id")
+                .bind("id", alice).then().block();
+
+        webTestClient.get().uri("/api/players/leaderboard?limit=500").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].playerName").isEqualTo("Bob")
+                .jsonPath("$[0].gamesPlayed").isEqualTo(3)
+                .jsonPath("$[0].averageMinHp").isEqualTo(5.0)
+                .jsonPath("$[0].totalMinHp").doesNotExist();
+    }
+
+    @Test
+    void testGetAllPlayers() {
+        create("Alice", "alice@example.com");
+        create("Bob", "bob@example.com");
+
+        webTestClient.get().uri("/api/players").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].name").isEqualTo("Alice")
+                .jsonPath("$[1].name").isEqualTo("Bob");
+    }
+
+    @Test
+    void testGetPlayerByIdNotFound() {
+        webTestClient.get().uri("/api/players/99999").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void testUpdatePlayer() {
+        Long id = create("Original Name", "original@example.com");
+
+        webTestClient.put().uri("/api/players/{id}", id)
+                .bodyValue(new Player("Updated Name", "updated@example.com"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(id)
+                .jsonPath("$.name").isEqualTo("Updated Name")
+                .jsonPath("$.email").isEqualTo("updated@example.com");
+        webTestClient.put().uri("/api/players/99999")
+                .bodyValue(new Player("Nobody", null))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testDeletePlayer() {
+        Long id = create("Alice", "alice@example.com");
+
+        webTestClient.delete().uri("/api/players/{id}", id).exchange().expectStatus().isNoContent();
+
+        webTestClient.get().uri("/api/players/{id}", id).exchange().expectStatus().isNotFound();
+        webTestClient.get().uri("/api/players/{id}/stats", id).exchange().expectStatus().isNotFound();
+        webTestClient.delete().uri("/api/players/{id}", id).exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void testStatsOfADeletedPlayerStayDeletedAndRebuildDropsOrphans() {
+        Long alice = create("Alice", "alice@example.com");
+        Long bob = create("Bob", "bob@example.com");
+        webTestClient.delete().uri("/api/players/{id}", alice).exchange().expectStatus().isNoContent();
+
+        // A game Alice played before she was deleted, recorded after
+        gameStatsService.record(List.of(new GameStatsService.RecordedGame(alice, 1L, 5, LocalDateTime.now()))).block();
+        webTestClient.get().uri("/api/players/{id}/stats", alice).exchange().expectStatus().isNotFound();
+
+        // Stats Bob's games don't account for, and a row without a player
+        databaseClient.sql("update player_stats set games_played = 3, total_min_hp = 15 where player_id = :id")
+                .bind("id", bob).then().block();
+        gameStatsService.createPlayerStats(99999L).block();
+        gameStatsService.rebuildStats().block();
+
+        webTestClient.get().uri("/api/players/{id}/stats", bob).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.gamesPlayed").isEqualTo(0);
+        webTestClient.get().uri("/api/players/99999/stats").exchange().expectStatus().isNotFound();
+    }
+
+    private Long create(String name, String email) {
+        return webTestClient.post().uri("/api/players")
+                .bodyValue(new Player(name, email))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Player.class).returnResult().getResponseBody().getId();
+    }
+}
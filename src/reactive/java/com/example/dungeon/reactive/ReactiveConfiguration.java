@@ -0,0 +1,30 @@
+package com.example.dungeon.reactive;
+
+import com.example.dungeon.config.GameProperties;
+import com.example.dungeon.config.SolverProperties;
+import com.example.dungeon.config.StorageProperties;
+import com.example.dungeon.service.DungeonService;
+import com.example.dungeon.storage.MappedBoardStore;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+@EnableConfigurationProperties({SolverProperties.class, StorageProperties.class, GameProperties.class})
+@Import(MappedBoardStore.class)
+public class ReactiveConfiguration {
+
+    @Bean
+    public DungeonService dungeonService(SolverProperties properties) {
+        return new DungeonService(properties);
+    }
+
+    // CPU-bound solving runs here, one worker per solver thread, never on the event loop
+    @Bean(destroyMethod = "dispose")
+    public Scheduler solverScheduler(SolverProperties properties) {
+        return Schedulers.newParallel("solver", properties.effectiveParallelism());
+    }
+}
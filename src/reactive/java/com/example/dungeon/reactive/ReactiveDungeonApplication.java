@@ -0,0 +1,32 @@
+package com.example.dungeon.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The same {@code /api/players}, {@code /api/boards} and {@code /api/games}
+ * contract as {@link com.example.dungeon.DungeonApiApplication}, served
+ * without blocking: WebFlux handlers over R2DBC repositories on the same
+ * schema, with solving moved onto a bounded parallel scheduler. Built and
+ * packaged with {@code -P reactive}; runs with the {@code reactive} profile.
+ *
+ * <p>Not a {@code @SpringBootConfiguration}, so tests of the servlet
+ * application keep finding a single one.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableAutoConfiguration
+@ComponentScan
+public class ReactiveDungeonApplication {
+
+    public static final String PROFILE = "reactive";
+
+    public static void main(String[] args) {
+        SpringApplication application = new SpringApplication(ReactiveDungeonApplication.class);
+        application.setWebApplicationType(WebApplicationType.REACTIVE);
+        application.setAdditionalProfiles(PROFILE);
+        application.run(args);
+    }
+}
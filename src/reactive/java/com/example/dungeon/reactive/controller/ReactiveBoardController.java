@@ -0,0 +1,139 @@
+package com.example.dungeon.reactive.controller;
+
+import com.example.dungeon.controller.BoardController.BoardRequest;
+import com.example.dungeon.controller.BoardController.BoardResponse;
+import com.example.dungeon.entity.Board;
+import com.example.dungeon.entity.BoardStats;
+import com.example.dungeon.reactive.repository.ReactiveBoardRepository;
+import com.example.dungeon.reactive.service.ReactiveGameStatsService;
+import com.example.dungeon.service.DungeonService;
+import com.example.dungeon.solver.Grid;
+import com.example.dungeon.storage.MappedBoardStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/boards")
+public class ReactiveBoardController {
+
+    @Autowired
+    private ReactiveBoardRepository boardRepository;
+
+    @Autowired
+    private MappedBoardStore mappedBoardStore;
+
+    @Autowired
+    private DungeonService dungeonService;
+
+    @Autowired
+    private ReactiveGameStatsService gameStatsService;
+
+    @Autowired
+    private Scheduler solverScheduler;
+
+    // GET all boards
+    @GetMapping
+    public Flux<BoardResponse> getAllBoards() {
+        return boardRepository.findAll().map(BoardResponse::new);
+    }
+
+    // GET board by ID
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<BoardResponse>> getBoardById(@PathVariable Long id) {
+        return boardRepository.findById(id).map(board -> ResponseEntity.ok(new BoardResponse(board)))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    // POST create new board; with dedupe=true an existing board with the same layout is returned instead
+    @PostMapping
+    public Mono<ResponseEntity<BoardResponse>> createBoard(@RequestBody BoardRequest request,
+                                                           @RequestParam(defaultValue = "false") boolean dedupe) {
+        if (!request.hasValidBoard()) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        Mono<Board> existing = dedupe && !mappedBoardStore.shouldMap(request.getBoard())
+                ? findSameLayout(Grid.of(request.getBoard())) : Mono.empty();
+        return existing
+                .switchIfEmpty(Mono.defer(() -> {
+                    Board board = new Board();
+                    board.setName(request.getName());
+                    return storeGrid(board, request.getBoard())
+                            .flatMap(boardRepository::save)
+                            .flatMap(savedBoard -> gameStatsService.createBoardStats(savedBoard.getId()).thenReturn(savedBoard));
+                }))
+                .map(board -> ResponseEntity.ok(new BoardResponse(board)));
+    }
+
+    // GET board statistics
+    @GetMapping("/{id}/stats")
+    public Mono<ResponseEntity<BoardStats>> getBoardStats(@PathVariable Long id) {
+        return gameStatsService.boardStats(id).map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    // PUT update board
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<BoardResponse>> updateBoard(@PathVariable Long id, @RequestBody BoardRequest request) {
+        if (!request.hasValidBoard()) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return boardRepository.findById(id)
+                .flatMap(board -> {
+                    String previousFile = board.getBoardFile();
+                    board.setName(request.getName());
+                    return storeGrid(board, request.getBoard())
+                            .flatMap(boardRepository::save)
+                            .flatMap(savedBoard -> deleteFile(previousFile).thenReturn(savedBoard));
+                })
+                .map(board -> ResponseEntity.ok(new BoardResponse(board)))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    // DELETE board
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteBoard(@PathVariable Long id) {
+        return boardRepository.findBoardFileById(id).map(Optional::of).defaultIfEmpty(Optional.empty())
+                .flatMap(boardFile -> boardRepository.deleteById(id).flatMap(deleted -> deleted == 0
+                        ? Mono.just(ResponseEntity.notFound().<Void>build())
+                        : gameStatsService.deleteBoardStats(id)
+                                .then(deleteFile(boardFile.orElse(null)))
+                                .thenReturn(ResponseEntity.noContent().<Void>build())));
+    }
+
+    // Same content hash and, to rule out a collision, the same cells
+    private Mono<Board> findSameLayout(Grid grid) {
+        return boardRepository.findByContentHash(grid.contentHash())
+                .filter(board -> !board.isMapped() && grid.equals(board.getGrid()))
+                .next();
+    }
+
+    // Oversized boards go to a memory-mapped file, the rest inline in the boards table; either way
+    // the minimum HP is solved once here, on the solver scheduler, instead of on every play
+    private Mono<Board> storeGrid(Board board, int[][] grid) {
+        return Mono.fromCallable(() -> {
+            if (mappedBoardStore.shouldMap(grid)) {
+                board.setBoardFile(mappedBoardStore.write(grid));
+                board.setGrid(null);
+            } else {
+                board.setBoardArray(grid);
+                board.setBoardFile(null);
+            }
+            dungeonService.precompute(board);
+            return board;
+        }).subscribeOn(solverScheduler);
+    }
+
+    private Mono<Void> deleteFile(String boardFile) {
+        if (boardFile == null) {
+            return Mono.empty();
+        }
+        return Mono.fromRunnable(() -> mappedBoardStore.delete(boardFile)).subscribeOn(Schedulers.boundedElastic()).then();
+    }
+}
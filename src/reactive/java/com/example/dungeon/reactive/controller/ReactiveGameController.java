@@ -0,0 +1,152 @@
+package com.example.dungeon.reactive.controller;
+
+import com.example.dungeon.config.GameProperties;
+import com.example.dungeon.controller.GameController.GameResult;
+import com.example.dungeon.controller.GameController.PlayGameRequest;
+import com.example.dungeon.entity.Game;
+import com.example.dungeon.reactive.repository.ReactiveGameRepository;
+import com.example.dungeon.reactive.repository.ReactivePlayerRepository;
+import com.example.dungeon.reactive.service.ReactiveGameListingService;
+import com.example.dungeon.reactive.service.ReactivePlayService;
+import com.example.dungeon.repository.GameSummary;
+import com.example.dungeon.service.GameListingService;
+import com.example.dungeon.service.PlayService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/games")
+public class ReactiveGameController {
+
+    static final String NEXT_CURSOR = "X-Next-Cursor";
+
+    @Autowired
+    private ReactiveGameRepository gameRepository;
+
+    @Autowired
+    private ReactivePlayerRepository playerRepository;
+
+    @Autowired
+    private ReactivePlayService playService;
+
+    @Autowired
+    private GameProperties gameProperties;
+
+    @Autowired
+    private ReactiveGameListingService gameListingService;
+
+    // GET all games, newest first, one page at a time
+    @GetMapping
+    public Mono<ResponseEntity<List<GameSummary>>> getAllGames(@RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer limit) {
+        return page(null, null, cursor, limit);
+    }
+
+    // GET all games as NDJSON, streamed as they are read
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<GameSummary>> streamAllGames(@RequestParam(required = false) String cursor) {
+        return stream(null, null, cursor);
+    }
+
+    // GET game by ID
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Game>> getGameById(@PathVariable Long id) {
+        return gameRepository.findDetailById(id).map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    // GET games by player ID, newest first, one page at a time
+    @GetMapping("/player/{playerId}")
+    public Mono<ResponseEntity<List<GameSummary>>> getGamesByPlayerId(@PathVariable Long playerId,
+                                                                      @RequestParam(required = false) String cursor,
+                                                                      @RequestParam(required = false) Integer limit) {
+        return page(playerId, null, cursor, limit);
+    }
+
+    // GET games by player ID as NDJSON
+    @GetMapping(value = "/player/{playerId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<GameSummary>> streamGamesByPlayerId(@PathVariable Long playerId,
+                                                                   @RequestParam(required = false) String cursor) {
+        return stream(playerId, null, cursor);
+    }
+
+    // GET games by board ID, newest first, one page at a time
+    @GetMapping("/board/{boardId}")
+    public Mono<ResponseEntity<List<GameSummary>>> getGamesByBoardId(@PathVariable Long boardId,
+                                                                     @RequestParam(required = false) String cursor,
+                                                                     @RequestParam(required = false) Integer limit) {
+        return page(null, boardId, cursor, limit);
+    }
+
+    // GET games by board ID as NDJSON
+    @GetMapping(value = "/board/{boardId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<GameSummary>> streamGamesByBoardId(@PathVariable Long boardId,
+                                                                  @RequestParam(required = false) String cursor) {
+        return stream(null, boardId, cursor);
+    }
+
+    // POST play a new game
+    @PostMapping("/play")
+    public Mono<ResponseEntity<GameResult>> playGame(@RequestBody PlayGameRequest request) {
+        return playService.play(request.getPlayerId(), request.getBoardId())
+                .map(game -> ResponseEntity.ok(new GameResult(game.gameId(), game.playerName(), game.boardName(),
+                        game.minimumHealth())))
+                // Only a failed play pays for finding out which one is missing
+                .switchIfEmpty(Mono.defer(() -> playerRepository.existsById(request.getPlayerId())
+                        .map(exists -> ResponseEntity.badRequest()
+                                .body(new GameResult(exists ? "Board not found" : "Player not found")))));
+    }
+
+    // POST play a batch of games, with one result (or error) per play, in request order
+    @PostMapping("/play/batch")
+    public Mono<ResponseEntity<List<GameResult>>> playGames(@RequestBody List<PlayGameRequest> requests) {
+        if (requests.size() > gameProperties.getMaxBatchSize()) {
+            return Mono.just(ResponseEntity.badRequest().body(List.of(
+                    new GameResult("A batch holds at most " + gameProperties.getMaxBatchSize() + " plays"))));
+        }
+        return playService.playAll(requests.stream()
+                        .map(request -> new PlayService.PlayRequest(request.getPlayerId(), request.getBoardId()))
+                        .toList())
+                .map(outcomes -> ResponseEntity.ok(outcomes.stream()
+                        .map(outcome -> outcome.game() == null
+                                ? new GameResult(outcome.error())
+                                : new GameResult(outcome.game().gameId(), outcome.game().playerName(),
+                                        outcome.game().boardName(), outcome.game().minimumHealth()))
+                        .toList()));
+    }
+
+    // The cursor of the next page, if any, goes in the X-Next-Cursor header
+    private Mono<ResponseEntity<List<GameSummary>>> page(Long playerId, Long boardId, String cursor, Integer limit) {
+        GameListingService.Cursor position;
+        try {
+            position = cursor == null ? null : GameListingService.Cursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return gameListingService.page(playerId, boardId, position, limit).map(page -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                response.header(NEXT_CURSOR, page.nextCursor());
+            }
+            return response.body(page.games());
+        });
+    }
+
+    private ResponseEntity<Flux<GameSummary>> stream(Long playerId, Long boardId, String cursor) {
+        GameListingService.Cursor position;
+        try {
+            position = cursor == null ? null : GameListingService.Cursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(gameListingService.stream(playerId, boardId, position));
+    }
+}
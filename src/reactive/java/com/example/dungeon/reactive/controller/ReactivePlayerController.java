@@ -0,0 +1,80 @@
+package com.example.dungeon.reactive.controller;
+
+import com.example.dungeon.entity.Player;
+import com.example.dungeon.entity.PlayerStats;
+import com.example.dungeon.reactive.repository.ReactivePlayerRepository;
+import com.example.dungeon.reactive.service.ReactiveGameStatsService;
+import com.example.dungeon.repository.LeaderboardEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/players")
+public class ReactivePlayerController {
+
+    static final int MAX_LEADERBOARD_SIZE = 100;
+
+    @Autowired
+    private ReactivePlayerRepository playerRepository;
+
+    @Autowired
+    private ReactiveGameStatsService gameStatsService;
+
+    // GET all players
+    @GetMapping
+    public Flux<Player> getAllPlayers() {
+        return playerRepository.findAll();
+    }
+
+    // GET player by ID
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Player>> getPlayerById(@PathVariable Long id) {
+        return playerRepository.findById(id).map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    // GET player statistics
+    @GetMapping("/{id}/stats")
+    public Mono<ResponseEntity<PlayerStats>> getPlayerStats(@PathVariable Long id) {
+        return gameStatsService.playerStats(id).map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    // GET the players with the most games played
+    @GetMapping("/leaderboard")
+    public Flux<LeaderboardEntry> getLeaderboard(@RequestParam(defaultValue = "10") int limit) {
+        return gameStatsService.leaderboard(Math.min(Math.max(limit, 1), MAX_LEADERBOARD_SIZE));
+    }
+
+    // POST create new player
+    @PostMapping
+    public Mono<Player> createPlayer(@RequestBody Player player) {
+        player.setId(null);
+        return playerRepository.save(player)
+                .flatMap(savedPlayer -> gameStatsService.createPlayerStats(savedPlayer.getId()).thenReturn(savedPlayer));
+    }
+
+    // PUT update player
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Player>> updatePlayer(@PathVariable Long id, @RequestBody Player playerDetails) {
+        return playerRepository.findById(id)
+                .flatMap(player -> {
+                    player.setName(playerDetails.getName());
+                    player.setEmail(playerDetails.getEmail());
+                    return playerRepository.save(player);
+                })
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    // DELETE player
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deletePlayer(@PathVariable Long id) {
+        return playerRepository.deleteById(id).flatMap(deleted -> deleted == 0
+                ? Mono.just(ResponseEntity.notFound().<Void>build())
+                : gameStatsService.deletePlayerStats(id).thenReturn(ResponseEntity.noContent().<Void>build()));
+    }
+}
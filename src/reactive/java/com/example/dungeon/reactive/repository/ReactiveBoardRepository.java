@@ -0,0 +1,119 @@
+package com.example.dungeon.reactive.repository;
+
+import com.example.dungeon.entity.Board;
+import com.example.dungeon.repository.BoardPlayInfo;
+import com.example.dungeon.service.DungeonService;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.Parameter;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+// BoardRepository over R2DBC, reading the boards table into the shared Board class
+@Repository
+public class ReactiveBoardRepository {
+
+    private static final String SELECT = "select id, name, board_data, board_bytes, board_file, min_hp, "
+            + "min_hp_version, content_hash from boards";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    public Flux<Board> findAll() {
+        return databaseClient.sql(SELECT + " order by id").map(ReactiveBoardRepository::board).all();
+    }
+
+    public Mono<Board> findById(Long id) {
+        return databaseClient.sql(SELECT + " where id = :id").bind("id", id).map(ReactiveBoardRepository::board).one();
+    }
+
+    public Flux<Board> findAllById(Collection<Long> ids) {
+        return databaseClient.sql(SELECT + " where id in (:ids)").bind("ids", ids).map(ReactiveBoardRepository::board).all();
+    }
+
+    public Flux<Board> findByContentHash(Long contentHash) {
+        return databaseClient.sql(SELECT + " where content_hash = :hash").bind("hash", contentHash)
+                .map(ReactiveBoardRepository::board).all();
+    }
+
+    public Flux<BoardPlayInfo> findPlayInfoByIdIn(Collection<Long> ids) {
+        return databaseClient.sql("select id, name, min_hp, min_hp_version from boards where id in (:ids)")
+                .bind("ids", ids)
+                .map(row -> new BoardPlayInfo(row.get("id", Long.class), row.get("name", String.class),
+                        row.get("min_hp", Integer.class), row.get("min_hp_version", Integer.class)))
+                .all();
+    }
+
+    public Mono<String> findBoardFileById(Long id) {
+        return databaseClient.sql("select board_file from boards where id = :id and board_file is not null")
+                .bind("id", id).map(row -> row.get("board_file", String.class)).one();
+    }
+
+    // Inserts a board without an id, rewrites every column of one with
+    public Mono<Board> save(Board board) {
+        if (board.getId() == null) {
+            return bindColumns(databaseClient.sql("insert into boards (name, board_data, board_bytes, board_file, "
+                    + "min_hp, min_hp_version, content_hash) values (:name, :boardData, :boardBytes, :boardFile, "
+                    + ":minHp, :minHpVersion, :contentHash)"), board)
+                    .filter(statement -> statement.returnGeneratedValues("id"))
+                    .map(row -> row.get("id", Long.class)).one()
+                    .map(id -> {
+                        board.setId(id);
+                        return board;
+                    });
+        }
+        return bindColumns(databaseClient.sql("update boards set name = :name, board_data = :boardData, "
+                + "board_bytes = :boardBytes, board_file = :boardFile, min_hp = :minHp, "
+                + "min_hp_version = :minHpVersion, content_hash = :contentHash where id = :id"), board)
+                .bind("id", board.getId())
+                .fetch().rowsUpdated().thenReturn(board);
+    }
+
+    // Stores a board's freshly solved minimum HP without rewriting its grid, only while the board still has the
+    // content hash its grid was read with (see BoardStampService); false when it was rewritten or deleted since
+    public Mono<Boolean> saveMinHp(Long boardId, Long readHash, DungeonService.Stamp stamp) {
+        String sql = "update boards set content_hash = :contentHash, min_hp = :minHp, min_hp_version = :minHpVersion "
+                + "where id = :id and " + (readHash == null ? "content_hash is null" : "content_hash = :readHash");
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql)
+                .bind("contentHash", stamp.contentHash())
+                .bind("minHp", stamp.minHp())
+                .bind("minHpVersion", DungeonService.SOLVER_VERSION)
+                .bind("id", boardId);
+        if (readHash != null) {
+            spec = spec.bind("readHash", readHash);
+        }
+        return spec.fetch().rowsUpdated().map(updated -> updated > 0);
+    }
+
+    // The number of boards deleted, 0 or 1
+    public Mono<Long> deleteById(Long id) {
+        return databaseClient.sql("delete from boards where id = :id").bind("id", id).fetch().rowsUpdated();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindColumns(DatabaseClient.GenericExecuteSpec spec, Board board) {
+        return spec.bind("name", board.getName())
+                .bind("boardData", Parameter.fromOrEmpty(board.getBoardData(), String.class))
+                .bind("boardBytes", Parameter.fromOrEmpty(board.getBoardBytes(), byte[].class))
+                .bind("boardFile", Parameter.fromOrEmpty(board.getBoardFile(), String.class))
+                .bind("minHp", Parameter.fromOrEmpty(board.getMinHp(), Integer.class))
+                .bind("minHpVersion", Parameter.fromOrEmpty(board.getMinHpVersion(), Integer.class))
+                .bind("contentHash", Parameter.fromOrEmpty(board.getContentHash(), Long.class));
+    }
+
+    static Board board(Readable row) {
+        Board board = new Board();
+        board.setId(row.get("id", Long.class));
+        board.setName(row.get("name", String.class));
+        board.setBoardData(row.get("board_data", String.class));
+        board.setBoardBytes(row.get("board_bytes", byte[].class));
+        board.setBoardFile(row.get("board_file", String.class));
+        board.setMinHp(row.get("min_hp", Integer.class));
+        board.setMinHpVersion(row.get("min_hp_version", Integer.class));
+        board.setContentHash(row.get("content_hash", Long.class));
+        return board;
+    }
+}
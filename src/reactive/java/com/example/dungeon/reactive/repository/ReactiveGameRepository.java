@@ -0,0 +1,139 @@
+package com.example.dungeon.reactive.repository;
+
+import com.example.dungeon.entity.Board;
+import com.example.dungeon.entity.Game;
+import com.example.dungeon.entity.Player;
+import com.example.dungeon.repository.GameSummary;
+import com.example.dungeon.repository.PlayContext;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// GameRepository over R2DBC: the same keyset listings, detail and play context queries in SQL
+@Repository
+public class ReactiveGameRepository {
+
+    // Keyset pagination, newest first: games strictly before the (playedAt, id) of the last one seen
+    private static final String LISTING = "select g.id, p.id as player_id, p.name as player_name, b.id as board_id, "
+            + "b.name as board_name, g.result, g.played_at from games g "
+            + "join players p on p.id = g.player_id join boards b on b.id = g.board_id where ";
+    private static final String BEFORE = "(g.played_at < :playedAt or (g.played_at = :playedAt and g.id < :id))";
+    private static final String NEWEST_FIRST = " order by g.played_at desc, g.id desc";
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final int MAX_ROWS = 65_535 / 5; // PostgreSQL's bind parameter limit, five per row
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    // The full game, with its player and board, for the detail endpoint
+    public Mono<Game> findDetailById(Long id) {
+        return databaseClient.sql("select g.id, g.result, g.played_at, p.id as player_id, p.name as player_name, "
+                        + "p.email as player_email, b.id as board_id, b.name as board_name, b.board_file, b.min_hp, "
+                        + "b.min_hp_version from games g join players p on p.id = g.player_id "
+                        + "join boards b on b.id = g.board_id where g.id = :id")
+                .bind("id", id)
+                .map(row -> {
+                    Player player = new Player(row.get("player_name", String.class), row.get("player_email", String.class));
+                    player.setId(row.get("player_id", Long.class));
+                    Board board = new Board();
+                    board.setId(row.get("board_id", Long.class));
+                    board.setName(row.get("board_name", String.class));
+                    board.setBoardFile(row.get("board_file", String.class));
+                    board.setMinHp(row.get("min_hp", Integer.class));
+                    board.setMinHpVersion(row.get("min_hp_version", Integer.class));
+                    Game game = new Game(player, board, row.get("result", Integer.class));
+                    game.setId(row.get("id", Long.class));
+                    game.setPlayedAt(row.get("played_at", LocalDateTime.class));
+                    return game;
+                })
+                .one();
+    }
+
+    public Flux<GameSummary> findPageBefore(LocalDateTime playedAt, Long id, int limit) {
+        return page(LISTING + BEFORE + NEWEST_FIRST + " limit :limit", playedAt, id, limit)
+                .map(ReactiveGameRepository::summary).all();
+    }
+
+    public Flux<GameSummary> findPageByPlayerIdBefore(Long playerId, LocalDateTime playedAt, Long id, int limit) {
+        return page(LISTING + "p.id = :playerId and " + BEFORE + NEWEST_FIRST + " limit :limit", playedAt, id, limit)
+                .bind("playerId", playerId).map(ReactiveGameRepository::summary).all();
+    }
+
+    public Flux<GameSummary> findPageByBoardIdBefore(Long boardId, LocalDateTime playedAt, Long id, int limit) {
+        return page(LISTING + "b.id = :boardId and " + BEFORE + NEWEST_FIRST + " limit :limit", playedAt, id, limit)
+                .bind("boardId", boardId).map(ReactiveGameRepository::summary).all();
+    }
+
+    // Rows are fetched as the subscriber requests them, so a listing of any length streams in flat memory
+    public Flux<GameSummary> streamBefore(LocalDateTime playedAt, Long id) {
+        return stream(LISTING + BEFORE + NEWEST_FIRST, playedAt, id).map(ReactiveGameRepository::summary).all();
+    }
+
+    public Flux<GameSummary> streamByPlayerIdBefore(Long playerId, LocalDateTime playedAt, Long id) {
+        return stream(LISTING + "p.id = :playerId and " + BEFORE + NEWEST_FIRST, playedAt, id)
+                .bind("playerId", playerId).map(ReactiveGameRepository::summary).all();
+    }
+
+    public Flux<GameSummary> streamByBoardIdBefore(Long boardId, LocalDateTime playedAt, Long id) {
+        return stream(LISTING + "b.id = :boardId and " + BEFORE + NEWEST_FIRST, playedAt, id)
+                .bind("boardId", boardId).map(ReactiveGameRepository::summary).all();
+    }
+
+    // Empty when either the player or the board does not exist
+    public Mono<PlayContext> findPlayContext(Long playerId, Long boardId) {
+        return databaseClient.sql("select p.name as player_name, b.name as board_name, b.min_hp, b.min_hp_version "
+                        + "from players p, boards b where p.id = :playerId and b.id = :boardId")
+                .bind("playerId", playerId)
+                .bind("boardId", boardId)
+                .map(row -> new PlayContext(row.get("player_name", String.class), row.get("board_name", String.class),
+                        row.get("min_hp", Integer.class), row.get("min_hp_version", Integer.class)))
+                .one();
+    }
+
+    // Inserts games that already have their ids, in multi-row INSERTs
+    public Mono<Void> insertAll(List<Game> games) {
+        return Flux.range(0, (games.size() + MAX_ROWS - 1) / MAX_ROWS)
+                .concatMap(chunk -> insert(games.subList(chunk * MAX_ROWS, Math.min(games.size(), (chunk + 1) * MAX_ROWS))))
+                .then();
+    }
+
+    private Mono<Long> insert(List<Game> games) {
+        StringBuilder sql = new StringBuilder("insert into games (id, player_id, board_id, result, played_at) values ");
+        for (int k = 0; k < games.size(); k++) {
+            sql.append(k == 0 ? "" : ", ").append("(:id").append(k).append(", :player").append(k)
+                    .append(", :board").append(k).append(", :result").append(k).append(", :playedAt").append(k).append(')');
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (int k = 0; k < games.size(); k++) {
+            Game game = games.get(k);
+            spec = spec.bind("id" + k, game.getId())
+                    .bind("player" + k, game.getPlayer().getId())
+                    .bind("board" + k, game.getBoard().getId())
+                    .bind("result" + k, game.getResult())
+                    .bind("playedAt" + k, game.getPlayedAt());
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    private DatabaseClient.GenericExecuteSpec page(String sql, LocalDateTime playedAt, Long id, int limit) {
+        return databaseClient.sql(sql).bind("playedAt", playedAt).bind("id", id).bind("limit", limit);
+    }
+
+    private DatabaseClient.GenericExecuteSpec stream(String sql, LocalDateTime playedAt, Long id) {
+        return databaseClient.sql(sql).bind("playedAt", playedAt).bind("id", id)
+                .filter(statement -> statement.fetchSize(STREAM_FETCH_SIZE));
+    }
+
+    static GameSummary summary(Readable row) {
+        return new GameSummary(row.get("id", Long.class), row.get("player_id", Long.class),
+                row.get("player_name", String.class), row.get("board_id", Long.class),
+                row.get("board_name", String.class), row.get("result", Integer.class),
+                row.get("played_at", LocalDateTime.class));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.dungeon.reactive.repository;
+
+import com.example.dungeon.entity.Player;
+import com.example.dungeon.repository.PlayerName;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.Parameter;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+// PlayerRepository over R2DBC, reading the players table into the shared Player class
+@Repository
+public class ReactivePlayerRepository {
+
+    private static final String SELECT = "select id, name, email from players";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    public Flux<Player> findAll() {
+        return databaseClient.sql(SELECT + " order by id").map(ReactivePlayerRepository::player).all();
+    }
+
+    public Mono<Player> findById(Long id) {
+        return databaseClient.sql(SELECT + " where id = :id").bind("id", id).map(ReactivePlayerRepository::player).one();
+    }
+
+    public Mono<Boolean> existsById(Long id) {
+        return databaseClient.sql("select 1 from players where id = :id").bind("id", id)
+                .map(row -> true).first().defaultIfEmpty(false);
+    }
+
+    public Flux<PlayerName> findNamesByIdIn(Collection<Long> ids) {
+        return databaseClient.sql("select id, name from players where id in (:ids)").bind("ids", ids)
+                .map(row -> new PlayerName(row.get("id", Long.class), row.get("name", String.class))).all();
+    }
+
+    // Inserts a player without an id, updates one with
+    public Mono<Player> save(Player player) {
+        if (player.getId() == null) {
+            return databaseClient.sql("insert into players (name, email) values (:name, :email)")
+                    .bind("name", player.getName())
+                    .bind("email", Parameter.fromOrEmpty(player.getEmail(), String.class))
+                    .filter(statement -> statement.returnGeneratedValues("id"))
+                    .map(row -> row.get("id", Long.class)).one()
+                    .map(id -> {
+                        player.setId(id);
+                        return player;
+                    });
+        }
+        return databaseClient.sql("update players set name = :name, email = :email where id = :id")
+                .bind("name", player.getName())
+                .bind("email", Parameter.fromOrEmpty(player.getEmail(), String.class))
+                .bind("id", player.getId())
+                .fetch().rowsUpdated().thenReturn(player);
+    }
+
+    // The number of players deleted, 0 or 1
+    public Mono<Long> deleteById(Long id) {
+        return databaseClient.sql("delete from players where id = :id").bind("id", id).fetch().rowsUpdated();
+    }
+
+    static Player player(Readable row) {
+        Player player = new Player(row.get("name", String.class), row.get("email", String.class));
+        player.setId(row.get("id", Long.class));
+        return player;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.dungeon.reactive.service;
+
+import com.example.dungeon.entity.Game;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Game ids from {@link Game#ID_SEQUENCE}, in blocks of
+ * {@link Game#ID_ALLOCATION} the way Hibernate's pooled optimizer (and the
+ * servlet application's GameIdSequence) takes them, so both applications
+ * can insert games into the same table. The lock only guards the block;
+ * nothing waits on the database while holding it. When two callers refill
+ * at once, one block is used and the other is skipped.
+ */
+@Service
+public class ReactiveGameIds {
+
+    private static final String NEXT_VALUE = "select nextval('" + Game.ID_SEQUENCE + "')";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private final Object lock = new Object();
+    private long next;
+    private long hi;
+
+    public Mono<Long> next() {
+        synchronized (lock) {
+            if (next != 0 && next <= hi) {
+                return Mono.just(next++);
+            }
+        }
+        return databaseClient.sql(NEXT_VALUE).map(row -> row.get(0, Long.class)).one()
+                .map(value -> {
+                    synchronized (lock) {
+                        if (next == 0 || next > hi) {
+                            hi = value;
+                            next = Math.max(1, value - Game.ID_ALLOCATION + 1);
+                        }
+                        return next++;
+                    }
+                });
+    }
+}
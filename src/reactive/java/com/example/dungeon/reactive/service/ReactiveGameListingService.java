@@ -0,0 +1,57 @@
+package com.example.dungeon.reactive.service;
+
+import com.example.dungeon.config.GameProperties;
+import com.example.dungeon.reactive.repository.ReactiveGameRepository;
+import com.example.dungeon.repository.GameSummary;
+import com.example.dungeon.service.GameListingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// GameListingService over R2DBC: the same keyset pages and cursors; streams are Fluxes the codec writes as NDJSON
+@Service
+public class ReactiveGameListingService {
+
+    @Autowired
+    private ReactiveGameRepository gameRepository;
+
+    @Autowired
+    private GameProperties properties;
+
+    // The page before the cursor (the first page without one); limit defaults to and is capped by the properties
+    public Mono<GameListingService.GamePage> page(Long playerId, Long boardId, GameListingService.Cursor cursor,
+                                                  Integer limit) {
+        int size = Math.min(limit == null ? properties.getPageSize() : Math.max(limit, 1), properties.getMaxPageSize());
+        GameListingService.Cursor before = cursor == null ? GameListingService.Cursor.START : cursor;
+        // One row past the page tells whether there is a next one
+        Flux<GameSummary> games = playerId != null
+                ? gameRepository.findPageByPlayerIdBefore(playerId, before.playedAt(), before.id(), size + 1)
+                : boardId != null
+                ? gameRepository.findPageByBoardIdBefore(boardId, before.playedAt(), before.id(), size + 1)
+                : gameRepository.findPageBefore(before.playedAt(), before.id(), size + 1);
+        return games.collectList().map(list -> {
+            if (list.size() <= size) {
+                return new GameListingService.GamePage(list, null);
+            }
+            List<GameSummary> page = list.subList(0, size);
+            GameSummary last = page.get(size - 1);
+            return new GameListingService.GamePage(page,
+                    new GameListingService.Cursor(last.playedAt(), last.id()).encode());
+        });
+    }
+
+    // Every game before the cursor, read as the client consumes them
+    public Flux<GameSummary> stream(Long playerId, Long boardId, GameListingService.Cursor cursor) {
+        GameListingService.Cursor before = cursor == null ? GameListingService.Cursor.START : cursor;
+        if (playerId != null) {
+            return gameRepository.streamByPlayerIdBefore(playerId, before.playedAt(), before.id());
+        }
+        if (boardId != null) {
+            return gameRepository.streamByBoardIdBefore(boardId, before.playedAt(), before.id());
+        }
+        return gameRepository.streamBefore(before.playedAt(), before.id());
+    }
+}
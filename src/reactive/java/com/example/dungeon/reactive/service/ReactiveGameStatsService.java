@@ -0,0 +1,209 @@
+package com.example.dungeon.reactive.service;
+
+import com.example.dungeon.config.GameProperties;
+import com.example.dungeon.entity.BoardStats;
+import com.example.dungeon.entity.PlayerStats;
+import com.example.dungeon.repository.LeaderboardEntry;
+import com.example.dungeon.service.GameStatsService;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@link GameStatsService} over R2DBC: the same {@code player_stats} and
+ * {@code board_stats} rows, updated with the same upserts (one per distinct
+ * player and board of a batch, in id order). Plays subscribe to
+ * {@link #record(List)} once their games have committed, so each upsert is
+ * its own short statement rather than a row lock held through the play's
+ * transaction. As there, a delta is only applied while its player or board
+ * exists, and on startup every row is rebuilt from an aggregate of its games
+ * (or, with {@code stats-rebuild-on-start} off, just the missing ones), so
+ * the stats of games whose upserts never ran are recovered.
+ */
+@Service
+@DependsOnDatabaseInitialization
+public class ReactiveGameStatsService {
+
+    private static final String COLUMNS = "games_played, best_min_hp, worst_min_hp, total_min_hp, last_played_at";
+    // Only for a player or board that still exists, so a delta applied after its row was deleted doesn't
+    // bring it back. PostgreSQL's least and greatest ignore nulls, so an empty row takes the delta's values
+    private static final String UPSERT = "insert into %1$s as s (%2$s, " + COLUMNS + ") select d.* from (values "
+            + "(cast(:id as bigint), cast(:count as bigint), cast(:best as integer), cast(:worst as integer), "
+            + "cast(:total as bigint), cast(:last as timestamp))) d (id, " + COLUMNS + ") "
+            + "where exists (select 1 from %3$s e where e.id = d.id) "
+            + "on conflict (%2$s) do update set games_played = s.games_played + excluded.games_played, "
+            + "best_min_hp = least(s.best_min_hp, excluded.best_min_hp), "
+            + "worst_min_hp = greatest(s.worst_min_hp, excluded.worst_min_hp), "
+            + "total_min_hp = s.total_min_hp + excluded.total_min_hp, "
+            + "last_played_at = greatest(s.last_played_at, excluded.last_played_at)";
+    // Other databases (H2 in tests), which have no on conflict ... do update
+    private static final String MERGE = "merge into %1$s s using (select v.* from (values (cast(:id as bigint), "
+            + "cast(:count as bigint), cast(:best as integer), cast(:worst as integer), cast(:total as bigint), "
+            + "cast(:last as timestamp))) v (id, " + COLUMNS + ") where exists (select 1 from %3$s e where e.id = v.id)) d "
+            + "on s.%2$s = d.id "
+            + "when matched then update set games_played = s.games_played + d.games_played, "
+            + "best_min_hp = case when s.best_min_hp is null or s.best_min_hp > d.best_min_hp then d.best_min_hp else s.best_min_hp end, "
+            + "worst_min_hp = case when s.worst_min_hp is null or s.worst_min_hp < d.worst_min_hp then d.worst_min_hp else s.worst_min_hp end, "
+            + "total_min_hp = s.total_min_hp + d.total_min_hp, "
+            + "last_played_at = case when s.last_played_at is null or s.last_played_at < d.last_played_at then d.last_played_at else s.last_played_at end "
+            + "when not matched then insert (%2$s, " + COLUMNS + ") values (d.id, d." + COLUMNS.replace(", ", ", d.") + ")";
+    private static final String INSERT_MISSING = "insert into %1$s (%2$s, " + COLUMNS + ") "
+            + "select e.id, count(g.id), min(g.result), max(g.result), coalesce(sum(g.result), 0), max(g.played_at) "
+            + "from %3$s e left join games g on g.%2$s = e.id "
+            + "where not exists (select 1 from %1$s s where s.%2$s = e.id) group by e.id";
+    private static final String CREATE = "insert into %1$s (%2$s, games_played, total_min_hp) values (:id, 0, 0)";
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Autowired
+    private GameProperties properties;
+
+    private String upsertSql;
+
+    // Before the application serves plays
+    @PostConstruct
+    public void start() {
+        upsertSql = "PostgreSQL".equals(connectionFactory.getMetadata().getName()) ? UPSERT : MERGE;
+        (properties.isStatsRebuildOnStart() ? rebuildStats() : createMissingStats()).block();
+    }
+
+    // Rows for the players and boards that have none, from their games
+    public Mono<Void> createMissingStats() {
+        return databaseClient.sql(INSERT_MISSING.formatted("player_stats", "player_id", "players")).then()
+                .then(databaseClient.sql(INSERT_MISSING.formatted("board_stats", "board_id", "boards")).then());
+    }
+
+    // Every row replaced by an aggregate of its games, in one transaction, as GameStatsService.rebuildStats does
+    public Mono<Void> rebuildStats() {
+        return transactionalOperator.transactional(databaseClient.sql("delete from player_stats").then()
+                .then(databaseClient.sql("delete from board_stats").then())
+                .then(createMissingStats()));
+    }
+
+    public Mono<PlayerStats> playerStats(Long playerId) {
+        return databaseClient.sql("select player_id, " + COLUMNS + " from player_stats where player_id = :id")
+                .bind("id", playerId)
+                .map(row -> {
+                    PlayerStats stats = new PlayerStats(row.get("player_id", Long.class));
+                    stats.setGamesPlayed(row.get("games_played", Long.class));
+                    stats.setBestMinHp(row.get("best_min_hp", Integer.class));
+                    stats.setWorstMinHp(row.get("worst_min_hp", Integer.class));
+                    stats.setTotalMinHp(row.get("total_min_hp", Long.class));
+                    stats.setLastPlayedAt(row.get("last_played_at", LocalDateTime.class));
+                    return stats;
+                })
+                .one();
+    }
+
+    public Mono<BoardStats> boardStats(Long boardId) {
+        return databaseClient.sql("select board_id, " + COLUMNS + " from board_stats where board_id = :id")
+                .bind("id", boardId)
+                .map(row -> {
+                    BoardStats stats = new BoardStats(row.get("board_id", Long.class));
+                    stats.setGamesPlayed(row.get("games_played", Long.class));
+                    stats.setBestMinHp(row.get("best_min_hp", Integer.class));
+                    stats.setWorstMinHp(row.get("worst_min_hp", Integer.class));
+                    stats.setTotalMinHp(row.get("total_min_hp", Long.class));
+                    stats.setLastPlayedAt(row.get("last_played_at", LocalDateTime.class));
+                    return stats;
+                })
+                .one();
+    }
+
+    // The players with the most games played, at most limit of them
+    public Flux<LeaderboardEntry> leaderboard(int limit) {
+        return databaseClient.sql("select s.player_id, p.name, s.games_played, s.best_min_hp, s.worst_min_hp, "
+                        + "s.total_min_hp, s.last_played_at from player_stats s join players p on p.id = s.player_id "
+                        + "where s.games_played > 0 order by s.games_played desc, s.player_id desc limit :limit")
+                .bind("limit", limit)
+                .map(ReactiveGameStatsService::leaderboardEntry)
+                .all();
+    }
+
+    public Mono<Void> createPlayerStats(Long playerId) {
+        return databaseClient.sql(CREATE.formatted("player_stats", "player_id")).bind("id", playerId).then();
+    }
+
+    public Mono<Void> createBoardStats(Long boardId) {
+        return databaseClient.sql(CREATE.formatted("board_stats", "board_id")).bind("id", boardId).then();
+    }
+
+    public Mono<Void> deletePlayerStats(Long playerId) {
+        return databaseClient.sql("delete from player_stats where player_id = :id").bind("id", playerId).then();
+    }
+
+    public Mono<Void> deleteBoardStats(Long boardId) {
+        return databaseClient.sql("delete from board_stats where board_id = :id").bind("id", boardId).then();
+    }
+
+    // Subscribe once the transaction that inserted the games has committed
+    public Mono<Void> record(List<GameStatsService.RecordedGame> games) {
+        Map<Long, Delta> players = new TreeMap<>();
+        Map<Long, Delta> boards = new TreeMap<>();
+        for (GameStatsService.RecordedGame game : games) {
+            players.computeIfAbsent(game.playerId(), id -> new Delta()).add(game);
+            boards.computeIfAbsent(game.boardId(), id -> new Delta()).add(game);
+        }
+        return Flux.fromIterable(players.entrySet())
+                .concatMap(entry -> upsert("player_stats", "player_id", "players", entry.getKey(), entry.getValue()))
+                .thenMany(Flux.fromIterable(boards.entrySet())
+                        .concatMap(entry -> upsert("board_stats", "board_id", "boards", entry.getKey(), entry.getValue())))
+                .then();
+    }
+
+    private Mono<Void> upsert(String table, String key, String entities, Long id, Delta delta) {
+        return databaseClient.sql(upsertSql.formatted(table, key, entities))
+                .bind("id", id)
+                .bind("count", delta.count)
+                .bind("best", delta.best)
+                .bind("worst", delta.worst)
+                .bind("total", delta.total)
+                .bind("last", delta.last)
+                .then();
+    }
+
+    private static LeaderboardEntry leaderboardEntry(Readable row) {
+        return new LeaderboardEntry(row.get("player_id", Long.class), row.get("name", String.class),
+                row.get("games_played", Long.class), row.get("best_min_hp", Integer.class),
+                row.get("worst_min_hp", Integer.class), row.get("total_min_hp", Long.class),
+                row.get("last_played_at", LocalDateTime.class));
+    }
+
+    // Games of one player or board, folded together
+    private static final class Delta {
+        private long count;
+        private int best = Integer.MAX_VALUE;
+        private int worst = Integer.MIN_VALUE;
+        private long total;
+        private LocalDateTime last;
+
+        void add(GameStatsService.RecordedGame game) {
+            count++;
+            best = Math.min(best, game.result());
+            worst = Math.max(worst, game.result());
+            total += game.result();
+            if (last == null || game.playedAt().isAfter(last)) {
+                last = game.playedAt();
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.dungeon.reactive.service;
+
+import com.example.dungeon.entity.Board;
+import com.example.dungeon.entity.Game;
+import com.example.dungeon.entity.Player;
+import com.example.dungeon.reactive.repository.ReactiveBoardRepository;
+import com.example.dungeon.reactive.repository.ReactiveGameRepository;
+import com.example.dungeon.reactive.repository.ReactivePlayerRepository;
+import com.example.dungeon.repository.BoardPlayInfo;
+import com.example.dungeon.repository.PlayerName;
+import com.example.dungeon.service.DungeonService;
+import com.example.dungeon.service.GameStatsService;
+import com.example.dungeon.service.PlayService;
+import com.example.dungeon.solver.SolveProgress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link PlayService} without blocking: the same queries and outcomes, with
+ * boards lacking a current minimum HP solved on the solver scheduler, so an
+ * event loop thread never runs the solver. Write-behind is not supported
+ * here; games are always inserted by the play. Only that insert is a
+ * transaction, so no connection is held while a board is solved, and the
+ * stats are recorded once it has committed.
+ */
+@Service
+public class ReactivePlayService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactivePlayService.class);
+
+    @Autowired
+    private ReactiveGameRepository gameRepository;
+
+    @Autowired
+    private ReactivePlayerRepository playerRepository;
+
+    @Autowired
+    private ReactiveBoardRepository boardRepository;
+
+    @Autowired
+    private ReactiveGameIds gameIds;
+
+    @Autowired
+    private ReactiveGameStatsService gameStatsService;
+
+    @Autowired
+    private DungeonService dungeonService;
+
+    @Autowired
+    private Scheduler solverScheduler;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    // Empty when the player or the board does not exist
+    public Mono<PlayService.PlayedGame> play(Long playerId, Long boardId) {
+        return gameRepository.findPlayContext(playerId, boardId).flatMap(context -> {
+            Integer stored = context.minHpFor(DungeonService.SOLVER_VERSION);
+            Mono<Integer> minHealth = stored != null ? Mono.just(stored)
+                    : boardRepository.findById(boardId).flatMap(this::solve).map(DungeonService.Stamp::minHp);
+            return minHealth.zipWith(gameIds.next()).flatMap(tuple -> {
+                Game game = game(tuple.getT2(), playerId, boardId, tuple.getT1());
+                return insert(List.of(game))
+                        .thenReturn(new PlayService.PlayedGame(game.getId(), context.playerName(),
+                                context.boardName(), game.getResult()));
+            });
+        });
+    }
+
+    // One outcome per request, in request order; a failed play doesn't fail the others
+    public Mono<List<PlayService.PlayOutcome>> playAll(List<PlayService.PlayRequest> requests) {
+        Set<Long> playerIds = new HashSet<>();
+        Set<Long> boardIds = new HashSet<>();
+        for (PlayService.PlayRequest request : requests) {
+            if (request.playerId() != null) playerIds.add(request.playerId());
+            if (request.boardId() != null) boardIds.add(request.boardId());
+        }
+        Mono<Map<Long, String>> playerNames = playerIds.isEmpty() ? Mono.just(Map.of())
+                : playerRepository.findNamesByIdIn(playerIds).collectMap(PlayerName::id, PlayerName::name);
+        Mono<Map<Long, BoardPlayInfo>> boards = boardIds.isEmpty() ? Mono.just(Map.of())
+                : boardRepository.findPlayInfoByIdIn(boardIds).collectMap(BoardPlayInfo::id);
+        return Mono.zip(playerNames, boards)
+                .flatMap(found -> minHealth(requests, found.getT1(), found.getT2())
+                        .flatMap(minHealth -> record(requests, found.getT1(), found.getT2(), minHealth)));
+    }
+
+    // Only boards some valid play needs are solved, each once however often it is played
+    private Mono<Map<Long, Integer>> minHealth(List<PlayService.PlayRequest> requests, Map<Long, String> playerNames,
+                                               Map<Long, BoardPlayInfo> boards) {
+        Map<Long, Integer> minHealth = new HashMap<>();
+        Set<Long> unsolved = new HashSet<>();
+        for (PlayService.PlayRequest request : requests) {
+            BoardPlayInfo board = boards.get(request.boardId());
+            if (board == null || !playerNames.containsKey(request.playerId())) continue;
+            Integer stored = board.minHpFor(DungeonService.SOLVER_VERSION);
+            if (stored != null) {
+                minHealth.put(board.id(), stored);
+            } else {
+                unsolved.add(board.id());
+            }
+        }
+        if (unsolved.isEmpty()) {
+            return Mono.just(minHealth);
+        }
+        // A board that fails to solve is logged and left out, so one bad board doesn't fail the others
+        return boardRepository.findAllById(unsolved)
+                .flatMap(board -> solve(board).map(stamp -> Map.entry(board.getId(), stamp.minHp())).onErrorResume(e -> {
+                    log.warn("Could not solve board {}", board.getId(), e);
+                    return Mono.empty();
+                }))
+                .doOnNext(solved -> minHealth.put(solved.getKey(), solved.getValue()))
+                .then(Mono.just(minHealth));
+    }
+
+    private Mono<List<PlayService.PlayOutcome>> record(List<PlayService.PlayRequest> requests,
+                                                       Map<Long, String> playerNames, Map<Long, BoardPlayInfo> boards,
+                                                       Map<Long, Integer> minHealth) {
+        PlayService.PlayOutcome[] outcomes = new PlayService.PlayOutcome[requests.size()];
+        List<Integer> gameIndexes = new ArrayList<>();
+        for (int k = 0; k < requests.size(); k++) {
+            PlayService.PlayRequest request = requests.get(k);
+            BoardPlayInfo board = boards.get(request.boardId());
+            if (!playerNames.containsKey(request.playerId())) {
+                outcomes[k] = PlayService.PlayOutcome.failed("Player not found");
+            } else if (board == null) {
+                outcomes[k] = PlayService.PlayOutcome.failed("Board not found");
+            } else if (!minHealth.containsKey(board.id())) {
+                outcomes[k] = PlayService.PlayOutcome.failed("Board could not be solved");
+            } else {
+                gameIndexes.add(k);
+            }
+        }
+        return Flux.fromIterable(gameIndexes)
+                .concatMap(k -> gameIds.next().map(id -> {
+                    PlayService.PlayRequest request = requests.get(k);
+                    return game(id, request.playerId(), request.boardId(), minHealth.get(request.boardId()));
+                }))
+                .collectList()
+                .flatMap(games -> {
+                    if (games.isEmpty()) {
+                        return Mono.just(Arrays.asList(outcomes));
+                    }
+                    return insert(games)
+                            .then(Mono.fromSupplier(() -> {
+                                for (int g = 0; g < games.size(); g++) {
+                                    int k = gameIndexes.get(g);
+                                    Game game = games.get(g);
+                                    outcomes[k] = PlayService.PlayOutcome.played(new PlayService.PlayedGame(game.getId(),
+                                            playerNames.get(game.getPlayer().getId()),
+                                            boards.get(game.getBoard().getId()).name(), game.getResult()));
+                                }
+                                return Arrays.asList(outcomes);
+                            }));
+                });
+    }
+
+    // Inserts the games in a transaction of their own, then records their stats
+    private Mono<Void> insert(List<Game> games) {
+        return transactionalOperator.transactional(gameRepository.insertAll(games))
+                .then(gameStatsService.record(games.stream().map(ReactivePlayService::recorded).toList()));
+    }
+
+    // Stamps the board on the solver scheduler and stores its minimum HP, unless the board was rewritten meanwhile
+    private Mono<DungeonService.Stamp> solve(Board board) {
+        return Mono.fromCallable(() -> dungeonService.stamp(board, SolveProgress.NONE))
+                .subscribeOn(solverScheduler)
+                .flatMap(stamp -> boardRepository.saveMinHp(board.getId(), board.getContentHash(), stamp).thenReturn(stamp));
+    }
+
+    private static Game game(Long id, Long playerId, Long boardId, int result) {
+        Player player = new Player();
+        player.setId(playerId);
+        Board board = new Board();
+        board.setId(boardId);
+        Game game = new Game(player, board, result);
+        game.setId(id);
+        return game;
+    }
+
+    private static GameStatsService.RecordedGame recorded(Game game) {
+        return new GameStatsService.RecordedGame(game.getPlayer().getId(), game.getBoard().getId(), game.getResult(),
+                game.getPlayedAt());
+    }
+}
@@ -0,0 +1,49 @@
+-- The tables Hibernate creates for the servlet application's entities
+create table if not exists players (
+    id bigint generated by default as identity primary key,
+    name varchar(255) not null,
+    email varchar(255)
+);
+
+create table if not exists boards (
+    id bigint generated by default as identity primary key,
+    name varchar(255) not null,
+    board_data varchar,
+    board_bytes bytea,
+    board_file varchar(255),
+    min_hp integer,
+    min_hp_version integer,
+    content_hash bigint
+);
+create index if not exists idx_boards_content_hash on boards (content_hash);
+
+create sequence if not exists games_seq start with 1 increment by 50;
+create table if not exists games (
+    id bigint primary key,
+    player_id bigint not null references players (id),
+    board_id bigint not null references boards (id),
+    result integer not null,
+    played_at timestamp(6) not null
+);
+create index if not exists idx_games_played_at_id on games (played_at, id);
+create index if not exists idx_games_player_played_at_id on games (player_id, played_at, id);
+create index if not exists idx_games_board_played_at_id on games (board_id, played_at, id);
+
+create table if not exists player_stats (
+    player_id bigint primary key,
+    games_played bigint not null,
+    best_min_hp integer,
+    worst_min_hp integer,
+    total_min_hp bigint not null,
+    last_played_at timestamp(6)
+);
+create index if not exists idx_player_stats_games_played on player_stats (games_played, player_id);
+
+create table if not exists board_stats (
+    board_id bigint primary key,
+    games_played bigint not null,
+    best_min_hp integer,
+    worst_min_hp integer,
+    total_min_hp bigint not null,
+    last_played_at timestamp(6)
+);
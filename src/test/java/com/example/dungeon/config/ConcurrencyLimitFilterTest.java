@@ -0,0 +1,113 @@
+package com.example.dungeon.config;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterTest {
+
+    private ConcurrencyLimitFilter filter;
+    private GradientLimiter play;
+
+    @BeforeEach
+    void setUp() {
+        LimitProperties.Endpoint endpoint = new LimitProperties.Endpoint();
+        endpoint.setPatterns(List.of("POST /api/games/play", "POST /api/games/play/batch"));
+        endpoint.setExceptParams(List.of("async=true"));
+        endpoint.setInitialLimit(1);
+        endpoint.setMinLimit(1);
+        endpoint.setMaxLimit(1);
+        endpoint.setRetryAfter(Duration.ofSeconds(3));
+        LimitProperties properties = new LimitProperties();
+        properties.getEndpoints().put("play", endpoint);
+        filter = new ConcurrencyLimitFilter(properties);
+        play = filter.limiters().get("play");
+    }
+
+    @Test
+    void testShedsRequestsOverTheLimit() throws Exception {
+        AtomicReference<MockHttpServletResponse> shed = new AtomicReference<>();
+        // The first play holds the only slot while a second one arrives
+        FilterChain holding = (request, response) -> {
+            MockHttpServletResponse second = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("POST", "/api/games/play/batch"), second,
+                    (r, s) -> fail("Over the limit"));
+            shed.set(second);
+        };
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/games/play"), first, holding);
+
+        assertEquals(200, first.getStatus());
+        assertEquals(503, shed.get().getStatus());
+        assertEquals("3", shed.get().getHeader("Retry-After"));
+        assertEquals(ConcurrencyLimitFilter.BUSY, shed.get().getContentAsString());
+        assertEquals(1, play.rejected());
+        assertEquals(0, play.inFlight());
+    }
+
+    @Test
+    void testOtherRequestsAreNotLimited() throws Exception {
+        assertTrue(play.tryAcquire());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/games/play"), response, (r, s) -> {});
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/boards"), response, (r, s) -> {});
+
+        assertEquals(200, response.getStatus());
+        assertEquals(0, play.rejected());
+    }
+
+    @Test
+    void testAsyncPlaysAreNotLimitedAlongsideSyncOnes() throws Exception {
+        AtomicReference<MockHttpServletResponse> shed = new AtomicReference<>();
+        List<Integer> submitted = new ArrayList<>();
+        // While a sync play holds the only slot, async submissions go through and another sync play is shed
+        FilterChain holding = (request, response) -> {
+            for (int i = 0; i < 3; i++) {
+                MockHttpServletRequest async = new MockHttpServletRequest("POST", "/api/games/play");
+                async.setParameter("async", "true");
+                MockHttpServletResponse accepted = new MockHttpServletResponse();
+                filter.doFilter(async, accepted, (r, s) -> {
+                    assertEquals(1, play.inFlight());
+                    ((MockHttpServletResponse) s).setStatus(202);
+                });
+                submitted.add(accepted.getStatus());
+            }
+            MockHttpServletResponse second = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("POST", "/api/games/play"), second,
+                    (r, s) -> fail("Over the limit"));
+            shed.set(second);
+        };
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/games/play"), new MockHttpServletResponse(), holding);
+        MockHttpServletRequest notAsync = new MockHttpServletRequest("POST", "/api/games/play");
+        notAsync.setParameter("async", "false");
+        MockHttpServletResponse afterwards = new MockHttpServletResponse();
+        filter.doFilter(notAsync, afterwards, (r, s) -> assertEquals(1, play.inFlight()));
+
+        assertEquals(List.of(202, 202, 202), submitted);
+        assertEquals(503, shed.get().getStatus());
+        assertEquals(200, afterwards.getStatus());
+        assertEquals(1, play.rejected());
+        assertEquals(0, play.inFlight());
+    }
+
+    @Test
+    void testFailedRequestReleasesItsSlot() {
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(
+                new MockHttpServletRequest("POST", "/api/games/play"), new MockHttpServletResponse(),
+                (r, s) -> { throw new IllegalStateException("Solver failed"); }));
+
+        assertEquals(0, play.inFlight());
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.dungeon.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GradientLimiterTest {
+
+    private static final long MILLIS = 1_000_000;
+
+    @Test
+    void testRejectsOverTheLimit() {
+        GradientLimiter limiter = new GradientLimiter(endpoint(2, 1, 10));
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        assertEquals(2, limiter.inFlight());
+        assertEquals(1, limiter.rejected());
+        limiter.releaseWithoutSample();
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void testSteadyLatencyGrowsTheLimit() {
+        GradientLimiter limiter = new GradientLimiter(endpoint(4, 1, 50));
+
+        for (int k = 0; k < 200; k++) {
+            saturate(limiter, 10 * MILLIS);
+        }
+
+        assertEquals(50, limiter.limit());
+    }
+
+    @Test
+    void testRisingLatencyShrinksTheLimitAndItRecovers() {
+        GradientLimiter limiter = new GradientLimiter(endpoint(40, 2, 40));
+        for (int k = 0; k < 50; k++) {
+            saturate(limiter, 10 * MILLIS);
+        }
+
+        // A few rounds, before the long-term latency catches up with the new one
+        for (int k = 0; k < 3; k++) {
+            saturate(limiter, 100 * MILLIS);
+        }
+        int shed = limiter.limit();
+        assertTrue(shed <= 25, "limit " + shed);
+
+        for (int k = 0; k < 200; k++) {
+            saturate(limiter, 10 * MILLIS);
+        }
+        assertEquals(40, limiter.limit());
+    }
+
+    @Test
+    void testRequestsFarBelowTheLimitLeaveItAlone() {
+        GradientLimiter limiter = new GradientLimiter(endpoint(20, 2, 40));
+
+        for (int k = 0; k < 100; k++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(k % 2 == 0 ? 10 * MILLIS : 500 * MILLIS);
+        }
+
+        assertEquals(20, limiter.limit());
+    }
+
+    // Fills the limit, then completes every request with the same latency
+    private static void saturate(GradientLimiter limiter, long latency) {
+        int taken = 0;
+        while (limiter.tryAcquire()) {
+            taken++;
+        }
+        for (int k = 0; k < taken; k++) {
+            limiter.release(latency);
+        }
+    }
+
+    private static LimitProperties.Endpoint endpoint(int initial, int min, int max) {
+        LimitProperties.Endpoint endpoint = new LimitProperties.Endpoint();
+        endpoint.setInitialLimit(initial);
+        endpoint.setMinLimit(min);
+        endpoint.setMaxLimit(max);
+        endpoint.setLongWindow(100);
+        return endpoint;
+    }
+}
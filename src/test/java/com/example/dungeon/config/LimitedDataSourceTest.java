@@ -0,0 +1,79 @@
+package com.example.dungeon.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LimitedDataSourceTest {
+
+    private DataSource target;
+    private LimitedDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        dataSource = new LimitedDataSource(target, 2, Duration.ofMillis(50));
+    }
+
+    @Test
+    void testClosingAConnectionReturnsItsPermit() throws SQLException {
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        assertEquals(0, dataSource.availablePermits());
+
+        first.close();
+        first.close();
+
+        assertEquals(1, dataSource.availablePermits());
+        second.close();
+        assertEquals(2, dataSource.availablePermits());
+    }
+
+    @Test
+    void testTimesOutWhenEveryPermitIsHeld() throws SQLException {
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        verify(target, times(2)).getConnection();
+    }
+
+    @Test
+    void testFailedConnectionReturnsItsPermit() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertEquals(2, dataSource.availablePermits());
+    }
+
+    @Test
+    void testWaitingVirtualThreadGetsTheReleasedPermit() throws Exception {
+        LimitedDataSource single = new LimitedDataSource(target, 1, Duration.ofSeconds(10));
+        Connection held = single.getConnection();
+        Thread waiter = Thread.ofVirtual().start(() -> {
+            try {
+                single.getConnection().close();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (single.waitingThreads() == 0) {
+            Thread.sleep(1);
+        }
+
+        held.close();
+        waiter.join(5000);
+
+        assertFalse(waiter.isAlive());
+        assertEquals(1, single.availablePermits());
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.dungeon.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PinningMonitorTest {
+
+    private final Object monitor = new Object();
+
+    @Test
+    void testReportsVirtualThreadBlockedInsideSynchronized() throws Exception {
+        try (PinningMonitor pinning = new PinningMonitor(Duration.ofMillis(10))) {
+            pinning.start();
+            Thread.ofVirtual().start(() -> {
+                synchronized (monitor) {
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }).join();
+
+            // The event stream is flushed about once a second
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (pinning.pinnedEvents() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            assertTrue(pinning.pinnedEvents() > 0);
+        }
+    }
+}
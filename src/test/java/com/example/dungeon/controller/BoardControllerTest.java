@@ -1,7 +1,15 @@
 package com.example.dungeon.controller;
 
 import com.example.dungeon.entity.Board;
+import com.example.dungeon.entity.BoardStats;
 import com.example.dungeon.repository.BoardRepository;
+import com.example.dungeon.service.BoardEditService;
+import com.example.dungeon.service.DungeonService;
+import com.example.dungeon.service.EntityCacheService;
+import com.example.dungeon.service.GameStatsService;
+import com.example.dungeon.solver.Grid;
+import com.example.dungeon.solver.Route;
+import com.example.dungeon.storage.MappedBoardStore;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,10 +19,13 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -29,6 +40,21 @@ class BoardControllerTest {
     @MockBean
     private BoardRepository boardRepository;
 
+    @MockBean
+    private EntityCacheService entityCacheService;
+
+    @MockBean
+    private MappedBoardStore mappedBoardStore;
+
+    @MockBean
+    private DungeonService dungeonService;
+
+    @MockBean
+    private GameStatsService gameStatsService;
+
+    @MockBean
+    private BoardEditService boardEditService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -50,6 +76,68 @@ class BoardControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.name", is("Test Dungeon")))
                 .andExpect(jsonPath("$.id", is(1)));
+
+        verify(dungeonService).precompute(argThat(board -> "Test Dungeon".equals(board.getName())));
+        verify(gameStatsService).createBoardStats(1L);
+    }
+
+    @Test
+    void testCreateOrUpdateBoardWithoutAValidGridIsRejected() throws Exception {
+        for (String body : List.of("{\"name\":\"Missing\"}", "{\"name\":\"Empty\",\"board\":[]}",
+                "{\"name\":\"No columns\",\"board\":[[]]}", "{\"name\":\"Ragged\",\"board\":[[1,2],[3]]}")) {
+            mockMvc.perform(post("/api/boards?dedupe=true")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(body))
+                    .andExpect(status().isBadRequest());
+            mockMvc.perform(put("/api/boards/1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(body))
+                    .andExpect(status().isBadRequest());
+        }
+
+        verify(boardRepository, never()).save(any());
+        verifyNoInteractions(dungeonService);
+    }
+
+    @Test
+    void testGetBoardStats() throws Exception {
+        BoardStats stats = new BoardStats(1L);
+        stats.setGamesPlayed(2L);
+        stats.setBestMinHp(7);
+        stats.setWorstMinHp(7);
+        stats.setTotalMinHp(14L);
+        when(gameStatsService.boardStats(1L)).thenReturn(Optional.of(stats));
+
+        mockMvc.perform(get("/api/boards/1/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.boardId", is(1)))
+                .andExpect(jsonPath("$.gamesPlayed", is(2)))
+                .andExpect(jsonPath("$.averageMinHp", is(7.0)));
+    }
+
+    @Test
+    void testCreateBoardDedupeReturnsSameLayout() throws Exception {
+        int[][] boardData = {{-2, -3, 3}, {-5, -10, 1}, {10, 30, -5}};
+        BoardController.BoardRequest request = new BoardController.BoardRequest();
+        request.setName("Re-upload");
+        request.setBoard(boardData);
+
+        Board existing = new Board("Original", boardData);
+        existing.setId(4L);
+        long hash = Grid.of(boardData).contentHash();
+        Board collision = new Board("Collision", new int[][]{{1}});
+        collision.setId(5L);
+
+        when(boardRepository.findByContentHash(hash)).thenReturn(Arrays.asList(collision, existing));
+
+        mockMvc.perform(post("/api/boards?dedupe=true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(4)))
+                .andExpect(jsonPath("$.name", is("Original")));
+
+        verify(boardRepository, never()).save(any());
     }
 
     @Test
@@ -72,13 +160,110 @@ class BoardControllerTest {
     void testGetBoardById() throws Exception {
         Board board = new Board("Test Board", new int[][]{{1, 2}, {3, 4}});
         board.setId(1L);
+        board.setMinHp(1);
+        board.setMinHpVersion(DungeonService.SOLVER_VERSION);
 
         when(boardRepository.findById(1L)).thenReturn(Optional.of(board));
 
         mockMvc.perform(get("/api/boards/1"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.name", is("Test Board")))
-                .andExpect(jsonPath("$.id", is(1)));
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.minHp", is(1)))
+                .andExpect(jsonPath("$.boardArray[1][0]", is(3)))
+                .andExpect(jsonPath("$.board").doesNotExist())
+                .andExpect(jsonPath("$.boardData").doesNotExist());
+    }
+
+    @Test
+    void testGetLegacyJsonBoardWritesStoredJson() throws Exception {
+        Board board = new Board();
+        board.setId(2L);
+        board.setName("Legacy Board");
+        board.setBoardData("[[1,-2],[-3,4]]");
+
+        when(boardRepository.findById(2L)).thenReturn(Optional.of(board));
+
+        mockMvc.perform(get("/api/boards/2"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"id\":2,\"name\":\"Legacy Board\",\"mapped\":false,\"minHp\":null,\"boardArray\":[[1,-2],[-3,4]]}", true));
+    }
+
+    @Test
+    void testGetBoardRoute() throws Exception {
+        Board board = new Board("Test Dungeon", new int[][]{{-2, -3, 3}, {-5, -10, 1}, {10, 30, -5}});
+        board.setId(1L);
+        when(boardRepository.findById(1L)).thenReturn(Optional.of(board));
+        when(dungeonService.route(board)).thenReturn(new Route(7, "2R2D"));
+
+        mockMvc.perform(get("/api/boards/1/route"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.boardId", is(1)))
+                .andExpect(jsonPath("$.minHp", is(7)))
+                .andExpect(jsonPath("$.path", is("2R2D")));
+        mockMvc.perform(get("/api/boards/99999/route"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testPatchCells() throws Exception {
+        Board board = new Board("Test Dungeon", new int[][]{{-2, 0}, {1, 4}});
+        board.setId(1L);
+        when(boardEditService.editCells(1L, List.of(new BoardEditService.CellEdit(0, 1, 0))))
+                .thenReturn(Optional.of(board));
+
+        mockMvc.perform(patch("/api/boards/1/cells")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"row\":0,\"col\":1,\"value\":0}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.boardArray[0][1]", is(0)));
+        verify(entityCacheService).evict(Board.class, 1L);
+    }
+
+    @Test
+    void testPatchCellsRejectsInvalidEdits() throws Exception {
+        when(boardEditService.editCells(eq(1L), any())).thenThrow(new IllegalArgumentException("outside"));
+        when(boardEditService.editCells(eq(2L), any())).thenReturn(Optional.empty());
+
+        mockMvc.perform(patch("/api/boards/1/cells")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"row\":9,\"col\":9,\"value\":0}]"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/boards/2/cells")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"row\":0,\"col\":0,\"value\":0}]"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testPatchCellsRejectsChangesWithMissingFields() throws Exception {
+        for (String changes : List.of("[{\"col\":1,\"value\":0}]", "[{\"row\":0,\"value\":0}]",
+                "[{\"row\":0,\"col\":1}]", "[{\"row\":0,\"col\":1,\"value\":0}, {}]", "[null]")) {
+            mockMvc.perform(patch("/api/boards/1/cells")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(changes))
+                    .andExpect(status().isBadRequest());
+        }
+        verify(boardEditService, never()).editCells(any(), any());
+    }
+
+    @Test
+    void testGetMinHpFromCell() throws Exception {
+        Board board = new Board("Test Dungeon", new int[][]{{-2, -3, 3}, {-5, -10, 1}, {10, 30, -5}});
+        board.setId(1L);
+        when(boardRepository.findById(1L)).thenReturn(Optional.of(board));
+        when(dungeonService.minHpFrom(board, 1, 2)).thenReturn(5);
+        when(dungeonService.minHpFrom(board, 3, 0)).thenThrow(new IndexOutOfBoundsException());
+
+        mockMvc.perform(get("/api/boards/1/min-hp").param("row", "1").param("col", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.row", is(1)))
+                .andExpect(jsonPath("$.col", is(2)))
+                .andExpect(jsonPath("$.minHp", is(5)));
+        mockMvc.perform(get("/api/boards/1/min-hp").param("row", "3").param("col", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/boards/99999/min-hp").param("row", "0").param("col", "0"))
+                .andExpect(status().isNotFound());
     }
 
     @Test
@@ -110,6 +295,8 @@ class BoardControllerTest {
                 .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.name", is("Updated Board")));
+
+        verify(entityCacheService).evict(Board.class, 1L);
     }
 
     @Test
@@ -120,6 +307,42 @@ class BoardControllerTest {
                 .andExpect(status().isNoContent());
 
         verify(boardRepository).deleteById(1L);
+        verify(gameStatsService).deleteBoardStats(1L);
+        verify(entityCacheService).evict(Board.class, 1L);
+    }
+
+    @Test
+    void testCreateOversizedBoardIsMapped() throws Exception {
+        int[][] boardData = {{-2, -3, 3}, {-5, -10, 1}, {10, 30, -5}};
+        BoardController.BoardRequest request = new BoardController.BoardRequest();
+        request.setName("Huge Dungeon");
+        request.setBoard(boardData);
+
+        when(mappedBoardStore.shouldMap(any())).thenReturn(true);
+        when(mappedBoardStore.write(any())).thenReturn("/data/boards/huge.board");
+        when(boardRepository.save(any(Board.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        mockMvc.perform(post("/api/boards")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mapped", is(true)))
+                .andExpect(jsonPath("$.boardData").doesNotExist())
+                .andExpect(jsonPath("$.boardFile").doesNotExist());
+
+        verify(boardRepository).save(argThat(board -> "/data/boards/huge.board".equals(board.getBoardFile())
+                && board.getBoardData() == null));
+    }
+
+    @Test
+    void testDeleteMappedBoardRemovesFile() throws Exception {
+        when(boardRepository.existsById(1L)).thenReturn(true);
+        when(boardRepository.findBoardFileById(1L)).thenReturn(Optional.of("/data/boards/huge.board"));
+
+        mockMvc.perform(delete("/api/boards/1"))
+                .andExpect(status().isNoContent());
+
+        verify(mappedBoardStore).delete("/data/boards/huge.board");
     }
 
     @Test
@@ -1,31 +1,50 @@
 package com.example.dungeon.controller;
 
+import com.example.dungeon.config.GameProperties;
+import com.example.dungeon.config.JobProperties;
 import com.example.dungeon.entity.Board;
 import com.example.dungeon.entity.Game;
 import com.example.dungeon.entity.Player;
-import com.example.dungeon.repository.BoardRepository;
+import com.example.dungeon.metrics.DungeonMetrics;
 import com.example.dungeon.repository.GameRepository;
+import com.example.dungeon.repository.GameSummary;
 import com.example.dungeon.repository.PlayerRepository;
-import com.example.dungeon.service.DungeonService;
+import com.example.dungeon.service.GameListingService;
+import com.example.dungeon.service.PlayJob;
+import com.example.dungeon.service.PlayJobService;
+import com.example.dungeon.service.PlayService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @WebMvcTest(GameController.class)
+@EnableConfigurationProperties({GameProperties.class, JobProperties.class})
 class GameControllerTest {
 
     @Autowired
@@ -38,30 +57,21 @@ class GameControllerTest {
     private PlayerRepository playerRepository;
 
     @MockBean
-    private BoardRepository boardRepository;
+    private PlayService playService;
 
     @MockBean
-    private DungeonService dungeonService;
+    private GameListingService gameListingService;
+
+    @MockBean
+    private PlayJobService playJobService;
 
     @Autowired
     private ObjectMapper objectMapper;
 
     @Test
     void testPlayGame() throws Exception {
-        Player player = new Player("Alice", "alice@example.com");
-        player.setId(1L);
-
-        int[][] boardData = {{-2, -3, 3}, {-5, -10, 1}, {10, 30, -5}};
-        Board board = new Board("Test Dungeon", boardData);
-        board.setId(1L);
-
-        Game savedGame = new Game(player, board, 7);
-        savedGame.setId(1L);
-
-        when(playerRepository.findById(1L)).thenReturn(Optional.of(player));
-        when(boardRepository.findById(1L)).thenReturn(Optional.of(board));
-        when(dungeonService.calculateMinimumHP(boardData)).thenReturn(7);
-        when(gameRepository.save(any(Game.class))).thenReturn(savedGame);
+        when(playService.play(1L, 1L))
+                .thenReturn(Optional.of(new PlayService.PlayedGame(1L, "Alice", "Test Dungeon", 7)));
 
         GameController.PlayGameRequest request = new GameController.PlayGameRequest();
         request.setPlayerId(1L);
@@ -74,13 +84,34 @@ class GameControllerTest {
                 .andExpect(jsonPath("$.gameId", is(1)))
                 .andExpect(jsonPath("$.playerName", is("Alice")))
                 .andExpect(jsonPath("$.boardName", is("Test Dungeon")))
-                .andExpect(jsonPath("$.minimumHealth", is(0)));
+                .andExpect(jsonPath("$.minimumHealth", is(7)));
+
+        verify(playerRepository, never()).existsById(anyLong());
+    }
+
+    @Test
+    void testPlayGameIsTimedByOutcome() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            when(playService.play(anyLong(), anyLong())).thenReturn(Optional.empty());
+            when(playerRepository.existsById(1L)).thenReturn(true);
+
+            mockMvc.perform(post("/api/games/play")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"playerId\":1,\"boardId\":99999}"))
+                    .andExpect(status().isBadRequest());
+
+            assertEquals(1, registry.get(DungeonMetrics.PLAY).tag("outcome", "board_not_found").timer().count());
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
     }
 
     @Test
     void testPlayGamePlayerNotFound() throws Exception {
-        when(playerRepository.findById(anyLong())).thenReturn(Optional.empty());
-        when(boardRepository.findById(anyLong())).thenReturn(Optional.of(new Board()));
+        when(playService.play(anyLong(), anyLong())).thenReturn(Optional.empty());
+        when(playerRepository.existsById(99999L)).thenReturn(false);
 
         GameController.PlayGameRequest request = new GameController.PlayGameRequest();
         request.setPlayerId(99999L);
@@ -95,8 +126,8 @@ class GameControllerTest {
 
     @Test
     void testPlayGameBoardNotFound() throws Exception {
-        when(playerRepository.findById(anyLong())).thenReturn(Optional.of(new Player()));
-        when(boardRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(playService.play(anyLong(), anyLong())).thenReturn(Optional.empty());
+        when(playerRepository.existsById(1L)).thenReturn(true);
 
         GameController.PlayGameRequest request = new GameController.PlayGameRequest();
         request.setPlayerId(1L);
@@ -110,19 +141,183 @@ class GameControllerTest {
     }
 
     @Test
-    void testGetAllGames() throws Exception {
-        Player player = new Player("Alice", "alice@example.com");
-        Board board = new Board("Test Board", new int[][]{{1, 2}});
-        Game game1 = new Game(player, board, 5);
-        game1.setId(1L);
-        Game game2 = new Game(player, board, 3);
-        game2.setId(2L);
+    void testPlayGames() throws Exception {
+        when(playService.playAll(List.of(new PlayService.PlayRequest(1L, 1L), new PlayService.PlayRequest(99999L, 1L))))
+                .thenReturn(List.of(
+                        PlayService.PlayOutcome.played(new PlayService.PlayedGame(1L, "Alice", "Test Dungeon", 7)),
+                        PlayService.PlayOutcome.failed("Player not found")));
+
+        mockMvc.perform(post("/api/games/play/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"playerId\":1,\"boardId\":1},{\"playerId\":99999,\"boardId\":1}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].gameId", is(1)))
+                .andExpect(jsonPath("$[0].minimumHealth", is(7)))
+                .andExpect(jsonPath("$[1].error", is("Player not found")));
+    }
 
-        when(gameRepository.findAll()).thenReturn(Arrays.asList(game1, game2));
+    @Test
+    void testPlaysAreTurnedAwayWhileTooManyGamesWaitToBeStored() throws Exception {
+        when(playService.play(1L, 1L)).thenThrow(new RejectedExecutionException());
+        when(playService.playAll(any())).thenThrow(new RejectedExecutionException());
+
+        mockMvc.perform(post("/api/games/play")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"playerId\":1,\"boardId\":1}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.error", is(GameController.PENDING_GAMES_ERROR)));
+        mockMvc.perform(post("/api/games/play/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"playerId\":1,\"boardId\":1}]"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    void testPlayGamesRejectsOversizedBatch() throws Exception {
+        String plays = String.join(",", Collections.nCopies(1001, "{\"playerId\":1,\"boardId\":1}"));
+
+        mockMvc.perform(post("/api/games/play/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[" + plays + "]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$[0].error", is("A batch holds at most 1000 plays")));
+
+        verify(playService, never()).playAll(any());
+    }
+
+    @Test
+    void testGetAllGames() throws Exception {
+        LocalDateTime playedAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+        when(gameListingService.page(null, null, null, null))
+                .thenReturn(new GameListingService.GamePage(List.of(
+                        new GameSummary(2L, 1L, "Alice", 1L, "Test Board", 3, playedAt),
+                        new GameSummary(1L, 1L, "Alice", 1L, "Test Board", 5, playedAt)), "next"));
 
         mockMvc.perform(get("/api/games"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(2)));
+                .andExpect(header().string("X-Next-Cursor", "next"))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(2)))
+                .andExpect(jsonPath("$[0].playerName", is("Alice")))
+                .andExpect(jsonPath("$[0].boardName", is("Test Board")))
+                .andExpect(jsonPath("$[0].result", is(3)))
+                .andExpect(jsonPath("$[0].board").doesNotExist());
+    }
+
+    @Test
+    void testGetAllGamesAfterCursor() throws Exception {
+        GameListingService.Cursor cursor = new GameListingService.Cursor(LocalDateTime.of(2024, 5, 1, 12, 0), 42L);
+        when(gameListingService.page(null, null, cursor, 10))
+                .thenReturn(new GameListingService.GamePage(List.of(), null));
+
+        mockMvc.perform(get("/api/games").param("cursor", cursor.encode()).param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    void testPlayGameAsync() throws Exception {
+        PlayJob job = job("job-1", PlayJob.Status.QUEUED, null);
+        when(playJobService.submit(1L, 2L)).thenReturn(job);
+
+        mockMvc.perform(post("/api/games/play").param("async", "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"playerId\":1,\"boardId\":2}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/games/jobs/job-1"))
+                .andExpect(jsonPath("$.jobId", is("job-1")))
+                .andExpect(jsonPath("$.status", is("QUEUED")));
+        verify(playService, never()).play(anyLong(), anyLong());
+    }
+
+    @Test
+    void testPlayGameAsyncWhenQueueIsFull() throws Exception {
+        when(playJobService.submit(1L, 2L)).thenThrow(new RejectedExecutionException());
+
+        mockMvc.perform(post("/api/games/play").param("async", "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"playerId\":1,\"boardId\":2}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    void testGetJob() throws Exception {
+        PlayJob job = job("job-1", PlayJob.Status.DONE, new PlayService.PlayedGame(5L, "Alice", "Test Dungeon", 7));
+        when(playJobService.find("job-1")).thenReturn(Optional.of(job));
+
+        mockMvc.perform(get("/api/games/jobs/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is("DONE")))
+                .andExpect(jsonPath("$.rowsSolved", is(10)))
+                .andExpect(jsonPath("$.result.gameId", is(5)))
+                .andExpect(jsonPath("$.result.minimumHealth", is(7)));
+        mockMvc.perform(get("/api/games/jobs/unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testCancelJob() throws Exception {
+        PlayJob job = job("job-1", PlayJob.Status.CANCELLED, null);
+        when(playJobService.cancel("job-1")).thenReturn(Optional.of(job));
+
+        mockMvc.perform(delete("/api/games/jobs/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is("CANCELLED")));
+        mockMvc.perform(delete("/api/games/jobs/unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStreamJobSendsProgressThenTheOutcome() throws Exception {
+        PlayJob job = job("job-1", PlayJob.Status.RUNNING, null);
+        when(playJobService.find("job-1")).thenReturn(Optional.of(job));
+        doAnswer(invocation -> {
+            Consumer<PlayJob> listener = invocation.getArgument(0);
+            listener.accept(job);
+            when(job.getStatus()).thenReturn(PlayJob.Status.DONE);
+            when(job.getResult()).thenReturn(new PlayService.PlayedGame(5L, "Alice", "Test Dungeon", 7));
+            listener.accept(job);
+            return null;
+        }).when(job).listen(any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/api/games/jobs/job-1/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(containsString("event:progress\ndata:{\"jobId\":\"job-1\",\"status\":\"RUNNING\"")))
+                .andExpect(content().string(containsString("event:done\ndata:{\"jobId\":\"job-1\",\"status\":\"DONE\"")));
+        mockMvc.perform(get("/api/games/jobs/unknown/events"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetAllGamesWithInvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/games").param("cursor", "not a cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testStreamAllGames() throws Exception {
+        doAnswer(invocation -> {
+            invocation.getArgument(3, OutputStream.class).write("{\"id\":1}\n{\"id\":2}\n".getBytes());
+            return null;
+        }).when(gameListingService).stream(isNull(), isNull(), isNull(), any());
+
+        MvcResult result = mockMvc.perform(get("/api/games").accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
     }
 
     @Test
@@ -132,17 +327,20 @@ class GameControllerTest {
         Game game = new Game(player, board, 5);
         game.setId(1L);
 
-        when(gameRepository.findById(1L)).thenReturn(Optional.of(game));
+        when(gameRepository.findDetailById(1L)).thenReturn(Optional.of(game));
 
         mockMvc.perform(get("/api/games/1"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id", is(1)))
-                .andExpect(jsonPath("$.result", is(5)));
+                .andExpect(jsonPath("$.result", is(5)))
+                .andExpect(jsonPath("$.board.name", is("Test Board")))
+                .andExpect(jsonPath("$.board.boardData").doesNotExist())
+                .andExpect(jsonPath("$.board.boardArray").doesNotExist());
     }
 
     @Test
     void testGetGameByIdNotFound() throws Exception {
-        when(gameRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(gameRepository.findDetailById(anyLong())).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/api/games/99999"))
                 .andExpect(status().isNotFound());
@@ -150,11 +348,9 @@ class GameControllerTest {
 
     @Test
     void testGetGamesByPlayerId() throws Exception {
-        Player player = new Player("Alice", "alice@example.com");
-        Board board = new Board("Test Board", new int[][]{{1, 2}});
-        Game game = new Game(player, board, 5);
-
-        when(gameRepository.findByPlayerId(1L)).thenReturn(Arrays.asList(game));
+        GameSummary game = new GameSummary(1L, 1L, "Alice", 1L, "Test Board", 5, LocalDateTime.of(2024, 5, 1, 12, 0));
+        when(gameListingService.page(1L, null, null, null))
+                .thenReturn(new GameListingService.GamePage(List.of(game), null));
 
         mockMvc.perform(get("/api/games/player/1"))
                 .andExpect(status().isOk())
@@ -163,14 +359,22 @@ class GameControllerTest {
 
     @Test
     void testGetGamesByBoardId() throws Exception {
-        Player player = new Player("Alice", "alice@example.com");
-        Board board = new Board("Test Board", new int[][]{{1, 2}});
-        Game game = new Game(player, board, 5);
-
-        when(gameRepository.findByBoardId(1L)).thenReturn(Arrays.asList(game));
+        GameSummary game = new GameSummary(1L, 1L, "Alice", 1L, "Test Board", 5, LocalDateTime.of(2024, 5, 1, 12, 0));
+        when(gameListingService.page(null, 1L, null, null))
+                .thenReturn(new GameListingService.GamePage(List.of(game), null));
 
         mockMvc.perform(get("/api/games/board/1"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(1)));
     }
+
+    private static PlayJob job(String id, PlayJob.Status status, PlayService.PlayedGame result) {
+        PlayJob job = mock(PlayJob.class);
+        when(job.getId()).thenReturn(id);
+        when(job.getStatus()).thenReturn(status);
+        when(job.getRowsSolved()).thenReturn(10);
+        when(job.getTotalRows()).thenReturn(10);
+        when(job.getResult()).thenReturn(result);
+        return job;
+    }
 }
@@ -1,7 +1,11 @@
 package com.example.dungeon.controller;
 
 import com.example.dungeon.entity.Player;
+import com.example.dungeon.entity.PlayerStats;
+import com.example.dungeon.repository.LeaderboardEntry;
 import com.example.dungeon.repository.PlayerRepository;
+import com.example.dungeon.service.EntityCacheService;
+import com.example.dungeon.service.GameStatsService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,7 +14,9 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -29,6 +35,12 @@ class PlayerControllerTest {
     @MockBean
     private PlayerRepository playerRepository;
 
+    @MockBean
+    private EntityCacheService entityCacheService;
+
+    @MockBean
+    private GameStatsService gameStatsService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -47,6 +59,51 @@ class PlayerControllerTest {
                 .andExpect(jsonPath("$.name", is("John Doe")))
                 .andExpect(jsonPath("$.email", is("john@example.com")))
                 .andExpect(jsonPath("$.id", is(1)));
+
+        verify(gameStatsService).createPlayerStats(1L);
+    }
+
+    @Test
+    void testGetPlayerStats() throws Exception {
+        PlayerStats stats = new PlayerStats(1L);
+        stats.setGamesPlayed(4L);
+        stats.setBestMinHp(1);
+        stats.setWorstMinHp(12);
+        stats.setTotalMinHp(22L);
+        stats.setLastPlayedAt(LocalDateTime.of(2024, 5, 1, 12, 0));
+        when(gameStatsService.playerStats(1L)).thenReturn(Optional.of(stats));
+
+        mockMvc.perform(get("/api/players/1/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.playerId", is(1)))
+                .andExpect(jsonPath("$.gamesPlayed", is(4)))
+                .andExpect(jsonPath("$.bestMinHp", is(1)))
+                .andExpect(jsonPath("$.worstMinHp", is(12)))
+                .andExpect(jsonPath("$.averageMinHp", is(5.5)))
+                .andExpect(jsonPath("$.totalMinHp").doesNotExist());
+    }
+
+    @Test
+    void testGetPlayerStatsNotFound() throws Exception {
+        when(gameStatsService.playerStats(anyLong())).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/players/99999/stats"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetLeaderboard() throws Exception {
+        when(gameStatsService.leaderboard(100)).thenReturn(List.of(
+                new LeaderboardEntry(2L, "Bob", 3L, 2, 9, 15L, LocalDateTime.of(2024, 5, 1, 12, 0)),
+                new LeaderboardEntry(1L, "Alice", 1L, 7, 7, 7L, LocalDateTime.of(2024, 5, 1, 11, 0))));
+
+        mockMvc.perform(get("/api/players/leaderboard").param("limit", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].playerName", is("Bob")))
+                .andExpect(jsonPath("$[0].gamesPlayed", is(3)))
+                .andExpect(jsonPath("$[0].averageMinHp", is(5.0)))
+                .andExpect(jsonPath("$[0].totalMinHp").doesNotExist());
     }
 
     @Test
@@ -104,6 +161,8 @@ class PlayerControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.name", is("Updated Name")))
                 .andExpect(jsonPath("$.email", is("updated@example.com")));
+
+        verify(entityCacheService).evict(Player.class, 1L);
     }
 
     @Test
@@ -114,6 +173,8 @@ class PlayerControllerTest {
                 .andExpect(status().isNoContent());
 
         verify(playerRepository).deleteById(1L);
+        verify(gameStatsService).deletePlayerStats(1L);
+        verify(entityCacheService).evict(Player.class, 1L);
     }
 
     @Test
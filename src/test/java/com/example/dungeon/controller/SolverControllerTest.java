@@ -0,0 +1,40 @@
+package com.example.dungeon.controller;
+
+import com.example.dungeon.service.DungeonService;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.hamcrest.Matchers.*;
+
+@WebMvcTest(SolverController.class)
+class SolverControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private DungeonService dungeonService;
+
+    @Test
+    void testGetCacheStats() throws Exception {
+        when(dungeonService.cacheStats()).thenReturn(CacheStats.of(3, 1, 0, 0, 0, 2, 200));
+        when(dungeonService.cachedCells()).thenReturn(900L);
+        when(dungeonService.retainedTableBytes()).thenReturn(4096L);
+
+        mockMvc.perform(get("/api/solver/cache"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hitCount", is(3)))
+                .andExpect(jsonPath("$.missCount", is(1)))
+                .andExpect(jsonPath("$.hitRate", is(0.75)))
+                .andExpect(jsonPath("$.evictionCount", is(2)))
+                .andExpect(jsonPath("$.cachedCells", is(900)))
+                .andExpect(jsonPath("$.tableBytes", is(4096)));
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.dungeon.service;
+
+import com.example.dungeon.config.SolverProperties;
+import com.example.dungeon.entity.Board;
+import com.example.dungeon.metrics.DungeonMetrics;
+import com.example.dungeon.repository.BoardRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not in a test transaction: edits commit, so their DP tables are retained
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({BoardEditService.class, DungeonService.class})
+@EnableConfigurationProperties(SolverProperties.class)
+class BoardEditServiceTest {
+
+    @Autowired
+    private BoardEditService boardEditService;
+
+    @Autowired
+    private DungeonService dungeonService;
+
+    @Autowired
+    private BoardRepository boardRepository;
+
+    @Test
+    void testEditsAreStoredWithTheirMinimumHp() {
+        int[][] layout = randomBoard(new Random(1), 20, 30);
+        Long boardId = boardRepository.save(new Board("Edited", layout)).getId();
+
+        boardEditService.editCells(boardId, List.of(
+                new BoardEditService.CellEdit(0, 1, -40), new BoardEditService.CellEdit(3, 2, 7)));
+
+        layout[0][1] = -40;
+        layout[3][2] = 7;
+        Board stored = boardRepository.findById(boardId).orElseThrow();
+        assertArrayEquals(layout, stored.getBoardArray());
+        assertEquals(dungeonService.calculateMinimumHP(layout), stored.minHpFor(DungeonService.SOLVER_VERSION));
+        assertEquals(stored.getGrid().contentHash(), stored.getContentHash());
+    }
+
+    @Test
+    void testLaterEditsResolveOnlyWhatTheyReach() {
+        int[][] layout = randomBoard(new Random(2), 100, 200);
+        Long boardId = boardRepository.save(new Board("Hot", layout)).getId();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            boardEditService.editCells(boardId, List.of(new BoardEditService.CellEdit(50, 50, 3)));
+            boardEditService.editCells(boardId, List.of(new BoardEditService.CellEdit(1, 1, -60)));
+
+            DistributionSummary cells = registry.get(DungeonMetrics.BOARD_CELLS).summary();
+            // The first edit solves the whole table, the second only the 2x2 corner above and left of it
+            assertEquals(2, cells.count());
+            assertEquals(100 * 200 + 4, cells.totalAmount());
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
+        layout[50][50] = 3;
+        layout[1][1] = -60;
+        assertEquals(dungeonService.calculateMinimumHP(layout),
+                boardRepository.findById(boardId).orElseThrow().minHpFor(DungeonService.SOLVER_VERSION));
+    }
+
+    @Test
+    void testInvalidEditsChangeNothing() {
+        int[][] layout = {{1, -2}, {-3, 4}};
+        Long boardId = boardRepository.save(new Board("Small", layout)).getId();
+
+        assertThrows(IllegalArgumentException.class, () -> boardEditService.editCells(boardId, List.of(
+                new BoardEditService.CellEdit(0, 0, 5), new BoardEditService.CellEdit(2, 0, 5))));
+        assertThrows(IllegalArgumentException.class, () -> boardEditService.editCells(boardId, List.of()));
+
+        assertArrayEquals(layout, boardRepository.findById(boardId).orElseThrow().getBoardArray());
+        assertTrue(boardEditService.editCells(-1L, List.of(new BoardEditService.CellEdit(0, 0, 1))).isEmpty());
+    }
+
+    private static int[][] randomBoard(Random random, int rows, int cols) {
+        int[][] board = new int[rows][cols];
+        for (int[] row : board) {
+            for (int j = 0; j < cols; j++) {
+                row[j] = random.nextInt(21) - 10;
+            }
+        }
+        return board;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.dungeon.service;
+
+import com.example.dungeon.config.StorageProperties;
+import com.example.dungeon.entity.Board;
+import com.example.dungeon.repository.BoardRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "dungeon.storage.migrate-json=false",
+        "dungeon.storage.migration-batch-size=2"
+})
+@Import(BoardMigrationService.class)
+@EnableConfigurationProperties(StorageProperties.class)
+class BoardMigrationServiceTest {
+
+    @Autowired
+    private BoardRepository boardRepository;
+
+    @Autowired
+    private BoardMigrationService migrationService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void testLegacyJsonBoardsAreConverted() {
+        Board legacy1 = legacyBoard("Legacy 1", "[[-2,-3,3],[-5,-10,1],[10,30,-5]]");
+        Board legacy2 = legacyBoard("Legacy 2", "[[1,2],[3,4]]");
+        Board legacy3 = legacyBoard("Legacy 3", "[[7]]");
+        Board broken = legacyBoard("Broken", "not json");
+        Board current = boardRepository.save(new Board("Current", new int[][]{{5, -5}}));
+
+        assertEquals(3, migrationService.migrateAll());
+
+        Board migrated = boardRepository.findById(legacy1.getId()).orElseThrow();
+        assertNull(migrated.getBoardData());
+        assertNotNull(migrated.getBoardBytes());
+        assertArrayEquals(new int[][]{{-2, -3, 3}, {-5, -10, 1}, {10, 30, -5}}, migrated.getBoardArray());
+        assertNotNull(boardRepository.findById(legacy2.getId()).orElseThrow().getBoardBytes());
+        assertNotNull(boardRepository.findById(legacy3.getId()).orElseThrow().getBoardBytes());
+        assertEquals("not json", boardRepository.findById(broken.getId()).orElseThrow().getBoardData());
+        assertArrayEquals(new int[][]{{5, -5}}, boardRepository.findById(current.getId()).orElseThrow().getBoardArray());
+    }
+
+    // Not in a test transaction: the write and the migration run on two connections, the write committing last
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testBoardWrittenDuringMigrationKeepsItsWrite() throws Exception {
+        Long boardId = legacyBoard("Rewritten", "[[1,2],[3,4]]").getId();
+        CountDownLatch written = new CountDownLatch(1);
+        Thread writer = Thread.ofPlatform().start(() -> transactionTemplate.executeWithoutResult(status -> {
+            Board board = boardRepository.findForUpdateById(boardId).orElseThrow();
+            board.setBoardArray(new int[][]{{9}});
+            boardRepository.flush();
+            written.countDown();
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        try {
+            written.await();
+            assertEquals(0, migrationService.migrateAll());
+            writer.join();
+
+            assertArrayEquals(new int[][]{{9}}, boardRepository.findById(boardId).orElseThrow().getBoardArray());
+        } finally {
+            writer.join();
+            boardRepository.deleteById(boardId);
+        }
+    }
+
+    private Board legacyBoard(String name, String json) {
+        Board board = new Board();
+        board.setName(name);
+        board.setBoardData(json);
+        return boardRepository.save(board);
+    }
+}
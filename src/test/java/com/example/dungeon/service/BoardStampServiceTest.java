@@ -0,0 +1,71 @@
+package com.example.dungeon.service;
+
+import com.example.dungeon.config.SolverProperties;
+import com.example.dungeon.entity.Board;
+import com.example.dungeon.repository.BoardRepository;
+import com.example.dungeon.solver.Grid;
+import com.example.dungeon.solver.SolveProgress;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({BoardStampService.class, DungeonService.class, EntityCacheService.class})
+@EnableConfigurationProperties(SolverProperties.class)
+class BoardStampServiceTest {
+
+    @Autowired
+    private BoardStampService boardStampService;
+
+    @Autowired
+    private DungeonService dungeonService;
+
+    @Autowired
+    private BoardRepository boardRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void testStampIsStoredWhileTheBoardIsUnchanged() {
+        Board legacy = new Board();
+        legacy.setName("Legacy");
+        legacy.setBoardData("[[-2,-3,3],[-5,-10,1],[10,30,-5]]");
+        Long boardId = boardRepository.save(legacy).getId();
+        DungeonService.Stamp stamp = dungeonService.stamp(legacy, SolveProgress.NONE);
+
+        assertTrue(boardStampService.store(boardId, null, stamp));
+
+        entityManager.clear();
+        Board stamped = boardRepository.findById(boardId).orElseThrow();
+        assertEquals(7, stamped.minHpFor(DungeonService.SOLVER_VERSION));
+        assertEquals(stamped.getGrid().contentHash(), stamped.getContentHash());
+    }
+
+    @Test
+    void testStaleStampIsDroppedWhenTheBoardWasRewritten() {
+        Board board = new Board("Rewritten", new int[][]{{-2, -3, 3}, {-5, -10, 1}, {10, 30, -5}});
+        board.setMinHpVersion(DungeonService.SOLVER_VERSION - 1);
+        board.setContentHash(board.getGrid().contentHash());
+        Long boardId = boardRepository.save(board).getId();
+        // Solved from the grid as read, then a PUT commits a new grid with its own stamp
+        DungeonService.Stamp stale = dungeonService.stamp(board, SolveProgress.NONE);
+        Long readHash = board.getContentHash();
+        board.setBoardArray(new int[][]{{-9}});
+        dungeonService.precompute(board);
+        boardRepository.saveAndFlush(board);
+
+        assertFalse(boardStampService.store(boardId, readHash, stale));
+        assertFalse(boardStampService.store(99999L, null, stale));
+
+        entityManager.clear();
+        Board stored = boardRepository.findById(boardId).orElseThrow();
+        assertEquals(10, stored.minHpFor(DungeonService.SOLVER_VERSION));
+        assertEquals(Grid.of(new int[][]{{-9}}).contentHash(), stored.getContentHash());
+    }
+}
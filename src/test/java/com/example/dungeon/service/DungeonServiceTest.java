@@ -1,8 +1,27 @@
 package com.example.dungeon.service;
 
+import com.example.dungeon.config.SolverProperties;
+import com.example.dungeon.entity.Board;
+import com.example.dungeon.metrics.DungeonMetrics;
+import com.example.dungeon.solver.DpTable;
+import com.example.dungeon.solver.Grid;
+import com.example.dungeon.solver.SolveProgress;
+import com.example.dungeon.solver.WavefrontSolver;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class DungeonServiceTest {
@@ -91,4 +110,240 @@ class DungeonServiceTest {
         int result = service.calculateMinimumHP(board);
         assertTrue(result > 0, "Minimum health should be positive");
     }
+
+    @Test
+    void testParallelSolverSelectedAboveThreshold() {
+        SolverProperties properties = new SolverProperties();
+        properties.setParallelThreshold(9);
+        properties.setTileSize(2);
+        properties.setParallelism(2);
+        DungeonService parallelService = new DungeonService(properties);
+
+        int[][] board = {
+                {-2, -3, 3},
+                {-5, -10, 1},
+                {10, 30, -5}
+        };
+        assertInstanceOf(WavefrontSolver.class, parallelService.solverFor(Grid.of(board)));
+        assertEquals(7, parallelService.calculateMinimumHP(board));
+        assertFalse(parallelService.solverFor(Grid.of(new int[][]{{1, 2}})) instanceof WavefrontSolver);
+        parallelService.shutdown();
+    }
+
+    @Test
+    void testIdenticalLayoutsAreSolvedOnce() {
+        int[][] board = randomBoard(new Random(3), 40, 30);
+        int expected = service.calculateMinimumHP(board);
+
+        assertEquals(expected, service.calculateMinimumHP(Grid.of(board)));
+        board[0][0] -= 100;
+        assertEquals(expected + 100, service.calculateMinimumHP(board));
+
+        assertEquals(1, service.cacheStats().hitCount());
+        assertEquals(2, service.cacheStats().missCount());
+        assertEquals(2 * 40 * 30, service.cachedCells());
+    }
+
+    @Test
+    void testCachedLayoutsKeepNoCells() {
+        int[] cells = Grid.of(randomBoard(new Random(5), 20, 20)).cells().clone();
+        Grid shared = new Grid(20, 20, cells);
+        int expected = service.calculateMinimumHP(shared);
+        long hash = shared.contentHash();
+
+        // The grid the result was cached for changes after the fact; the cache kept its fingerprint, not its cells
+        Arrays.fill(cells, -1000);
+        Grid original = Grid.of(randomBoard(new Random(5), 20, 20));
+        assertEquals(hash, original.contentHash());
+        assertEquals(expected, service.calculateMinimumHP(original));
+        assertEquals(1, service.cacheStats().hitCount());
+    }
+
+    @Test
+    void testLayoutWithTheSameContentHashIsNotServedAnothersResult() {
+        Grid board = Grid.of(new int[][]{{-2, -3, 3}, {-5, -10, 1}, {10, 30, -5}});
+        Grid other = Grid.of(new int[][]{{-20, -3, 3}, {-5, -10, 1}, {10, 30, -5}});
+        DpTable otherTable = DpTable.solve(other);
+        assertNotEquals(7, otherTable.minHp());
+        // As if other's contents hashed the same as board's
+        service.retainTable(1L, other, board.contentHash(), otherTable);
+
+        assertEquals(7, service.calculateMinimumHP(board));
+        // Board's own result replaced other's
+        assertEquals(7, service.calculateMinimumHP(board));
+        assertEquals(otherTable.minHp(), service.calculateMinimumHP(other));
+    }
+
+    @Test
+    void testCacheIsBoundedByCellCount() {
+        SolverProperties properties = new SolverProperties();
+        properties.setCacheMaxCells(800);
+        DungeonService bounded = new DungeonService(properties);
+        Random random = new Random(4);
+        for (int k = 0; k < 10; k++) {
+            bounded.calculateMinimumHP(randomBoard(random, 10, 10));
+        }
+        bounded.calculateMinimumHP(randomBoard(random, 20, 20));
+
+        assertTrue(bounded.cachedCells() <= 800);
+        assertTrue(bounded.cacheStats().evictionCount() > 0);
+        assertEquals(10, bounded.cacheStats().missCount());
+        bounded.shutdown();
+    }
+
+    @Test
+    void testVirtualThreadOffloadsLargeSolvesToTheSolverPool() throws Exception {
+        SolverProperties properties = new SolverProperties();
+        properties.setOffloadThreshold(100);
+        DungeonService offloading = new DungeonService(properties);
+        int[][] board = randomBoard(new Random(5), 20, 20);
+        int expected = service.calculateMinimumHP(board);
+        AtomicReference<Integer> result = new AtomicReference<>();
+        AtomicBoolean small = new AtomicBoolean();
+        AtomicBoolean large = new AtomicBoolean();
+
+        Thread.ofVirtual().start(() -> {
+            result.set(offloading.calculateMinimumHP(board));
+            small.set(offloading.offload(99, () -> Thread.currentThread().isVirtual() ? 1 : 0) == 1);
+            large.set(offloading.offload(100, () -> Thread.currentThread().isVirtual() ? 1 : 0) == 0);
+        }).join();
+
+        assertEquals(expected, result.get());
+        assertTrue(small.get());
+        assertTrue(large.get());
+        assertEquals(1, offloading.offload(Long.MAX_VALUE, () -> 1));
+        offloading.shutdown();
+    }
+
+    @Test
+    void testSolvesRecordCellsAndTimePerCell() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            int[][] board = randomBoard(new Random(6), 10, 30);
+            service.calculateMinimumHP(board);
+            service.calculateMinimumHP(board); // Served from the result cache, so not solved again
+
+            DistributionSummary cells = registry.get(DungeonMetrics.BOARD_CELLS).summary();
+            assertEquals(1, cells.count());
+            assertEquals(300, cells.totalAmount());
+            // Tagged with the solver that ran
+            assertEquals(1, registry.get(DungeonMetrics.SOLVER_TIME_PER_CELL).summaries().stream()
+                    .filter(summary -> summary.getId().getTag("solver") != null)
+                    .mapToLong(DistributionSummary::count).sum());
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
+    }
+
+    @Test
+    void testStampReportsEveryRowAndStopsWhenCancelled() {
+        int[][] layout = randomBoard(new Random(8), 12, 5);
+        List<Integer> reported = new ArrayList<>();
+        Board board = new Board("Progress", layout);
+
+        DungeonService.Stamp stamp = service.stamp(board, (rows, total) -> {
+            assertEquals(12, total);
+            reported.add(rows);
+        });
+
+        assertEquals(IntStream.rangeClosed(0, 12).boxed().toList(), reported);
+        assertEquals(service.calculateMinimumHP(layout), stamp.minHp());
+        assertEquals(board.getGrid().contentHash(), stamp.contentHash());
+        assertNull(board.getMinHp());
+
+        Board cancelled = new Board("Cancelled", randomBoard(new Random(9), 12, 5));
+        SolveProgress stopAfterThreeRows = new SolveProgress() {
+            private int rows;
+
+            @Override
+            public void rowsSolved(int rows, int total) {
+                this.rows = rows;
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return rows >= 3;
+            }
+        };
+        assertThrows(CancellationException.class, () -> service.stamp(cancelled, stopAfterThreeRows));
+    }
+
+    @Test
+    void testMinHpFromAnyCellIsLookedUpInARetainedTable() {
+        int[][] layout = randomBoard(new Random(10), 15, 25);
+        Board board = new Board("Checkpoints", layout);
+        board.setId(1L);
+        service.precompute(board);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            for (int i = 0; i < 15; i += 7) {
+                for (int j = 0; j < 25; j += 6) {
+                    assertEquals(service.calculateMinimumHP(from(layout, i, j)), service.minHpFrom(board, i, j));
+                }
+            }
+            // One table built for every query, the rest are lookups (and the reference solves above)
+            assertEquals(1, registry.get(DungeonMetrics.SOLVER_TIME_PER_CELL).tag("solver", "DpTable").summary().count());
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
+        assertEquals(15 * 25, service.retainedTableBytes());
+        assertThrows(IndexOutOfBoundsException.class, () -> service.minHpFrom(board, 15, 0));
+    }
+
+    @Test
+    void testMinHpFromAnUnstampedBoardBuildsOneTable() {
+        int[][] layout = randomBoard(new Random(11), 12, 9);
+        Board board = new Board("Unstamped", layout);
+        board.setId(3L);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            assertEquals(service.calculateMinimumHP(from(layout, 4, 2)), service.minHpFrom(board, 4, 2));
+            assertEquals(service.calculateMinimumHP(from(layout, 7, 5)), service.minHpFrom(board, 7, 5));
+            assertEquals(1, registry.get(DungeonMetrics.SOLVER_TIME_PER_CELL).tag("solver", "DpTable").summary().count());
+
+            // Different cells under the same id are not looked up in the old table
+            layout[11][8] -= 50;
+            Board edited = new Board("Unstamped", layout);
+            edited.setId(3L);
+            assertEquals(service.calculateMinimumHP(from(layout, 7, 5)), service.minHpFrom(edited, 7, 5));
+            assertEquals(2, registry.get(DungeonMetrics.SOLVER_TIME_PER_CELL).tag("solver", "DpTable").summary().count());
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
+    }
+
+    @Test
+    void testMinHpFromCellOfABoardTooLargeForATableIsSolved() {
+        SolverProperties properties = new SolverProperties();
+        properties.setTableMaxBytes(80); // Tables of at most 10 cells
+        DungeonService small = new DungeonService(properties);
+        int[][] layout = randomBoard(new Random(12), 6, 7);
+        Board board = new Board("Large", layout);
+        board.setId(2L);
+
+        assertEquals(small.calculateMinimumHP(from(layout, 2, 3)), small.minHpFrom(board, 2, 3));
+        assertEquals(0, small.retainedTableBytes());
+        small.shutdown();
+    }
+
+    private static int[][] from(int[][] board, int row, int col) {
+        int[][] rest = new int[board.length - row][];
+        for (int i = row; i < board.length; i++) {
+            rest[i - row] = Arrays.copyOfRange(board[i], col, board[i].length);
+        }
+        return rest;
+    }
+
+    private static int[][] randomBoard(Random random, int rows, int cols) {
+        int[][] board = new int[rows][cols];
+        for (int[] row : board) {
+            for (int j = 0; j < cols; j++) {
+                row[j] = random.nextInt(21) - 10;
+            }
+        }
+        return board;
+    }
 }
@@ -0,0 +1,89 @@
+package com.example.dungeon.service;
+
+import com.example.dungeon.entity.Board;
+import com.example.dungeon.entity.Player;
+import com.example.dungeon.repository.BoardRepository;
+import com.example.dungeon.repository.PlayerRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(EntityCacheService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Entries put in a session are only readable by later ones
+class EntityCacheServiceTest {
+
+    @Autowired
+    private BoardRepository boardRepository;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private EntityCacheService entityCacheService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        // The regions live in a JCache manager shared by every test context
+        entityCacheService.evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        boardRepository.deleteAll();
+        playerRepository.deleteAll();
+        entityCacheService.evictAll();
+    }
+
+    @Test
+    void testLookupsAreServedFromSecondLevelCache() {
+        Long boardId = boardRepository.save(new Board("Cached", new int[][]{{-2, -3, 3}, {-5, -10, 1}, {10, 30, -5}})).getId();
+        Long playerId = playerRepository.save(new Player("Alice", "alice@example.com")).getId();
+        entityCacheService.evictAll();
+        statistics.clear();
+
+        boardRepository.findById(boardId).orElseThrow();
+        playerRepository.findById(playerId).orElseThrow();
+        long statements = statistics.getPrepareStatementCount();
+
+        Board board = boardRepository.findById(boardId).orElseThrow();
+        Player player = playerRepository.findById(playerId).orElseThrow();
+
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertArrayEquals(new int[][]{{-2, -3, 3}, {-5, -10, 1}, {10, 30, -5}}, board.getBoardArray());
+        assertEquals("Alice", player.getName());
+        assertEquals(1, entityCacheService.regionStatistics().get("boards").getHitCount());
+        assertEquals(1, entityCacheService.regionStatistics().get("players").getHitCount());
+    }
+
+    @Test
+    void testEvictForcesReload() {
+        Long boardId = boardRepository.save(new Board("Evicted", new int[][]{{1}})).getId();
+        boardRepository.findById(boardId).orElseThrow();
+        statistics.clear();
+
+        entityCacheService.evict(Board.class, boardId);
+        long statements = statistics.getPrepareStatementCount();
+        boardRepository.findById(boardId).orElseThrow();
+
+        assertEquals(statements + 1, statistics.getPrepareStatementCount());
+        assertEquals(0, entityCacheService.regionStatistics().get("boards").getHitCount());
+        assertEquals(1, entityCacheService.regionStatistics().get("boards").getMissCount());
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.dungeon.service;
+
+import com.example.dungeon.config.GameProperties;
+import com.example.dungeon.entity.Board;
+import com.example.dungeon.entity.Game;
+import com.example.dungeon.entity.Player;
+import com.example.dungeon.repository.BoardRepository;
+import com.example.dungeon.repository.GameRepository;
+import com.example.dungeon.repository.GameSummary;
+import com.example.dungeon.repository.PlayerRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "dungeon.games.page-size=2",
+        "dungeon.games.max-page-size=3"
+})
+@Import(GameListingService.class)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@EnableConfigurationProperties(GameProperties.class)
+class GameListingServiceTest {
+
+    @Autowired
+    private GameListingService gameListingService;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private BoardRepository boardRepository;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Player alice;
+    private Player bob;
+    private Board board;
+
+    @BeforeEach
+    void setUp() {
+        alice = playerRepository.save(new Player("Alice", "alice@example.com"));
+        bob = playerRepository.save(new Player("Bob", "bob@example.com"));
+        board = boardRepository.save(new Board("Board", new int[][]{{1, 2}}));
+    }
+
+    @Test
+    void testPagesWalkEveryGameNewestFirst() {
+        // Two games share a timestamp, so the id breaks the tie
+        LocalDateTime start = LocalDateTime.of(2024, 5, 1, 12, 0);
+        for (int k = 0; k < 5; k++) {
+            save(alice, k, start.plusMinutes(Math.min(k, 3)));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Integer> results = new ArrayList<>();
+        GameListingService.Cursor cursor = null;
+        int pages = 0;
+        do {
+            GameListingService.GamePage page = gameListingService.page(null, null, cursor, null);
+            assertTrue(page.games().size() <= 2);
+            page.games().forEach(game -> results.add(game.result()));
+            cursor = page.nextCursor() == null ? null : GameListingService.Cursor.decode(page.nextCursor());
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(List.of(4, 3, 2, 1, 0), results);
+    }
+
+    @Test
+    void testPageSizeIsCapped() {
+        for (int k = 0; k < 5; k++) {
+            save(alice, k, LocalDateTime.of(2024, 5, 1, 12, k));
+        }
+
+        assertEquals(3, gameListingService.page(null, null, null, 100).games().size());
+        assertEquals(1, gameListingService.page(null, null, null, 1).games().size());
+    }
+
+    @Test
+    void testPagesByPlayer() {
+        save(alice, 1, LocalDateTime.of(2024, 5, 1, 12, 0));
+        save(bob, 2, LocalDateTime.of(2024, 5, 1, 12, 1));
+        save(alice, 3, LocalDateTime.of(2024, 5, 1, 12, 2));
+
+        GameListingService.GamePage page = gameListingService.page(alice.getId(), null, null, null);
+
+        assertEquals(List.of(3, 1), page.games().stream().map(GameSummary::result).toList());
+        assertNull(page.nextCursor());
+        assertNotNull(gameListingService.page(null, board.getId(), null, null).nextCursor());
+    }
+
+    @Test
+    void testListingLoadsNoEntities() {
+        save(alice, 1, LocalDateTime.of(2024, 5, 1, 12, 0));
+        save(bob, 2, LocalDateTime.of(2024, 5, 1, 12, 1));
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        GameListingService.GamePage page = gameListingService.page(null, null, null, null);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals("Bob", page.games().get(0).playerName());
+        assertEquals("Board", page.games().get(0).boardName());
+        assertEquals(alice.getId(), page.games().get(1).playerId());
+    }
+
+    @Test
+    void testDetailFetchesPlayerAndBoardInOneQuery() throws Exception {
+        save(alice, 1, LocalDateTime.of(2024, 5, 1, 12, 0));
+        Long gameId = gameRepository.findAll().get(0).getId();
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Game game = gameRepository.findDetailById(gameId).orElseThrow();
+        String json = objectMapper.writeValueAsString(game);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(json.contains("\"name\":\"Alice\""));
+        assertTrue(json.contains("\"name\":\"Board\""));
+    }
+
+    @Test
+    void testStreamWritesOneGamePerLine() throws Exception {
+        for (int k = 0; k < 4; k++) {
+            save(k % 2 == 0 ? alice : bob, k, LocalDateTime.of(2024, 5, 1, 12, k));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        gameListingService.stream(null, null, null, out);
+        String[] lines = out.toString().split("\n");
+
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":"));
+        assertTrue(lines[0].contains("\"playerName\":\"Bob\",\"boardId\":" + board.getId() + ",\"boardName\":\"Board\""));
+        assertTrue(lines[0].contains("\"result\":3"));
+        assertTrue(lines[3].contains("\"result\":0"));
+
+        out.reset();
+        gameListingService.stream(bob.getId(), null, null, out);
+        assertEquals(2, out.toString().split("\n").length);
+    }
+
+    @Test
+    void testCursorRoundTrips() {
+        GameListingService.Cursor cursor = new GameListingService.Cursor(LocalDateTime.of(2024, 5, 1, 12, 0, 0, 123_456_000), 42L);
+
+        assertEquals(cursor, GameListingService.Cursor.decode(cursor.encode()));
+        assertThrows(IllegalArgumentException.class, () -> GameListingService.Cursor.decode("bm9wZQ"));
+    }
+
+    private void save(Player player, int result, LocalDateTime playedAt) {
+        Game game = new Game(player, board, result);
+        game.setPlayedAt(playedAt);
+        gameRepository.save(game);
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.dungeon.service;
+
+import com.example.dungeon.config.GameProperties;
+import com.example.dungeon.entity.Board;
+import com.example.dungeon.entity.BoardStats;
+import com.example.dungeon.entity.Game;
+import com.example.dungeon.entity.Player;
+import com.example.dungeon.entity.PlayerStats;
+import com.example.dungeon.repository.BoardRepository;
+import com.example.dungeon.repository.GameRepository;
+import com.example.dungeon.repository.LeaderboardEntry;
+import com.example.dungeon.repository.PlayerRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "dungeon.games.stats-flush-interval=1h"
+})
+@Import(GameStatsService.class)
+@EnableConfigurationProperties(GameProperties.class)
+class GameStatsServiceTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Autowired
+    private GameStatsService gameStatsService;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private BoardRepository boardRepository;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Player alice;
+    private Board board;
+
+    @BeforeEach
+    void setUp() {
+        alice = playerRepository.save(new Player("Alice", "alice@example.com"));
+        board = boardRepository.save(new Board("Board", new int[][]{{1, 2}}));
+        gameStatsService.createPlayerStats(alice.getId());
+        gameStatsService.createBoardStats(board.getId());
+    }
+
+    @Test
+    void testApplyUpdatesPlayerAndBoardStats() {
+        gameStatsService.apply(List.of(
+                new GameStatsService.RecordedGame(alice.getId(), board.getId(), 7, NOON),
+                new GameStatsService.RecordedGame(alice.getId(), board.getId(), 2, NOON.plusMinutes(5))));
+        gameStatsService.apply(List.of(
+                new GameStatsService.RecordedGame(alice.getId(), board.getId(), 12, NOON.plusMinutes(1))));
+        entityManager.clear();
+
+        PlayerStats player = gameStatsService.playerStats(alice.getId()).orElseThrow();
+        assertEquals(3, player.getGamesPlayed());
+        assertEquals(2, player.getBestMinHp());
+        assertEquals(12, player.getWorstMinHp());
+        assertEquals(7.0, player.getAverageMinHp());
+        assertEquals(NOON.plusMinutes(5), player.getLastPlayedAt());
+        BoardStats boardStats = gameStatsService.boardStats(board.getId()).orElseThrow();
+        assertEquals(3, boardStats.getGamesPlayed());
+        assertEquals(2, boardStats.getBestMinHp());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testRecordedGamesAreAppliedByAFlushOnceCommitted() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> gameStatsService.record(List.of(
+                    new GameStatsService.RecordedGame(alice.getId(), board.getId(), 5, NOON))));
+            transactionTemplate.executeWithoutResult(status -> {
+                gameStatsService.record(List.of(new GameStatsService.RecordedGame(alice.getId(), board.getId(), 1, NOON)));
+                status.setRollbackOnly();
+            });
+            assertEquals(0, gameStatsService.playerStats(alice.getId()).orElseThrow().getGamesPlayed());
+
+            gameStatsService.flush();
+
+            PlayerStats player = gameStatsService.playerStats(alice.getId()).orElseThrow();
+            assertEquals(1, player.getGamesPlayed());
+            assertEquals(5, player.getBestMinHp());
+            assertEquals(1, gameStatsService.boardStats(board.getId()).orElseThrow().getGamesPlayed());
+        } finally {
+            gameStatsService.deletePlayerStats(alice.getId());
+            gameStatsService.deleteBoardStats(board.getId());
+            playerRepository.deleteById(alice.getId());
+            boardRepository.deleteById(board.getId());
+        }
+    }
+
+    @Test
+    void testApplyInsertsAMissingRow() {
+        Player bob = playerRepository.save(new Player("Bob", "bob@example.com"));
+
+        gameStatsService.apply(List.of(new GameStatsService.RecordedGame(bob.getId(), board.getId(), 3, NOON)));
+        entityManager.clear();
+
+        PlayerStats stats = gameStatsService.playerStats(bob.getId()).orElseThrow();
+        assertEquals(1, stats.getGamesPlayed());
+        assertEquals(3, stats.getBestMinHp());
+        assertEquals(3, stats.getWorstMinHp());
+        assertEquals(NOON, stats.getLastPlayedAt());
+    }
+
+    @Test
+    void testApplySkipsADeletedPlayerOrBoard() {
+        Player bob = playerRepository.save(new Player("Bob", "bob@example.com"));
+        Board gone = boardRepository.save(new Board("Gone", new int[][]{{3}}));
+        playerRepository.deleteById(bob.getId());
+        boardRepository.deleteById(gone.getId());
+        entityManager.flush();
+        gameStatsService.deletePlayerStats(bob.getId());
+        gameStatsService.deleteBoardStats(gone.getId());
+
+        // Games played before the deletes, applied after them
+        gameStatsService.apply(List.of(
+                new GameStatsService.RecordedGame(bob.getId(), board.getId(), 3, NOON),
+                new GameStatsService.RecordedGame(alice.getId(), gone.getId(), 4, NOON)));
+        entityManager.clear();
+
+        assertTrue(gameStatsService.playerStats(bob.getId()).isEmpty());
+        assertTrue(gameStatsService.boardStats(gone.getId()).isEmpty());
+        assertEquals(1, gameStatsService.playerStats(alice.getId()).orElseThrow().getGamesPlayed());
+        assertEquals(1, gameStatsService.boardStats(board.getId()).orElseThrow().getGamesPlayed());
+    }
+
+    @Test
+    void testRebuildRecoversGamesNeverAppliedAndDropsOrphanRows() {
+        for (int result : new int[]{4, 8}) {
+            Game game = new Game(alice, board, result);
+            game.setPlayedAt(NOON.plusMinutes(result));
+            gameRepository.save(game);
+        }
+        entityManager.flush();
+        // A row applied too many games, and one whose player is gone
+        gameStatsService.apply(List.of(new GameStatsService.RecordedGame(alice.getId(), board.getId(), 1, NOON)));
+        gameStatsService.createPlayerStats(99999L);
+
+        gameStatsService.rebuildStats();
+        entityManager.clear();
+
+        PlayerStats stats = gameStatsService.playerStats(alice.getId()).orElseThrow();
+        assertEquals(2, stats.getGamesPlayed());
+        assertEquals(4, stats.getBestMinHp());
+        assertEquals(8, stats.getWorstMinHp());
+        assertEquals(NOON.plusMinutes(8), stats.getLastPlayedAt());
+        assertEquals(2, gameStatsService.boardStats(board.getId()).orElseThrow().getGamesPlayed());
+        assertTrue(gameStatsService.playerStats(99999L).isEmpty());
+    }
+
+    @Test
+    void testNewStatsAreEmpty() {
+        PlayerStats player = gameStatsService.playerStats(alice.getId()).orElseThrow();
+
+        assertEquals(0, player.getGamesPlayed());
+        assertNull(player.getBestMinHp());
+        assertNull(player.getAverageMinHp());
+        assertNull(player.getLastPlayedAt());
+    }
+
+    @Test
+    void testMissingStatsAreRebuiltFromGames() {
+        Player bob = playerRepository.save(new Player("Bob", "bob@example.com"));
+        for (int result : new int[]{4, 8}) {
+            Game game = new Game(bob, board, result);
+            game.setPlayedAt(NOON.plusMinutes(result));
+            gameRepository.save(game);
+        }
+        entityManager.flush();
+
+        gameStatsService.createMissingStats();
+        entityManager.clear();
+
+        PlayerStats stats = gameStatsService.playerStats(bob.getId()).orElseThrow();
+        assertEquals(2, stats.getGamesPlayed());
+        assertEquals(4, stats.getBestMinHp());
+        assertEquals(8, stats.getWorstMinHp());
+        assertEquals(6.0, stats.getAverageMinHp());
+        assertEquals(NOON.plusMinutes(8), stats.getLastPlayedAt());
+        // Alice's row was already there, and is left as it was
+        assertEquals(0, gameStatsService.playerStats(alice.getId()).orElseThrow().getGamesPlayed());
+    }
+
+    @Test
+    void testLeaderboardHasMostGamesPlayedFirst() {
+        Player bob = playerRepository.save(new Player("Bob", "bob@example.com"));
+        Player carol = playerRepository.save(new Player("Carol", "carol@example.com"));
+        gameStatsService.createPlayerStats(bob.getId());
+        gameStatsService.createPlayerStats(carol.getId());
+        gameStatsService.apply(List.of(
+                new GameStatsService.RecordedGame(alice.getId(), board.getId(), 3, NOON),
+                new GameStatsService.RecordedGame(bob.getId(), board.getId(), 5, NOON),
+                new GameStatsService.RecordedGame(bob.getId(), board.getId(), 1, NOON)));
+
+        List<LeaderboardEntry> leaderboard = gameStatsService.leaderboard(10);
+
+        // Carol hasn't played, so she isn't on it
+        assertEquals(List.of("Bob", "Alice"), leaderboard.stream().map(LeaderboardEntry::playerName).toList());
+        assertEquals(2, leaderboard.get(0).gamesPlayed());
+        assertEquals(3.0, leaderboard.get(0).averageMinHp());
+        assertEquals(1, gameStatsService.leaderboard(1).size());
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.dungeon.service;
+
+import com.example.dungeon.config.GameProperties;
+import com.example.dungeon.entity.Board;
+import com.example.dungeon.entity.Game;
+import com.example.dungeon.entity.Player;
+import com.example.dungeon.entity.PlayerStats;
+import com.example.dungeon.repository.BoardRepository;
+import com.example.dungeon.repository.BoardStatsRepository;
+import com.example.dungeon.repository.GameRepository;
+import com.example.dungeon.repository.JournalCheckpointRepository;
+import com.example.dungeon.repository.PlayerRepository;
+import com.example.dungeon.repository.PlayerStatsRepository;
+import com.example.dungeon.storage.GameJournal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongPredicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "dungeon.games.write-behind=true",
+        "dungeon.games.journal-directory=target/test-journal/${random.uuid}",
+        "dungeon.games.flush-size=3",
+        "dungeon.games.flush-latency=20ms",
+        "dungeon.games.pending-capacity=5",
+        "dungeon.games.pending-timeout=500ms"
+})
+@Import({GameWriteBehindService.class, GameIdSequence.class, GameStatsService.class})
+@EnableConfigurationProperties(GameProperties.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // The committer inserts from its own thread
+class GameWriteBehindServiceTest {
+
+    @Autowired
+    private GameWriteBehindService writeBehind;
+
+    @Autowired
+    private GameProperties properties;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private BoardRepository boardRepository;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private JournalCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private PlayerStatsRepository playerStatsRepository;
+
+    @Autowired
+    private BoardStatsRepository boardStatsRepository;
+
+    @SpyBean
+    private GameStatsService gameStatsService;
+
+    @AfterEach
+    void tearDown() {
+        gameRepository.deleteAll();
+        boardRepository.deleteAll();
+        playerRepository.deleteAll();
+        playerStatsRepository.deleteAll();
+        boardStatsRepository.deleteAll();
+    }
+
+    @Test
+    void testRecordedGamesAreCommittedInBatches() throws Exception {
+        Long playerId = playerRepository.save(new Player("Alice", "alice@example.com")).getId();
+        Long boardId = boardRepository.save(new Board("Board", new int[][]{{-4}})).getId();
+
+        long last = 0;
+        for (int k = 0; k < 7; k++) {
+            last = writeBehind.record(playerId, boardId, k);
+        }
+
+        awaitGames(7);
+        assertEquals(21, gameRepository.findAll().stream().mapToInt(Game::getResult).sum());
+        long committed = last;
+        awaitCheckpoint(sequence -> sequence == committed);
+        PlayerStats stats = playerStatsRepository.findById(playerId).orElseThrow();
+        assertEquals(7, stats.getGamesPlayed());
+        assertEquals(0, stats.getBestMinHp());
+        assertEquals(6, stats.getWorstMinHp());
+        assertEquals(7, boardStatsRepository.findById(boardId).orElseThrow().getGamesPlayed());
+    }
+
+    @Test
+    void testPlaysAreTurnedAwayWhileTooManyGamesWait() throws Exception {
+        Long playerId = playerRepository.save(new Player("Alice", "alice@example.com")).getId();
+        Long boardId = boardRepository.save(new Board("Board", new int[][]{{-4}})).getId();
+        long committed = checkpointRepository.findById(properties.getJournalName()).orElseThrow().getCommittedSequence();
+
+        // As if the database had stopped taking games: every place among the pending ones is taken
+        writeBehind.reserve(5);
+        try {
+            assertThrows(RejectedExecutionException.class, () -> writeBehind.record(playerId, boardId, 1));
+        } finally {
+            writeBehind.stop();
+            writeBehind.start();
+        }
+
+        // Nothing was journaled for the rejected play
+        long last = writeBehind.record(playerId, boardId, 2);
+        assertEquals(committed + 1, last);
+        awaitGames(1);
+
+        // Room reserved but never used is given back
+        writeBehind.reserve(5);
+        writeBehind.release(5);
+        writeBehind.record(playerId, boardId, 3);
+        awaitGames(2);
+    }
+
+    @Test
+    void testGamesRejectedByTheDatabaseAreDropped() throws Exception {
+        Long playerId = playerRepository.save(new Player("Alice", "alice@example.com")).getId();
+        Long boardId = boardRepository.save(new Board("Board", new int[][]{{-4}})).getId();
+
+        writeBehind.record(playerId, boardId, 1);
+        writeBehind.record(playerId, 99999L, 2);
+        long last = writeBehind.record(playerId, boardId, 3);
+
+        awaitGames(2);
+        awaitCheckpoint(sequence -> sequence == last);
+        assertEquals(2, gameRepository.count());
+    }
+
+    @Test
+    void testBatchRetriedAfterAFailedRowIsNotInsertedTwice() throws Exception {
+        Long playerId = playerRepository.save(new Player("Alice", "alice@example.com")).getId();
+        Long boardId = boardRepository.save(new Board("Board", new int[][]{{-4}})).getId();
+        // The connection drops once, on the last game of the row by row fallback
+        doThrow(new TransientDataAccessResourceException("Connection lost")).doCallRealMethod()
+                .when(gameStatsService).apply(argThat(games -> games.size() == 1 && games.get(0).result() == 3));
+        writeBehind.stop();
+
+        // Replayed together, so the three games make one batch; the second one's board doesn't exist
+        long committed = checkpointRepository.findById(properties.getJournalName()).orElseThrow().getCommittedSequence();
+        GameJournal journal = GameJournal.open(Path.of(properties.getJournalDirectory()), committed);
+        journal.append(playerId, boardId, 1, System.currentTimeMillis());
+        journal.append(playerId, 99999L, 2, System.currentTimeMillis());
+        journal.sync(journal.append(playerId, boardId, 3, System.currentTimeMillis()));
+        journal.close();
+        writeBehind.start();
+
+        awaitCheckpoint(sequence -> sequence == committed + 3);
+        assertEquals(List.of(1, 3), gameRepository.findAll().stream().map(Game::getResult).sorted().toList());
+        assertEquals(2, playerStatsRepository.findById(playerId).orElseThrow().getGamesPlayed());
+    }
+
+    @Test
+    void testJournalIsReplayedOnStart() throws Exception {
+        Long playerId = playerRepository.save(new Player("Alice", "alice@example.com")).getId();
+        Long boardId = boardRepository.save(new Board("Board", new int[][]{{-4}})).getId();
+        writeBehind.stop();
+
+        // Games acknowledged just before a crash: journaled, never inserted
+        long committed = checkpointRepository.findById(properties.getJournalName()).orElseThrow().getCommittedSequence();
+        GameJournal journal = GameJournal.open(Path.of(properties.getJournalDirectory()), committed);
+        journal.sync(journal.append(playerId, boardId, 11, System.currentTimeMillis()));
+        journal.sync(journal.append(playerId, boardId, 12, System.currentTimeMillis()));
+        journal.close();
+
+        writeBehind.start();
+
+        awaitGames(2);
+        awaitCheckpoint(sequence -> sequence == committed + 2);
+    }
+
+    private void awaitGames(long count) throws InterruptedException {
+        for (int k = 0; k < 200 && gameRepository.count() < count; k++) {
+            Thread.sleep(25);
+        }
+        assertEquals(count, gameRepository.count());
+    }
+
+    private void awaitCheckpoint(LongPredicate done) throws InterruptedException {
+        for (int k = 0; k < 200; k++) {
+            if (done.test(checkpointRepository.findById(properties.getJournalName()).orElseThrow().getCommittedSequence())) {
+                return;
+            }
+            Thread.sleep(25);
+        }
+        fail("Checkpoint did not advance");
+    }
+}
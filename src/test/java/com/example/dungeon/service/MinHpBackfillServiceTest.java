@@ -0,0 +1,59 @@
+package com.example.dungeon.service;
+
+import com.example.dungeon.config.SolverProperties;
+import com.example.dungeon.entity.Board;
+import com.example.dungeon.repository.BoardRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "dungeon.solver.backfill-min-hp=false",
+        "dungeon.solver.backfill-batch-size=2"
+})
+@Import({MinHpBackfillService.class, DungeonService.class, BoardStampService.class, EntityCacheService.class})
+@EnableConfigurationProperties(SolverProperties.class)
+class MinHpBackfillServiceTest {
+
+    @Autowired
+    private BoardRepository boardRepository;
+
+    @Autowired
+    private MinHpBackfillService backfillService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void testBoardsWithoutCurrentMinHpAreSolved() {
+        Board classic = boardRepository.save(new Board("Classic", new int[][]{{-2, -3, 3}, {-5, -10, 1}, {10, 30, -5}}));
+        Board legacy = new Board();
+        legacy.setName("Legacy");
+        legacy.setBoardData("[[1,-4],[-3,0]]");
+        legacy = boardRepository.save(legacy);
+        Board outdated = new Board("Outdated", new int[][]{{0}});
+        outdated.setMinHp(99);
+        outdated.setMinHpVersion(DungeonService.SOLVER_VERSION - 1);
+        outdated = boardRepository.save(outdated);
+        Board current = new Board("Current", new int[][]{{5}});
+        current.setMinHp(1);
+        current.setMinHpVersion(DungeonService.SOLVER_VERSION);
+        boardRepository.save(current);
+
+        assertEquals(3, backfillService.backfillAll());
+        entityManager.clear();
+
+        Board solved = boardRepository.findById(classic.getId()).orElseThrow();
+        assertEquals(7, solved.minHpFor(DungeonService.SOLVER_VERSION));
+        assertEquals(solved.getGrid().contentHash(), solved.getContentHash());
+        assertEquals(3, boardRepository.findById(legacy.getId()).orElseThrow().minHpFor(DungeonService.SOLVER_VERSION));
+        assertEquals(1, boardRepository.findById(outdated.getId()).orElseThrow().minHpFor(DungeonService.SOLVER_VERSION));
+        assertEquals(0, backfillService.backfillAll());
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.dungeon.service;
+
+import com.example.dungeon.config.JobProperties;
+import com.example.dungeon.repository.BoardRepository;
+import com.example.dungeon.repository.PlayerRepository;
+import com.example.dungeon.solver.SolveProgress;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PlayJobServiceTest {
+
+    private final PlayService playService = mock(PlayService.class);
+    private final PlayerRepository playerRepository = mock(PlayerRepository.class);
+    private PlayJobService jobService;
+
+    @BeforeEach
+    void setUp() {
+        JobProperties properties = new JobProperties();
+        properties.setThreads(1);
+        properties.setQueueCapacity(1);
+        properties.setExpiry(Duration.ofMillis(200));
+        properties.setProgressInterval(Duration.ZERO);
+        jobService = new PlayJobService(properties);
+        ReflectionTestUtils.setField(jobService, "playService", playService);
+        ReflectionTestUtils.setField(jobService, "playerRepository", playerRepository);
+        ReflectionTestUtils.setField(jobService, "boardRepository", mock(BoardRepository.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobService.shutdown();
+    }
+
+    @Test
+    void testJobReportsProgressThenItsResultExactlyOnce() throws Exception {
+        when(playService.play(eq(1L), eq(2L), any())).thenAnswer(invocation -> {
+            SolveProgress progress = invocation.getArgument(2);
+            for (int rows = 0; rows <= 3; rows++) {
+                progress.rowsSolved(rows, 3);
+            }
+            return Optional.of(new PlayService.PlayedGame(9L, "Alice", "Board", 7));
+        });
+        List<PlayJob.Status> seen = new CopyOnWriteArrayList<>();
+        CountDownLatch finished = new CountDownLatch(1);
+
+        PlayJob job = jobService.submit(1L, 2L);
+        job.listen(update -> {
+            seen.add(update.getStatus());
+            if (update.getStatus().isFinished()) finished.countDown();
+        });
+
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertEquals(PlayJob.Status.DONE, job.getStatus());
+        assertEquals(7, job.getResult().minimumHealth());
+        assertEquals(3, job.getRowsSolved());
+        assertEquals(1, seen.stream().filter(PlayJob.Status::isFinished).count());
+        assertEquals(PlayJob.Status.DONE, seen.get(seen.size() - 1));
+
+        // A late listener is told of the outcome at once
+        List<PlayJob.Status> late = new CopyOnWriteArrayList<>();
+        job.listen(update -> late.add(update.getStatus()));
+        assertEquals(List.of(PlayJob.Status.DONE), late);
+    }
+
+    @Test
+    void testMissingPlayerOrBoardFailsTheJob() throws Exception {
+        when(playService.play(any(), any(), any())).thenReturn(Optional.empty());
+        when(playerRepository.existsById(1L)).thenReturn(false);
+        when(playerRepository.existsById(2L)).thenReturn(true);
+
+        PlayJob noPlayer = jobService.submit(1L, 5L);
+        awaitFinished(noPlayer);
+        PlayJob noBoard = jobService.submit(2L, 5L);
+        awaitFinished(noBoard);
+
+        assertEquals(PlayJob.Status.FAILED, noPlayer.getStatus());
+        assertEquals("Player not found", noPlayer.getError());
+        assertEquals("Board not found", noBoard.getError());
+    }
+
+    @Test
+    void testFullQueueRefusesJobsAndQueuedJobsCancelAtOnce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(playService.play(eq(1L), eq(1L), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return Optional.of(new PlayService.PlayedGame(1L, "Alice", "Board", 1));
+        });
+
+        PlayJob running = jobService.submit(1L, 1L);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        PlayJob queued = jobService.submit(1L, 2L);
+        assertThrows(RejectedExecutionException.class, () -> jobService.submit(1L, 3L));
+
+        assertEquals(PlayJob.Status.CANCELLED, jobService.cancel(queued.getId()).orElseThrow().getStatus());
+        // Its queue slot is free again
+        PlayJob next = jobService.submit(1L, 4L);
+        release.countDown();
+        awaitFinished(running);
+        awaitFinished(next);
+
+        assertEquals(PlayJob.Status.DONE, running.getStatus());
+        verify(playService, never()).play(eq(1L), eq(2L), any());
+        assertTrue(jobService.cancel("no-such-job").isEmpty());
+    }
+
+    @Test
+    void testJobsBeyondMaxUnfinishedAreRefusedAndOnlyFinishedJobsAreDropped() throws Exception {
+        jobService.shutdown();
+        JobProperties properties = new JobProperties();
+        properties.setThreads(1);
+        properties.setQueueCapacity(10);
+        properties.setMaxJobs(2);
+        jobService = new PlayJobService(properties);
+        ReflectionTestUtils.setField(jobService, "playService", playService);
+        ReflectionTestUtils.setField(jobService, "playerRepository", playerRepository);
+        CountDownLatch release = new CountDownLatch(1);
+        when(playService.play(eq(1L), any(), any())).thenReturn(Optional.of(new PlayService.PlayedGame(1L, "Alice", "Board", 1)));
+        when(playService.play(eq(2L), any(), any())).thenAnswer(invocation -> {
+            release.await();
+            return Optional.of(new PlayService.PlayedGame(2L, "Bob", "Board", 1));
+        });
+
+        // More finished jobs than max-jobs
+        for (long board = 1; board <= 5; board++) {
+            awaitFinished(jobService.submit(1L, board));
+        }
+        PlayJob running = jobService.submit(2L, 1L);
+        PlayJob queued = jobService.submit(2L, 2L);
+        // The queue has room, but max-jobs jobs are unfinished
+        assertThrows(RejectedExecutionException.class, () -> jobService.submit(2L, 3L));
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(jobService.find(running.getId()).isPresent());
+            assertTrue(jobService.find(queued.getId()).isPresent());
+        }
+        assertFalse(queued.isCancelled());
+        release.countDown();
+        awaitFinished(running);
+        awaitFinished(queued);
+        assertEquals(PlayJob.Status.DONE, queued.getStatus());
+        // Room for new jobs again
+        awaitFinished(jobService.submit(1L, 6L));
+    }
+
+    @Test
+    void testRunningJobStopsAtItsNextRowWhenCancelled() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        when(playService.play(eq(1L), eq(1L), any())).thenAnswer(invocation -> {
+            SolveProgress progress = invocation.getArgument(2);
+            for (int rows = 0; ; rows++) {
+                progress.rowsSolved(rows, Integer.MAX_VALUE);
+                started.countDown();
+                if (progress.isCancelled()) throw new CancellationException();
+                Thread.sleep(1);
+            }
+        });
+
+        PlayJob job = jobService.submit(1L, 1L);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        jobService.cancel(job.getId());
+        awaitFinished(job);
+
+        assertEquals(PlayJob.Status.CANCELLED, job.getStatus());
+        assertNull(job.getResult());
+    }
+
+    @Test
+    void testFinishedJobsExpire() throws Exception {
+        when(playService.play(any(), any(), any())).thenReturn(Optional.of(new PlayService.PlayedGame(1L, "Alice", "Board", 1)));
+
+        PlayJob job = jobService.submit(1L, 1L);
+        awaitFinished(job);
+        assertTrue(jobService.find(job.getId()).isPresent());
+
+        Thread.sleep(400);
+        assertTrue(jobService.find(job.getId()).isEmpty());
+    }
+
+    private static void awaitFinished(PlayJob job) throws InterruptedException {
+        CountDownLatch finished = new CountDownLatch(1);
+        job.listen(update -> {
+            if (update.getStatus().isFinished()) finished.countDown();
+        });
+        assertTrue(finished.await(5, TimeUnit.SECONDS), "Job did not finish");
+    }
+}
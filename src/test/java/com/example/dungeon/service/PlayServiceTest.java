@@ -0,0 +1,335 @@
+package com.example.dungeon.service;
+
+import com.example.dungeon.config.GameProperties;
+import com.example.dungeon.config.SolverProperties;
+import com.example.dungeon.entity.Board;
+import com.example.dungeon.entity.Game;
+import com.example.dungeon.entity.Player;
+import com.example.dungeon.repository.BoardRepository;
+import com.example.dungeon.repository.GameRepository;
+import com.example.dungeon.repository.PlayerRepository;
+import com.example.dungeon.solver.SolveProgress;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "dungeon.games.stats-flush-interval=1h"
+})
+@Import({PlayService.class, DungeonService.class, GameWriteBehindService.class, GameIdSequence.class, GameStatsService.class,
+        BoardStampService.class, EntityCacheService.class, PlayServiceTest.StatementCounting.class})
+@EnableConfigurationProperties({SolverProperties.class, GameProperties.class})
+class PlayServiceTest {
+
+    @Autowired
+    private PlayService playService;
+
+    @Autowired
+    private DungeonService dungeonService;
+
+    @Autowired
+    private GameStatsService gameStatsService;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private BoardRepository boardRepository;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private Statistics statistics;
+    private AtomicInteger statements;
+    private Long playerId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statements = ((CountingDataSource) dataSource).statements;
+        playerId = playerRepository.save(new Player("Alice", "alice@example.com")).getId();
+    }
+
+    @Test
+    void testPlayIsOneSelectAndOneInsert() {
+        Board board = new Board("Solved", new int[][]{{-2, -3, 3}, {-5, -10, 1}, {10, 30, -5}});
+        dungeonService.precompute(board);
+        Long boardId = boardRepository.save(board).getId();
+        // Game ids are taken from their sequence a block at a time; take the first block outside the count
+        playService.play(playerId, boardId);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        statements.set(0);
+
+        PlayService.PlayedGame played = playService.play(playerId, boardId).orElseThrow();
+        entityManager.flush();
+
+        assertEquals(2, statements.get());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals("Alice", played.playerName());
+        assertEquals("Solved", played.boardName());
+        assertEquals(7, played.minimumHealth());
+        entityManager.clear();
+        Game game = gameRepository.findById(played.gameId()).orElseThrow();
+        assertEquals(7, game.getResult());
+        assertEquals(boardId, game.getBoard().getId());
+    }
+
+    @Test
+    void testPlayStoresMissingMinimumHealth() {
+        Long boardId = boardRepository.save(new Board("Unsolved", new int[][]{{-2, -3, 3}, {-5, -10, 1}, {10, 30, -5}})).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(7, playService.play(playerId, boardId).orElseThrow().minimumHealth());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(7, boardRepository.findById(boardId).orElseThrow().minHpFor(DungeonService.SOLVER_VERSION));
+    }
+
+    @Test
+    void testPlayAllReportsEachPlayAndBatchesInserts() {
+        Long bobId = playerRepository.save(new Player("Bob", "bob@example.com")).getId();
+        Board solved = new Board("Solved", new int[][]{{-2, -3, 3}, {-5, -10, 1}, {10, 30, -5}});
+        dungeonService.precompute(solved);
+        Long solvedId = boardRepository.save(solved).getId();
+        Long unsolvedId = boardRepository.save(new Board("Unsolved", new int[][]{{0, -5}, {-3, 0}})).getId();
+        playService.play(playerId, solvedId);
+        entityManager.flush();
+        entityManager.clear();
+        statements.set(0);
+
+        List<PlayService.PlayOutcome> outcomes = playService.playAll(List.of(
+                new PlayService.PlayRequest(playerId, solvedId),
+                new PlayService.PlayRequest(bobId, unsolvedId),
+                new PlayService.PlayRequest(99999L, solvedId),
+                new PlayService.PlayRequest(bobId, 99999L),
+                new PlayService.PlayRequest(bobId, solvedId),
+                new PlayService.PlayRequest(playerId, unsolvedId)));
+        entityManager.flush();
+
+        // Players, boards, the unsolved board, its stamp, and one batch of four games
+        assertEquals(5, statements.get());
+        assertEquals(6, outcomes.size());
+        assertEquals(7, outcomes.get(0).game().minimumHealth());
+        assertEquals("Alice", outcomes.get(0).game().playerName());
+        assertEquals(4, outcomes.get(1).game().minimumHealth());
+        assertEquals("Unsolved", outcomes.get(1).game().boardName());
+        assertEquals("Player not found", outcomes.get(2).error());
+        assertEquals("Board not found", outcomes.get(3).error());
+        assertEquals("Bob", outcomes.get(4).game().playerName());
+        assertEquals(4, outcomes.get(5).game().minimumHealth());
+        assertEquals(5, gameRepository.count());
+        assertNotNull(outcomes.get(5).game().gameId());
+        entityManager.clear();
+        assertEquals(4, boardRepository.findById(unsolvedId).orElseThrow().minHpFor(DungeonService.SOLVER_VERSION));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testStatsTakeThePlaysOnceTheyCommit() {
+        Board board = new Board("Solved", new int[][]{{-2, -3, 3}, {-5, -10, 1}, {10, 30, -5}});
+        dungeonService.precompute(board);
+        Long boardId = boardRepository.save(board).getId();
+        gameStatsService.createPlayerStats(playerId);
+        gameStatsService.createBoardStats(boardId);
+        try {
+            playService.play(playerId, boardId);
+            playService.playAll(List.of(new PlayService.PlayRequest(playerId, boardId),
+                    new PlayService.PlayRequest(playerId, boardId)));
+            // Applied by the next flush, not by the plays
+            assertEquals(0, gameStatsService.playerStats(playerId).orElseThrow().getGamesPlayed());
+
+            gameStatsService.flush();
+
+            assertEquals(3, gameStatsService.playerStats(playerId).orElseThrow().getGamesPlayed());
+            assertEquals(3, gameStatsService.boardStats(boardId).orElseThrow().getGamesPlayed());
+            assertEquals(7, gameStatsService.boardStats(boardId).orElseThrow().getBestMinHp());
+        } finally {
+            gameRepository.deleteAll();
+            gameStatsService.deletePlayerStats(playerId);
+            gameStatsService.deleteBoardStats(boardId);
+            boardRepository.deleteById(boardId);
+            playerRepository.deleteById(playerId);
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testNoConnectionIsHeldWhileTheBoardIsSolved() {
+        // A grid of its own, so the solve isn't answered from the result cache
+        Long boardId = boardRepository.save(new Board("Unsolved", new int[][]{{-3, 5}, {1, -7}})).getId();
+        AtomicInteger open = ((CountingDataSource) dataSource).open;
+        List<Integer> openWhileSolving = new ArrayList<>();
+        try {
+            PlayService.PlayedGame played = playService.play(playerId, boardId,
+                    (rows, total) -> openWhileSolving.add(open.get())).orElseThrow();
+
+            assertFalse(openWhileSolving.isEmpty());
+            assertTrue(openWhileSolving.stream().allMatch(connections -> connections == 0));
+            assertEquals(6, played.minimumHealth());
+            assertEquals(6, gameRepository.findById(played.gameId()).orElseThrow().getResult());
+        } finally {
+            gameStatsService.flush();
+            gameRepository.deleteAll();
+            gameStatsService.deletePlayerStats(playerId);
+            gameStatsService.deleteBoardStats(boardId);
+            boardRepository.deleteById(boardId);
+            playerRepository.deleteById(playerId);
+        }
+    }
+
+    @Test
+    void testCancelledPlayRecordsNoGame() {
+        Board solved = new Board("Solved", new int[][]{{-2, -3, 3}, {-5, -10, 1}, {10, 30, -5}});
+        dungeonService.precompute(solved);
+        Long solvedId = boardRepository.save(solved).getId();
+        Long unsolvedId = boardRepository.save(new Board("Unsolved", new int[][]{{-3, 5}, {1, -7}, {4, -2}})).getId();
+        SolveProgress cancelled = new SolveProgress() {
+            @Override
+            public void rowsSolved(int rows, int total) {}
+
+            @Override
+            public boolean isCancelled() {
+                return true;
+            }
+        };
+
+        // Cancelled during the solve, and after a lookup that needed none
+        assertThrows(CancellationException.class, () -> playService.play(playerId, unsolvedId, cancelled));
+        assertThrows(CancellationException.class, () -> playService.play(playerId, solvedId, cancelled));
+
+        assertEquals(0, gameRepository.count());
+    }
+
+    @Test
+    void testBatchKeepsTheGamesJournaledBeforeAFailedAppend() {
+        Board board = new Board("Solved", new int[][]{{-2, -3, 3}, {-5, -10, 1}, {10, 30, -5}});
+        dungeonService.precompute(board);
+        Long boardId = boardRepository.save(board).getId();
+        GameWriteBehindService journal = mock(GameWriteBehindService.class);
+        when(journal.isEnabled()).thenReturn(true);
+        when(journal.append(playerId, boardId, 7)).thenReturn(41L).thenThrow(new UncheckedIOException(new IOException("Disk full")));
+        Object writeBehind = ReflectionTestUtils.getField(playService, "writeBehind");
+        ReflectionTestUtils.setField(playService, "writeBehind", journal);
+        try {
+            List<PlayService.PlayOutcome> outcomes = playService.playAll(List.of(
+                    new PlayService.PlayRequest(playerId, boardId),
+                    new PlayService.PlayRequest(playerId, boardId),
+                    new PlayService.PlayRequest(playerId, boardId)));
+
+            assertEquals(7, outcomes.get(0).game().minimumHealth());
+            assertEquals("Game could not be stored", outcomes.get(1).error());
+            assertEquals("Game could not be stored", outcomes.get(2).error());
+            // The room of the two games never journaled is given back
+            verify(journal).reserve(3);
+            verify(journal).release(2);
+            verify(journal).sync(41L);
+        } finally {
+            ReflectionTestUtils.setField(playService, "writeBehind", writeBehind);
+        }
+    }
+
+    @Test
+    void testPlayWithUnknownBoardIsEmpty() {
+        assertTrue(playService.play(playerId, 99999L).isEmpty());
+        assertEquals(0, gameRepository.count());
+    }
+
+    @TestConfiguration
+    static class StatementCounting {
+
+        // Static, so the post-processor is registered before the data source is created
+        @Bean
+        static BeanPostProcessor countingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new CountingDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    // Counts the statements executed on its connections, by Hibernate and JDBC alike (a JDBC batch counts
+    // once), and the connections open
+    static class CountingDataSource extends DelegatingDataSource {
+        private final AtomicInteger statements = new AtomicInteger();
+        private final AtomicInteger open = new AtomicInteger();
+
+        CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = (Connection) counting(Connection.class, super.getConnection());
+            open.incrementAndGet();
+            return connection;
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            Connection connection = (Connection) counting(Connection.class, super.getConnection(username, password));
+            open.incrementAndGet();
+            return connection;
+        }
+
+        // The connection, and the statements it creates
+        private Object counting(Class<?> type, Object target) {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                if (method.getName().startsWith("execute")) {
+                    statements.incrementAndGet();
+                } else if (target instanceof Connection && method.getName().equals("close") && !((Connection) target).isClosed()) {
+                    open.decrementAndGet();
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                return result instanceof Statement && method.getReturnType().isInterface()
+                        ? counting(method.getReturnType(), result) : result;
+            });
+        }
+    }
+}
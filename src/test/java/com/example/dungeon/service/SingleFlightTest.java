@@ -0,0 +1,141 @@
+package com.example.dungeon.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger coalesced = new AtomicInteger();
+    private final SingleFlight<Long, Integer> flights = new SingleFlight<>(delta -> {
+        if (delta > 0) coalesced.incrementAndGet();
+        waiting.addAndGet(delta);
+    });
+
+    @Test
+    void testConcurrentCallersShareOneCall() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Integer> leader = executor.submit(() -> flights.execute(1L, () -> {
+                calls.incrementAndGet();
+                started.countDown();
+                await(release);
+                return 7;
+            }));
+            started.await();
+            List<Future<Integer>> followers = new ArrayList<>();
+            for (int k = 0; k < 8; k++) {
+                followers.add(executor.submit(() -> flights.execute(1L, () -> calls.incrementAndGet() * 100)));
+            }
+            while (waiting.get() < 8) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertEquals(7, leader.get());
+            for (Future<Integer> follower : followers) {
+                assertEquals(7, follower.get());
+            }
+        }
+        assertEquals(1, calls.get());
+        assertEquals(8, coalesced.get());
+        assertEquals(0, waiting.get());
+        // Nothing is kept once the call completes
+        assertEquals(2, flights.execute(1L, () -> 2));
+    }
+
+    @Test
+    void testFollowersGetTheLeadersException() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Integer> leader = executor.submit(() -> flights.execute(1L, () -> {
+                started.countDown();
+                await(release);
+                throw new IllegalStateException("Board not found");
+            }));
+            started.await();
+            Future<Integer> follower = executor.submit(() -> flights.execute(1L, () -> 1));
+            while (waiting.get() < 1) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertInstanceOf(IllegalStateException.class, assertThrows(Exception.class, leader::get).getCause());
+            assertInstanceOf(IllegalStateException.class, assertThrows(Exception.class, follower::get).getCause());
+        }
+    }
+
+    @Test
+    void testFollowersRunTheCallWhenTheLeaderIsCancelled() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Integer> leader = executor.submit(() -> flights.execute(1L, () -> {
+                started.countDown();
+                await(release);
+                throw new CancellationException("Job cancelled");
+            }));
+            started.await();
+            Future<Integer> follower = executor.submit(() -> flights.execute(1L, () -> 5));
+            while (waiting.get() < 1) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertInstanceOf(CancellationException.class, assertThrows(Exception.class, leader::get).getCause());
+            assertEquals(5, follower.get());
+        }
+    }
+
+    @Test
+    void testExecuteAllLeadsFreeKeysAndFollowsTheRest() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<List<Long>> batches = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Integer> single = executor.submit(() -> flights.execute(2L, () -> {
+                started.countDown();
+                await(release);
+                return 20;
+            }));
+            started.await();
+            Future<Map<Long, Integer>> batch = executor.submit(() -> flights.executeAll(List.of(1L, 2L, 3L, 1L), keys -> {
+                batches.add(keys);
+                return Map.of(1L, 10); // 3 could not be computed
+            }));
+            while (waiting.get() < 1) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertEquals(Map.of(1L, 10, 2L, 20), batch.get(5, TimeUnit.SECONDS));
+            assertEquals(20, single.get());
+        }
+        assertEquals(1, batches.size());
+        assertEquals(2, batches.get(0).size());
+        assertFalse(batches.get(0).contains(2L));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.dungeon.solver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DpTableTest {
+
+    @Test
+    void testEveryEntryIsTheMinimumHpFromItsCell() {
+        int[][] board = randomBoard(new Random(3), 7, 9);
+        DpTable table = DpTable.solve(Grid.of(board));
+
+        assertEquals(SequentialSolverTest.referenceMinimumHP(board), table.minHp());
+        for (int i = 0; i < board.length; i++) {
+            for (int j = 0; j < board[0].length; j++) {
+                assertEquals(SequentialSolverTest.referenceMinimumHP(from(board, i, j)), table.at(i, j));
+            }
+        }
+    }
+
+    @Test
+    void testUpdateMatchesAFreshSolveAfterRandomEdits() {
+        Random random = new Random(11);
+        int[][] board = randomBoard(random, 30, 40);
+        DpTable table = DpTable.solve(Grid.of(board));
+        for (int round = 0; round < 50; round++) {
+            int top = Integer.MAX_VALUE;
+            int bottom = -1;
+            int right = -1;
+            for (int edits = 1 + random.nextInt(3); edits > 0; edits--) {
+                int i = random.nextInt(30);
+                int j = random.nextInt(40);
+                board[i][j] = random.nextInt(21) - 10;
+                top = Math.min(top, i);
+                bottom = Math.max(bottom, i);
+                right = Math.max(right, j);
+            }
+            Grid grid = Grid.of(board);
+            table.update(grid, top, bottom, right);
+
+            DpTable fresh = DpTable.solve(grid);
+            for (int i = 0; i < 30; i++) {
+                for (int j = 0; j < 40; j++) {
+                    assertEquals(fresh.at(i, j), table.at(i, j), "Round " + round + " at (" + i + ", " + j + ")");
+                }
+            }
+        }
+    }
+
+    @Test
+    void testEditNearTheOriginResolvesAFewEntries() {
+        int[][] board = randomBoard(new Random(5), 200, 300);
+        DpTable table = DpTable.solve(Grid.of(board));
+        board[1][1] = -50;
+
+        assertEquals(4, table.update(Grid.of(board), 1, 1, 1));
+        assertEquals(SequentialSolverTest.referenceMinimumHP(board), table.minHp());
+    }
+
+    @Test
+    void testUpdateStopsAtTheFirstUnchangedRowAboveTheEdits() {
+        int[][] board = new int[50][20];
+        for (int[] row : board) {
+            Arrays.fill(row, 5);
+        }
+        DpTable table = DpTable.solve(Grid.of(board));
+        // Still no HP needed beyond the first, so nothing above the bottom row changes
+        board[49][19] = 3;
+
+        assertEquals(20, table.update(Grid.of(board), 49, 49, 19));
+        assertEquals(1, table.minHp());
+    }
+
+    @Test
+    void testEntriesTakeTheNarrowestWidthThatHoldsThem() {
+        assertEquals(6, DpTable.solve(Grid.of(new int[][]{{-2, -3, 3}, {-5, -10, 1}})).sizeInBytes());
+        assertEquals(4, DpTable.solve(Grid.of(new int[][]{{0, -300}, {0, 0}})).sizeInBytes() / 2);
+        assertEquals(4 * 4, DpTable.solve(Grid.of(new int[][]{{0, -70_000}, {0, 0}})).sizeInBytes());
+    }
+
+    @Test
+    void testUpdateWidensTheTableWhenAnEntryOutgrowsIt() {
+        int[][] board = randomBoard(new Random(13), 20, 20);
+        DpTable table = DpTable.solve(Grid.of(board));
+        assertEquals(400, table.sizeInBytes());
+        board[15][15] = -100_000;
+
+        table.update(Grid.of(board), 15, 15, 15);
+
+        assertEquals(400 * 4, table.sizeInBytes());
+        DpTable fresh = DpTable.solve(Grid.of(board));
+        for (int i = 0; i < 20; i++) {
+            for (int j = 0; j < 20; j++) {
+                assertEquals(fresh.at(i, j), table.at(i, j));
+            }
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> table.at(20, 0));
+    }
+
+    @Test
+    void testUpdatingACopyLeavesTheOriginalAsItWas() {
+        int[][] board = randomBoard(new Random(5), 20, 20);
+        DpTable table = DpTable.solve(Grid.of(board));
+        int[][] before = entries(table);
+
+        board[15][15] = -1000;
+        DpTable copy = table.copy();
+        copy.update(Grid.of(board), 15, 15, 15);
+
+        assertArrayEquals(before, entries(table));
+        assertEquals(SequentialSolverTest.referenceMinimumHP(from(board, 15, 15)), copy.at(15, 15));
+        assertNotEquals(table.at(15, 15), copy.at(15, 15));
+    }
+
+    @Test
+    void testMismatchedGridRejected() {
+        DpTable table = DpTable.solve(Grid.of(new int[][]{{1, 2}, {3, 4}}));
+        assertThrows(IllegalArgumentException.class, () -> table.update(Grid.of(new int[][]{{1, 2, 3}}), 0, 0, 0));
+    }
+
+    private static int[][] from(int[][] board, int row, int col) {
+        int[][] rest = new int[board.length - row][];
+        for (int i = row; i < board.length; i++) {
+            rest[i - row] = Arrays.copyOfRange(board[i], col, board[i].length);
+        }
+        return rest;
+    }
+
+    private static int[][] randomBoard(Random random, int rows, int cols) {
+        int[][] board = new int[rows][cols];
+        for (int[] row : board) {
+            for (int j = 0; j < cols; j++) {
+                row[j] = random.nextInt(21) - 10;
+            }
+        }
+        return board;
+    }
+
+    private static int[][] entries(DpTable table) {
+        int[][] entries = new int[table.rows()][table.cols()];
+        for (int i = 0; i < table.rows(); i++) {
+            for (int j = 0; j < table.cols(); j++) {
+                entries[i][j] = table.at(i, j);
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.dungeon.solver;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteSolverTest {
+
+    private static final Pattern RUN = Pattern.compile("(\\d+)([DR])");
+
+    private RouteSolver solver;
+
+    @BeforeEach
+    void setUp() {
+        solver = new RouteSolver();
+    }
+
+    @Test
+    void testExampleCase() {
+        Route route = solver.solve(Grid.of(new int[][]{
+                {-2, -3, 3},
+                {-5, -10, 1},
+                {10, 30, -5}
+        }));
+        assertEquals(7, route.minHp());
+        assertEquals("2R2D", route.path());
+    }
+
+    @Test
+    void testSingleCellHasAnEmptyRoute() {
+        assertEquals(new Route(6, ""), solver.solve(Grid.of(new int[][]{{-5}})));
+    }
+
+    @Test
+    void testRoutesAreOptimalOnRandomShapes() {
+        Random random = new Random(23);
+        int[][] shapes = {{1, 1}, {1, 9}, {9, 1}, {2, 7}, {7, 2}, {13, 13}, {5, 40}, {40, 5}, {64, 3}};
+        for (int[] shape : shapes) {
+            for (int round = 0; round < 20; round++) {
+                int[][] board = randomBoard(random, shape[0], shape[1]);
+                Route route = solver.solve(Grid.of(board));
+                int expected = SequentialSolverTest.referenceMinimumHP(board);
+                assertEquals(expected, route.minHp(), "Mismatch on " + Arrays.deepToString(board));
+                assertEquals(expected, walk(board, route.path()), "Route " + route.path() + " on " + Arrays.deepToString(board));
+            }
+        }
+    }
+
+    @Test
+    void testRunsAreMerged() {
+        // Every cell is free, so the first feasible step down is taken at once: all the way down, then right
+        Route route = solver.solve(Grid.of(new int[6][4]));
+        assertEquals("5D3R", route.path());
+    }
+
+    @Test
+    void testWrongMinimumHpRejected() {
+        int[][] board = {{-2, -3, 3}, {-5, -10, 1}, {10, 30, -5}};
+        assertThrows(IllegalArgumentException.class, () -> solver.solve(Grid.of(board), 6));
+    }
+
+    // The least HP the moves need, after checking they go from the top-left to the bottom-right cell
+    private static int walk(int[][] board, String path) {
+        Matcher runs = RUN.matcher(path);
+        int i = 0;
+        int j = 0;
+        long sum = board[0][0];
+        long lowest = sum;
+        int end = 0;
+        while (runs.find()) {
+            assertEquals(end, runs.start(), "Malformed route " + path);
+            end = runs.end();
+            for (int step = Integer.parseInt(runs.group(1)); step > 0; step--) {
+                if (runs.group(2).equals("D")) i++; else j++;
+                sum += board[i][j];
+                lowest = Math.min(lowest, sum);
+            }
+        }
+        assertEquals(path.length(), end, "Malformed route " + path);
+        assertEquals(board.length - 1, i);
+        assertEquals(board[0].length - 1, j);
+        return (int) Math.max(1, 1 - lowest);
+    }
+
+    private static int[][] randomBoard(Random random, int rows, int cols) {
+        int[][] board = new int[rows][cols];
+        for (int[] row : board) {
+            for (int j = 0; j < cols; j++) {
+                row[j] = random.nextInt(21) - 10;
+            }
+        }
+        return board;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.dungeon.solver;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SequentialSolverTest {
+
+    private SequentialSolver solver;
+
+    @BeforeEach
+    void setUp() {
+        solver = new SequentialSolver();
+    }
+
+    @Test
+    void testExampleCase() {
+        Grid grid = Grid.of(new int[][]{
+                {-2, -3, 3},
+                {-5, -10, 1},
+                {10, 30, -5}
+        });
+        assertEquals(7, solver.solve(grid));
+    }
+
+    @Test
+    void testMatchesFullTableOnRandomShapes() {
+        Random random = new Random(42);
+        int[][] shapes = {{1, 1}, {1, 9}, {9, 1}, {2, 7}, {7, 2}, {13, 13}, {5, 40}, {40, 5}};
+        for (int[] shape : shapes) {
+            for (int round = 0; round < 20; round++) {
+                int[][] board = randomBoard(random, shape[0], shape[1]);
+                assertEquals(referenceMinimumHP(board), solver.solve(Grid.of(board)),
+                        "Mismatch on " + Arrays.deepToString(board));
+            }
+        }
+    }
+
+    @Test
+    void testScratchBufferReusedAcrossSizes() {
+        Random random = new Random(7);
+        int[][] large = randomBoard(random, 200, 300);
+        int[][] small = randomBoard(random, 3, 4);
+        assertEquals(referenceMinimumHP(large), solver.solve(Grid.of(large)));
+        assertEquals(referenceMinimumHP(small), solver.solve(Grid.of(small)));
+    }
+
+    @Test
+    void testEmptyBoardRejected() {
+        assertThrows(IllegalArgumentException.class, () -> solver.solve(new Grid(0, 0, new int[0])));
+    }
+
+    @Test
+    void testRaggedBoardRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Grid.of(new int[][]{{1, 2}, {3}}));
+    }
+
+    @Test
+    void testGridRoundTrip() {
+        int[][] board = {{1, -2, 3}, {-4, 5, -6}};
+        Grid grid = Grid.of(board);
+        assertEquals(2, grid.rows());
+        assertEquals(3, grid.cols());
+        assertEquals(-6, grid.get(1, 2));
+        assertArrayEquals(board, grid.toArray());
+    }
+
+    @Test
+    void testConcurrentSolvesOnVirtualThreadsShareABoundedPool() throws Exception {
+        Random random = new Random(7);
+        List<int[][]> boards = new ArrayList<>();
+        for (int k = 0; k < 200; k++) {
+            boards.add(randomBoard(random, 1 + random.nextInt(30), 1 + random.nextInt(30)));
+        }
+        List<Future<Integer>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int[][] board : boards) {
+                results.add(executor.submit(() -> solver.solve(Grid.of(board))));
+            }
+        }
+        for (int k = 0; k < boards.size(); k++) {
+            assertEquals(referenceMinimumHP(boards.get(k)), results.get(k).get());
+        }
+        assertTrue(ScratchPool.LINES.size() <= 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    @Test
+    void testPoolDropsBuffersTooSmallOrBeyondItsCapacity() {
+        ScratchPool pool = new ScratchPool(1);
+        int[] small = pool.take(10);
+        pool.give(small);
+        assertSame(small, pool.take(10));
+        pool.give(small);
+        int[] large = pool.take(1000);
+        assertNotSame(small, large);
+        assertTrue(large.length >= 1000);
+        pool.give(large);
+        pool.give(new int[2000]);
+        assertEquals(1, pool.size());
+        assertSame(large, pool.take(1000));
+    }
+
+    static int[][] randomBoard(Random random, int rows, int cols) {
+        int[][] board = new int[rows][cols];
+        for (int[] row : board) {
+            for (int j = 0; j < cols; j++) {
+                row[j] = random.nextInt(41) - 20;
+            }
+        }
+        return board;
+    }
+
+    // The original full-table DP, kept as the reference implementation
+    static int referenceMinimumHP(int[][] dungeon) {
+        int m = dungeon.length;
+        int n = dungeon[0].length;
+        int[][] dp = new int[m + 1][n + 1];
+        for (int i = 0; i <= m; i++) {
+            Arrays.fill(dp[i], Integer.MAX_VALUE);
+        }
+        dp[m][n - 1] = 1;
+        dp[m - 1][n] = 1;
+        for (int i = m - 1; i >= 0; i--) {
+            for (int j = n - 1; j >= 0; j--) {
+                int need = Math.min(dp[i + 1][j], dp[i][j + 1]) - dungeon[i][j];
+                dp[i][j] = Math.max(1, need);
+            }
+        }
+        return dp[0][0];
+    }
+}
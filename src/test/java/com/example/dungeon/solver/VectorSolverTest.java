@@ -0,0 +1,56 @@
+package com.example.dungeon.solver;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VectorSolverTest {
+
+    private DungeonSolver solver;
+    private SequentialSolver sequential;
+
+    @BeforeEach
+    void setUp() {
+        assumeTrue(VectorSupport.isAvailable(), "jdk.incubator.vector is not resolved");
+        solver = VectorSupport.create();
+        sequential = new SequentialSolver();
+    }
+
+    @Test
+    void testExampleCase() {
+        Grid grid = Grid.of(new int[][]{
+                {-2, -3, 3},
+                {-5, -10, 1},
+                {10, 30, -5}
+        });
+        assertEquals(7, solver.solve(grid));
+    }
+
+    @Test
+    void testMatchesSequentialOnRandomShapes() {
+        Random random = new Random(23);
+        int[][] shapes = {{1, 1}, {1, 70}, {70, 1}, {16, 16}, {17, 33}, {33, 17}, {100, 100}, {9, 300}, {300, 9}};
+        for (int[] shape : shapes) {
+            for (int round = 0; round < 5; round++) {
+                Grid grid = Grid.of(SequentialSolverTest.randomBoard(random, shape[0], shape[1]));
+                assertEquals(sequential.solve(grid), solver.solve(grid),
+                        "Mismatch on " + shape[0] + "x" + shape[1]);
+            }
+        }
+    }
+
+    @Test
+    void testAllNegativeBoard() {
+        int[][] board = new int[40][40];
+        for (int[] row : board) {
+            Arrays.fill(row, -7);
+        }
+        Grid grid = Grid.of(board);
+        assertEquals(sequential.solve(grid), solver.solve(grid));
+    }
+}
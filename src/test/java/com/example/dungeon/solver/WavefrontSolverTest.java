@@ -0,0 +1,57 @@
+package com.example.dungeon.solver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WavefrontSolverTest {
+
+    private ForkJoinPool pool;
+    private SequentialSolver sequential;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+        sequential = new SequentialSolver();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void testExampleCase() {
+        Grid grid = Grid.of(new int[][]{
+                {-2, -3, 3},
+                {-5, -10, 1},
+                {10, 30, -5}
+        });
+        assertEquals(7, new WavefrontSolver(pool, 2).solve(grid));
+    }
+
+    @Test
+    void testMatchesSequentialForEveryTileSize() {
+        Random random = new Random(11);
+        int[][] shapes = {{1, 1}, {1, 50}, {50, 1}, {17, 23}, {64, 64}, {3, 200}, {200, 3}};
+        int[] tileSizes = {1, 2, 5, 16, 64, 1000};
+        for (int[] shape : shapes) {
+            Grid grid = Grid.of(SequentialSolverTest.randomBoard(random, shape[0], shape[1]));
+            int expected = sequential.solve(grid);
+            for (int tileSize : tileSizes) {
+                assertEquals(expected, new WavefrontSolver(pool, tileSize).solve(grid),
+                        "Mismatch on " + shape[0] + "x" + shape[1] + " with tile " + tileSize);
+            }
+        }
+    }
+
+    @Test
+    void testInvalidTileSizeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new WavefrontSolver(pool, 0));
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.dungeon.storage;
+
+import com.example.dungeon.solver.Grid;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardCodecTest {
+
+    @Test
+    void testRoundTripSmallValuesUseOneBytePerCell() {
+        Random random = new Random(3);
+        int[] cells = new int[400];
+        for (int k = 0; k < cells.length; k++) {
+            cells[k] = random.nextInt(21) - 10;
+        }
+        Grid grid = new Grid(20, 20, cells);
+
+        byte[] encoded = BoardCodec.encode(grid);
+        assertEquals(1, encoded[3]);
+        assertTrue(encoded.length < 410, "20x20 board took " + encoded.length + " bytes");
+        assertArrayEquals(cells, BoardCodec.decode(encoded).cells());
+    }
+
+    @Test
+    void testRoundTripShortValues() {
+        Grid grid = new Grid(2, 3, new int[]{-1000, 32767, -32768, 0, 200, -129});
+        byte[] encoded = BoardCodec.encode(grid);
+        assertEquals(2, encoded[3]);
+        assertArrayEquals(grid.cells(), BoardCodec.decode(encoded).cells());
+    }
+
+    @Test
+    void testRoundTripWideValues() {
+        Grid sparse = new Grid(1, 4, new int[]{1, 2, 3, 1_000_000});
+        byte[] varint = BoardCodec.encode(sparse);
+        assertEquals(BoardCodec.WIDTH_VARINT, varint[3]);
+        assertArrayEquals(sparse.cells(), BoardCodec.decode(varint).cells());
+
+        Grid dense = new Grid(2, 2, new int[]{Integer.MIN_VALUE, Integer.MAX_VALUE, -70_000, 70_000});
+        byte[] fixed = BoardCodec.encode(dense);
+        assertEquals(4, fixed[3]);
+        assertArrayEquals(dense.cells(), BoardCodec.decode(fixed).cells());
+    }
+
+    @Test
+    void testLargeBoardsAreDeflated() {
+        int[] cells = new int[256 * 256];
+        Arrays.fill(cells, -3);
+        Grid grid = new Grid(256, 256, cells);
+
+        byte[] encoded = BoardCodec.encode(grid);
+        assertEquals(BoardCodec.FLAG_DEFLATE, encoded[2] & BoardCodec.FLAG_DEFLATE);
+        assertTrue(encoded.length < cells.length / 10);
+        Grid decoded = BoardCodec.decode(encoded);
+        assertEquals(256, decoded.rows());
+        assertArrayEquals(cells, decoded.cells());
+    }
+
+    @Test
+    void testRejectsForeignOrTruncatedData() {
+        assertThrows(IllegalArgumentException.class, () -> BoardCodec.decode("[[1,2]]".getBytes()));
+        byte[] encoded = BoardCodec.encode(new Grid(3, 3, new int[9]));
+        assertThrows(IllegalArgumentException.class,
+                () -> BoardCodec.decode(Arrays.copyOf(encoded, encoded.length - 2)));
+    }
+}
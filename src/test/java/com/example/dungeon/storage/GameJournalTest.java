@@ -0,0 +1,92 @@
+package com.example.dungeon.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testAppendedEntriesAreReadBack() {
+        GameJournal journal = GameJournal.open(directory, 0);
+        assertEquals(1, journal.append(7, 3, 12, 1_000L));
+        assertEquals(2, journal.append(8, 3, 1, 2_000L));
+        journal.sync(2);
+
+        assertEquals(List.of(new GameJournal.Entry(1, 7, 3, 12, 1_000L), new GameJournal.Entry(2, 8, 3, 1, 2_000L)),
+                journal.readAfter(0));
+        assertEquals(List.of(new GameJournal.Entry(2, 8, 3, 1, 2_000L)), journal.readAfter(1));
+        journal.close();
+    }
+
+    @Test
+    void testReopenContinuesAfterLastRecordAndCommittedSequence() {
+        GameJournal journal = GameJournal.open(directory, 0);
+        journal.append(1, 1, 5, 0);
+        journal.append(2, 1, 6, 0);
+        journal.close();
+
+        GameJournal reopened = GameJournal.open(directory, 1);
+        assertEquals(2, reopened.lastSequence());
+        assertEquals(3, reopened.append(3, 1, 7, 0));
+        assertEquals(3, reopened.readAfter(0).size());
+        reopened.close();
+
+        GameJournal ahead = GameJournal.open(directory, 10);
+        assertEquals(11, ahead.append(4, 1, 8, 0));
+        assertEquals(List.of(11L), ahead.readAfter(3).stream().map(GameJournal.Entry::sequence).toList());
+        ahead.close();
+    }
+
+    @Test
+    void testTornRecordEndsTheJournal() throws Exception {
+        GameJournal journal = GameJournal.open(directory, 0);
+        journal.append(1, 1, 5, 0);
+        journal.append(2, 1, 6, 0);
+        journal.close();
+        try (Stream<Path> files = Files.list(directory);
+             RandomAccessFile file = new RandomAccessFile(files.findFirst().orElseThrow().toFile(), "rw")) {
+            file.seek(GameJournal.RECORD_BYTES + 20);
+            file.write(0xFF);
+        }
+
+        GameJournal reopened = GameJournal.open(directory, 0);
+        assertEquals(1, reopened.readAfter(0).size());
+        assertEquals(2, reopened.append(9, 9, 9, 0));
+        assertEquals(9, reopened.readAfter(1).get(0).playerId());
+        reopened.close();
+    }
+
+    @Test
+    void testFullSegmentsRollAndAreReleasedOnceCommitted() throws Exception {
+        GameJournal journal = GameJournal.open(directory, 0);
+        for (int k = 0; k <= GameJournal.RECORDS_PER_SEGMENT; k++) {
+            journal.append(k, 1, 1, 0);
+        }
+        journal.sync(journal.lastSequence());
+        assertEquals(2, segmentCount());
+
+        journal.release(GameJournal.RECORDS_PER_SEGMENT - 1);
+        assertEquals(2, segmentCount());
+        journal.release(GameJournal.RECORDS_PER_SEGMENT);
+        assertEquals(1, segmentCount());
+        assertEquals(1, journal.readAfter(0).size());
+        journal.close();
+    }
+
+    private long segmentCount() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
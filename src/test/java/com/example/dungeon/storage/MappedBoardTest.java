@@ -0,0 +1,77 @@
+package com.example.dungeon.storage;
+
+import com.example.dungeon.config.StorageProperties;
+import com.example.dungeon.solver.Grid;
+import com.example.dungeon.solver.SequentialSolver;
+import com.example.dungeon.solver.StreamingSolver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedBoardTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWriteAndReadRows() {
+        int[][] board = {{-2, -3, 3}, {-5, -10, 1}, {10, 30, -5}};
+        Path file = directory.resolve("example.board");
+        MappedBoard.write(file, board);
+
+        MappedBoard mapped = MappedBoard.open(file);
+        assertEquals(3, mapped.rows());
+        assertEquals(3, mapped.cols());
+        int[] row = new int[3];
+        for (int i = 2; i >= 0; i--) {
+            mapped.readRow(i, 0, 3, row);
+            assertArrayEquals(board[i], row);
+        }
+        int[] slice = new int[2];
+        mapped.readRow(0, 1, 3, slice);
+        assertArrayEquals(new int[]{-3, 3}, slice);
+    }
+
+    @Test
+    void testStreamingSolveMatchesInMemorySolve() {
+        Random random = new Random(5);
+        int[][] board = new int[300][120];
+        for (int[] row : board) {
+            for (int j = 0; j < row.length; j++) {
+                row[j] = random.nextInt(21) - 10;
+            }
+        }
+        Path file = directory.resolve("random.board");
+        MappedBoard.write(file, board);
+
+        assertEquals(new SequentialSolver().solve(Grid.of(board)),
+                new StreamingSolver().solve(MappedBoard.open(file)));
+        assertEquals(Grid.of(board).contentHash(), Grid.contentHash(MappedBoard.open(file)));
+        board[299][119]++;
+        assertNotEquals(Grid.of(board).contentHash(), Grid.contentHash(MappedBoard.open(file)));
+    }
+
+    @Test
+    void testRejectsForeignFile() throws Exception {
+        Path file = directory.resolve("foreign.board");
+        Files.write(file, new byte[32]);
+        assertThrows(IllegalStateException.class, () -> MappedBoard.open(file));
+    }
+
+    @Test
+    void testStoreDeletesPartialFileOnRaggedBoard() throws Exception {
+        StorageProperties properties = new StorageProperties();
+        properties.setDirectory(directory.toString());
+        MappedBoardStore store = new MappedBoardStore(properties);
+
+        assertThrows(IllegalArgumentException.class, () -> store.write(new int[][]{{1, 2}, {3}}));
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+}
@@ -92,7 +92,10 @@ export default function () {
   sleep(Math.random() * 5); // Random 0-5s delay
 
   let boardGet = http.get(`http://app:8080/api/boards/${boardId}`);
-  check(boardGet, { "board fetched": (r) => r.status === 200 });
+  check(boardGet, {
+    "board fetched": (r) => r.status === 200,
+    "board grid returned": (r) => Array.isArray(r.json("boardArray")),
+  });
 
   sleep(Math.random() * 5); // Random 0-5s delay
 